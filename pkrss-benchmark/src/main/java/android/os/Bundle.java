@@ -0,0 +1,65 @@
+package android.os;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Benchmark shadow of Android's Bundle, whose class initialization relies on native code.
+ * Only covers what {@link com.pkmmte.pkrss.Article} uses.
+ */
+public final class Bundle {
+	private final Map<String, Object> map = new HashMap<String, Object>();
+
+	public Object get(String key) {
+		return map.get(key);
+	}
+
+	public String getString(String key) {
+		Object value = map.get(key);
+		return value instanceof String ? (String) value : null;
+	}
+
+	public int getInt(String key) {
+		Object value = map.get(key);
+		return value instanceof Integer ? (Integer) value : 0;
+	}
+
+	public boolean getBoolean(String key) {
+		Object value = map.get(key);
+		return value instanceof Boolean && (Boolean) value;
+	}
+
+	public void putString(String key, String value) {
+		map.put(key, value);
+	}
+
+	public void putInt(String key, int value) {
+		map.put(key, value);
+	}
+
+	public void putBoolean(String key, boolean value) {
+		map.put(key, value);
+	}
+
+	public boolean containsKey(String key) {
+		return map.containsKey(key);
+	}
+
+	public Set<String> keySet() {
+		return map.keySet();
+	}
+
+	public int size() {
+		return map.size();
+	}
+
+	public boolean isEmpty() {
+		return map.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return "Bundle" + map;
+	}
+}
@@ -0,0 +1,23 @@
+package com.pkmmte.pkrss.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary results reported alongside each parser benchmark, as rates per second.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class ArticleCounters {
+	public long articles;
+	public long bytes;
+
+	@Setup(Level.Iteration)
+	public void reset() {
+		articles = 0;
+		bytes = 0;
+	}
+}
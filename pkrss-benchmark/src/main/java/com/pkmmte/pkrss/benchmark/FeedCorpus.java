@@ -0,0 +1,224 @@
+package com.pkmmte.pkrss.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * Feeds to benchmark parsers against.
+ * <p>
+ * Besides the real-world shaped samples in resources/feeds, synthetic feeds are generated on the fly
+ * from a fixed seed so every run parses the exact same bytes without checking in megabytes of XML.
+ */
+final class FeedCorpus {
+	enum Format {
+		RSS2,
+		ATOM
+	}
+
+	enum Shape {
+		/** Short descriptions only, like most news feeds. */
+		PLAIN,
+		/** Full article bodies in content:encoded / content. */
+		CONTENT,
+		/** Dozens of media:content elements and an enclosure per item, like podcast and gallery feeds. */
+		MEDIA
+	}
+
+	// Items in a "small" feed, the usual page size of a WordPress feed
+	private static final int SMALL_ITEMS = 10;
+
+	private static final String[] WORDS = {
+		"android", "feed", "parser", "release", "update", "performance", "memory", "network", "cache",
+		"library", "thread", "request", "article", "content", "media", "stream", "server", "device",
+		"caf\u00e9", "na\u00efve", "r\u00e9sum\u00e9", "\u65e5\u672c", "\u0441\u0435\u0442\u044c", "the", "a", "of", "and"
+	};
+
+	private FeedCorpus() {
+	}
+
+	/**
+	 * Generates a synthetic feed.
+	 * @param format Feed format.
+	 * @param shape What items look like.
+	 * @param size "small" for {@value #SMALL_ITEMS} items, otherwise an approximate size such as "1mb" or "20mb".
+	 * @return The UTF-8 encoded feed.
+	 */
+	static byte[] generate(Format format, Shape shape, String size) {
+		long maxBytes = size.equals("small") ? Long.MAX_VALUE : parseSize(size);
+		int maxItems = size.equals("small") ? SMALL_ITEMS : Integer.MAX_VALUE;
+		Random random = new Random(42);
+
+		StringBuilder feed = new StringBuilder();
+		if (format == Format.RSS2) {
+			feed.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+				.append("<rss version=\"2.0\" xmlns:content=\"http://purl.org/rss/1.0/modules/content/\"")
+				.append(" xmlns:wfw=\"http://wellformedweb.org/CommentAPI/\" xmlns:dc=\"http://purl.org/dc/elements/1.1/\"")
+				.append(" xmlns:media=\"http://search.yahoo.com/mrss/\">\n<channel>\n")
+				.append("<title>Synthetic Feed</title>\n<link>http://example.com/</link>\n")
+				.append("<description>Generated for benchmarking</description>\n");
+		}
+		else {
+			feed.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+				.append("<feed xmlns=\"http://www.w3.org/2005/Atom\" xmlns:media=\"http://search.yahoo.com/mrss/\">\n")
+				.append("<title>Synthetic Feed</title>\n<link rel=\"alternate\" href=\"http://example.com/\"/>\n")
+				.append("<id>tag:example.com,2015:feed</id>\n<updated>2015-07-05T19:42:24Z</updated>\n");
+		}
+
+		// Sizes are measured in chars, close enough to bytes for mostly ASCII text
+		long date = 1436150544000L;
+		for (int i = 0; i < maxItems && feed.length() < maxBytes; i++) {
+			if (format == Format.RSS2)
+				appendRssItem(feed, shape, random, i, date);
+			else
+				appendAtomEntry(feed, shape, random, i, date);
+			date -= 3600000L + random.nextInt(3600000);
+		}
+
+		feed.append(format == Format.RSS2 ? "</channel>\n</rss>\n" : "</feed>\n");
+		return utf8(feed.toString());
+	}
+
+	/**
+	 * Reads one of the real-world shaped feeds checked in under resources/feeds.
+	 * @param name File name.
+	 * @return The raw feed.
+	 */
+	static byte[] sample(String name) throws IOException {
+		InputStream input = FeedCorpus.class.getResourceAsStream("/feeds/" + name);
+		if (input == null)
+			throw new IOException("No sample feed named " + name);
+
+		try {
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int count;
+			while ((count = input.read(buffer)) != -1)
+				output.write(buffer, 0, count);
+			return output.toByteArray();
+		}
+		finally {
+			input.close();
+		}
+	}
+
+	private static void appendRssItem(StringBuilder feed, Shape shape, Random random, int index, long date) {
+		String link = "http://example.com/" + index + "/" + slug(random);
+		feed.append("<item>\n")
+			.append("<title>").append(escape(sentence(random, 8))).append("</title>\n")
+			.append("<link>").append(link).append("</link>\n")
+			.append("<comments>").append(link).append("#comments</comments>\n")
+			.append("<pubDate>").append(format(date, "EEE, d MMM yyyy HH:mm:ss Z")).append("</pubDate>\n")
+			.append("<dc:creator><![CDATA[").append(sentence(random, 2)).append("]]></dc:creator>\n");
+		for (int i = 0; i < 3; i++)
+			feed.append("<category><![CDATA[").append(WORDS[random.nextInt(WORDS.length)]).append("]]></category>\n");
+		feed.append("<guid isPermaLink=\"false\">http://example.com/?p=").append(index).append("</guid>\n")
+			.append("<description><![CDATA[").append(html(random, 1, true)).append("]]></description>\n");
+
+		if (shape == Shape.CONTENT)
+			feed.append("<content:encoded><![CDATA[").append(html(random, 24, true)).append("]]></content:encoded>\n");
+
+		feed.append("<wfw:commentRss>").append(link).append("/feed/</wfw:commentRss>\n");
+
+		if (shape == Shape.MEDIA) {
+			feed.append("<enclosure url=\"").append(link).append(".mp3\" length=\"").append(random.nextInt(50000000))
+				.append("\" type=\"audio/mpeg\"/>\n");
+			appendMedia(feed, random, link);
+		}
+		feed.append("</item>\n");
+	}
+
+	private static void appendAtomEntry(StringBuilder feed, Shape shape, Random random, int index, long date) {
+		String link = "http://example.com/" + index + "/" + slug(random);
+		feed.append("<entry>\n")
+			.append("<title>").append(escape(sentence(random, 8))).append("</title>\n")
+			.append("<link rel=\"alternate\" type=\"text/html\" href=\"").append(link).append("\"/>\n")
+			.append("<link rel=\"replies\" type=\"text/html\" href=\"").append(link).append("#comments\"/>\n")
+			.append("<id>tag:example.com,2015:post-").append(index).append("</id>\n")
+			.append("<published>").append(format(date, "yyyy-MM-dd'T'HH:mm:ss'Z'")).append("</published>\n")
+			.append("<updated>").append(format(date, "yyyy-MM-dd'T'HH:mm:ss'Z'")).append("</updated>\n")
+			.append("<author><name>").append(escape(sentence(random, 2))).append("</name></author>\n");
+		for (int i = 0; i < 3; i++)
+			feed.append("<category term=\"").append(WORDS[random.nextInt(WORDS.length)]).append("\"/>\n");
+		feed.append("<summary type=\"html\">").append(escape(html(random, 1, true))).append("</summary>\n");
+
+		if (shape == Shape.CONTENT)
+			feed.append("<content type=\"html\">").append(escape(html(random, 24, true))).append("</content>\n");
+		if (shape == Shape.MEDIA)
+			appendMedia(feed, random, link);
+		feed.append("</entry>\n");
+	}
+
+	private static void appendMedia(StringBuilder feed, Random random, String link) {
+		for (int i = 0; i < 24; i++) {
+			feed.append("<media:content url=\"").append(link).append("/image-").append(i).append("-1024x768.jpg\"")
+				.append(" type=\"image/jpeg\" medium=\"image\" fileSize=\"").append(random.nextInt(1000000))
+				.append("\" width=\"1024\" height=\"768\" isDefault=\"").append(i == 0).append("\"/>\n");
+		}
+	}
+
+	/**
+	 * @return HTML paragraphs wrapped in divs, optionally led by an image, as blogs tend to produce.
+	 */
+	private static String html(Random random, int paragraphs, boolean image) {
+		StringBuilder html = new StringBuilder("<div class=\"entry\">");
+		if (image) {
+			html.append("<img src=\"http://example.com/wp-content/uploads/").append(slug(random))
+				.append("-300x200.jpg\" width=\"300\" height=\"200\" />");
+		}
+		for (int i = 0; i < paragraphs; i++) {
+			html.append("<p>").append(sentence(random, 30 + random.nextInt(30)))
+				.append(" <a href=\"http://example.com/").append(slug(random)).append("\">")
+				.append(sentence(random, 3)).append("</a> &amp; ").append(sentence(random, 20)).append("</p>");
+		}
+		return html.append("</div>").toString();
+	}
+
+	private static String sentence(Random random, int words) {
+		StringBuilder sentence = new StringBuilder();
+		for (int i = 0; i < words; i++) {
+			if (i > 0)
+				sentence.append(' ');
+			sentence.append(WORDS[random.nextInt(WORDS.length)]);
+		}
+		return sentence.toString();
+	}
+
+	private static String slug(Random random) {
+		return "post-" + Integer.toHexString(random.nextInt());
+	}
+
+	private static String escape(String text) {
+		return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+	}
+
+	private static String format(long date, String pattern) {
+		SimpleDateFormat format = new SimpleDateFormat(pattern, Locale.US);
+		format.setTimeZone(TimeZone.getTimeZone("UTC"));
+		return format.format(new Date(date));
+	}
+
+	private static long parseSize(String size) {
+		String lower = size.toLowerCase(Locale.US);
+		if (lower.endsWith("mb"))
+			return Long.parseLong(lower.substring(0, lower.length() - 2)) * 1024 * 1024;
+		if (lower.endsWith("kb"))
+			return Long.parseLong(lower.substring(0, lower.length() - 2)) * 1024;
+		return Long.parseLong(lower);
+	}
+
+	private static byte[] utf8(String text) {
+		try {
+			return text.getBytes("UTF-8");
+		}
+		catch (UnsupportedEncodingException e) {
+			throw new AssertionError(e);
+		}
+	}
+}
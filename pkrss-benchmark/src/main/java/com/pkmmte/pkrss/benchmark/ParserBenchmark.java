@@ -0,0 +1,85 @@
+package com.pkmmte.pkrss.benchmark;
+
+import com.pkmmte.pkrss.Article;
+import com.pkmmte.pkrss.parser.AtomParser;
+import com.pkmmte.pkrss.parser.Parser;
+import com.pkmmte.pkrss.parser.Rss2Parser;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput of {@link Rss2Parser} and {@link AtomParser} over synthetic feeds of various sizes and shapes.
+ * <p>
+ * Besides feeds parsed per second, articles and bytes parsed per second are reported through
+ * {@link ArticleCounters}. Run with {@code -prof gc} (the default of the jmh task) for allocations per feed.
+ * <p>
+ * Descriptions, images and content are only converted from HTML once read, so {@code parse} measures
+ * parsing alone while {@code parseAndRead} also reads every article the way a list screen would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ParserBenchmark {
+	@Param({"RSS2", "ATOM"})
+	public FeedCorpus.Format format;
+
+	@Param({"PLAIN", "CONTENT", "MEDIA"})
+	public FeedCorpus.Shape shape;
+
+	@Param({"small", "1mb", "20mb"})
+	public String size;
+
+	private Parser parser;
+	private byte[] feed;
+
+	@Setup
+	public void setUp() {
+		parser = format == FeedCorpus.Format.RSS2 ? new Rss2Parser() : new AtomParser();
+		feed = FeedCorpus.generate(format, shape, size);
+	}
+
+	@Benchmark
+	public List<Article> parse(ArticleCounters counters) throws IOException {
+		List<Article> articles = parser.parse(new ByteArrayInputStream(feed), "UTF-8");
+		counters.articles += articles.size();
+		counters.bytes += feed.length;
+		return articles;
+	}
+
+	@Benchmark
+	public void parseAndRead(ArticleCounters counters, Blackhole blackhole) throws IOException {
+		List<Article> articles = parser.parse(new ByteArrayInputStream(feed), "UTF-8");
+		counters.articles += articles.size();
+		counters.bytes += feed.length;
+		read(articles, blackhole);
+	}
+
+	/**
+	 * Reads the lazily converted values of every article.
+	 */
+	static void read(List<Article> articles, Blackhole blackhole) {
+		for (Article article : articles) {
+			blackhole.consume(article.getSource());
+			blackhole.consume(article.getImage());
+			blackhole.consume(article.getDescription());
+			blackhole.consume(article.getContent());
+		}
+	}
+}
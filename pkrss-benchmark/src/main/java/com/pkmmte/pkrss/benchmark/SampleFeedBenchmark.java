@@ -0,0 +1,64 @@
+package com.pkmmte.pkrss.benchmark;
+
+import com.pkmmte.pkrss.Article;
+import com.pkmmte.pkrss.parser.AtomParser;
+import com.pkmmte.pkrss.parser.Parser;
+import com.pkmmte.pkrss.parser.Rss2Parser;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput of the parsers over the real-world shaped feeds checked in under resources/feeds.
+ * Files starting with "atom" are parsed with {@link AtomParser}, others with {@link Rss2Parser}.
+ * <p>
+ * As in {@link ParserBenchmark}, {@code parse} excludes HTML conversion while {@code parseAndRead} includes it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SampleFeedBenchmark {
+	@Param({"rss-wordpress.xml", "rss-podcast.xml", "atom-blog.xml"})
+	public String feedName;
+
+	private Parser parser;
+	private byte[] feed;
+
+	@Setup
+	public void setUp() throws IOException {
+		parser = feedName.startsWith("atom") ? new AtomParser() : new Rss2Parser();
+		feed = FeedCorpus.sample(feedName);
+	}
+
+	@Benchmark
+	public List<Article> parse(ArticleCounters counters) throws IOException {
+		List<Article> articles = parser.parse(new ByteArrayInputStream(feed), "UTF-8");
+		counters.articles += articles.size();
+		counters.bytes += feed.length;
+		return articles;
+	}
+
+	@Benchmark
+	public void parseAndRead(ArticleCounters counters, Blackhole blackhole) throws IOException {
+		List<Article> articles = parser.parse(new ByteArrayInputStream(feed), "UTF-8");
+		counters.articles += articles.size();
+		counters.bytes += feed.length;
+		ParserBenchmark.read(articles, blackhole);
+	}
+}
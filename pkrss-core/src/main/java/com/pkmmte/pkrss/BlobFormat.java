@@ -0,0 +1,82 @@
+package com.pkmmte.pkrss;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Building blocks of the compact binary formats article fields are stored in:
+ * a two byte magic number and a version byte, then the fields with Strings as
+ * length prefixed UTF-8.
+ * <p>
+ * Blobs come from disk and may be corrupt, so counts and lengths are checked against
+ * what's left to read before anything is allocated for them.
+ */
+final class BlobFormat {
+	private BlobFormat() {
+	}
+
+	static void writeHeader(DataOutput out, short magic, byte version) throws IOException {
+		out.writeShort(magic);
+		out.writeByte(version);
+	}
+
+	/**
+	 * @param what Name of the format for the error message.
+	 * @throws IOException If the header doesn't match.
+	 */
+	static void readHeader(DataInput in, short magic, byte version, String what) throws IOException {
+		if (in.readShort() != magic || in.readByte() != version)
+			throw new IOException("Unknown " + what + " format");
+	}
+
+	/**
+	 * @return {@code true} if these bytes were written through Java serialization, which always starts with 0xACED.
+	 */
+	static boolean isSerialized(byte[] bytes) {
+		return bytes.length >= 2 && (bytes[0] & 0xFF) == 0xAC && (bytes[1] & 0xFF) == 0xED;
+	}
+
+	/**
+	 * Reads the number of elements which follow.
+	 * Each element takes at least one byte so there can't be more of them than bytes left.
+	 * @throws IOException If the count is negative or larger than what's left to read.
+	 */
+	static int readCount(DataInputStream in) throws IOException {
+		int count = in.readInt();
+		if (count < 0 || count > in.available())
+			throw new IOException("Invalid count " + count);
+		return count;
+	}
+
+	/**
+	 * Writes a possibly null String as length prefixed UTF-8 for {@link #readString(DataInputStream)}.
+	 */
+	static void writeString(DataOutput out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+
+		byte[] bytes = value.getBytes("UTF-8");
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads a possibly null String written by {@link #writeString(DataOutput, String)}.
+	 * @throws IOException If the length is larger than what's left to read.
+	 */
+	static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0)
+			return null;
+		if (length > in.available())
+			throw new IOException("Invalid length " + length);
+
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, "UTF-8");
+	}
+}
@@ -0,0 +1,43 @@
+package com.pkmmte.pkrss;
+
+/**
+ * Immutable snapshot of the in-memory article cache statistics.
+ * Use {@code PkRSS#cacheStats()} to obtain one.
+ */
+public final class CacheStats {
+	public final long hitCount;
+	public final long missCount;
+	public final long evictionCount;
+	public final int feedCount;
+	public final int articleCount;
+	public final long byteCount;
+
+	CacheStats(long hitCount, long missCount, long evictionCount, int feedCount, int articleCount, long byteCount) {
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.evictionCount = evictionCount;
+		this.feedCount = feedCount;
+		this.articleCount = articleCount;
+		this.byteCount = byteCount;
+	}
+
+	/**
+	 * @return Ratio of lookups which found what they were looking for, or 1 if there weren't any.
+	 */
+	public double hitRate() {
+		long requestCount = hitCount + missCount;
+		return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+	}
+
+	@Override
+	public String toString() {
+		return "CacheStats{" +
+			"hitCount=" + hitCount +
+			", missCount=" + missCount +
+			", evictionCount=" + evictionCount +
+			", feedCount=" + feedCount +
+			", articleCount=" + articleCount +
+			", byteCount=" + byteCount +
+			'}';
+	}
+}
@@ -0,0 +1,78 @@
+package com.pkmmte.pkrss;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Remembers hosts which keep failing so requests to them fail fast instead of waiting on timeouts.
+ * <p>
+ * A host is considered down after a number of consecutive failed loads. Requests to it are then
+ * refused until the open duration has passed, after which a single request is let through to
+ * probe it. A success closes the circuit again while a failure keeps it open for another round.
+ * <p>
+ * This class is thread-safe.
+ */
+class CircuitBreaker {
+	private final int failureThreshold;
+	private final long openDuration;
+
+	// Hosts with recent failures, forgotten as soon as they succeed
+	private final Map<String, Host> hosts = new HashMap<String, Host>();
+
+	/**
+	 * @param failureThreshold Consecutive failures after which to consider a host down.
+	 * @param openDuration Time in milliseconds to refuse requests to a host considered down.
+	 */
+	CircuitBreaker(int failureThreshold, long openDuration) {
+		this.failureThreshold = failureThreshold;
+		this.openDuration = openDuration;
+	}
+
+	/**
+	 * @param host Host about to be requested.
+	 * @return {@code true} if the request may go ahead, {@code false} if the host is considered down.
+	 */
+	synchronized boolean allow(String host) {
+		Host state = hosts.get(host);
+		if (state == null || !state.open)
+			return true;
+
+		long now = now();
+		if (now < state.openUntil)
+			return false;
+
+		// Let this one through as a probe, everyone else waits for another round
+		state.openUntil = now + openDuration;
+		return true;
+	}
+
+	synchronized void success(String host) {
+		hosts.remove(host);
+	}
+
+	synchronized void failure(String host) {
+		Host state = hosts.get(host);
+		if (state == null) {
+			state = new Host();
+			hosts.put(host, state);
+		}
+
+		if (++state.failures >= failureThreshold) {
+			state.open = true;
+			state.openUntil = now() + openDuration;
+		}
+	}
+
+	/**
+	 * @return Current time in milliseconds, only meaningful relative to other calls.
+	 */
+	long now() {
+		return System.nanoTime() / 1000000;
+	}
+
+	private static class Host {
+		int failures;
+		boolean open;
+		long openUntil;
+	}
+}
@@ -0,0 +1,687 @@
+package com.pkmmte.pkrss;
+
+import com.pkmmte.pkrss.parser.HtmlScanner;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Item of a feed as read by the feed readers, free of any Android dependency so feeds may be
+ * parsed on any JVM. Links are kept as Strings. On Android, {@code Article} wraps an item to add
+ * Uris, extras and Parcelable support.
+ * <p>
+ * Readers hand over the description and content as found in the feed. Converting the description
+ * into plain text, pulling the image out of it and cleaning up the content are put off until each
+ * is first asked for, as most items are never opened.
+ */
+public class FeedItem {
+	// Flags returned by peekRaw() telling which raw values are still HTML
+	static final int RAW_DESCRIPTION = 1;
+	static final int RAW_IMAGE = 2;
+	static final int RAW_CONTENT = 4;
+
+	private List<String> tags = new ArrayList<String>();
+	private List<MediaContent> mediaContent;
+	private Enclosure enclosure;
+	private String sourceUrl;
+	private String title;
+	private String comments;
+	private String author;
+	private String guid;
+	private long date;
+	private int id = -1;
+
+	// Converted values, or raw ones waiting to be converted on first access, guarded by this
+	private String imageUrl;
+	private String description;
+	private String content;
+	private String descriptionHtml;
+	private String contentHtml;
+	private boolean descriptionPending;
+	private boolean imagePending;
+
+	/**
+	 * @return The tags of this item. May be null if set so.
+	 */
+	public List<String> getTags() {
+		return tags;
+	}
+
+	/**
+	 * Overrides the current list of tags with a new one.
+	 * @param tags Tag List to override the current one with.
+	 */
+	public FeedItem setTags(List<String> tags) {
+		this.tags = tags;
+		return this;
+	}
+
+	/**
+	 * Adds a new tag to this item.
+	 * @param tag String value to add as a tag.
+	 */
+	public FeedItem addTag(String tag) {
+		this.tags.add(tag);
+		return this;
+	}
+
+	/**
+	 * @return The media content of this item or null if it has none.
+	 */
+	public List<MediaContent> getMediaContent() {
+		return mediaContent;
+	}
+
+	/**
+	 * Adds a single media content item to the list.
+	 * @param mediaContent The media content object to add. Ignored if null.
+	 */
+	public FeedItem addMediaContent(MediaContent mediaContent) {
+		if (mediaContent == null)
+			return this;
+
+		if (this.mediaContent == null)
+			this.mediaContent = new ArrayList<MediaContent>(2);
+		this.mediaContent.add(mediaContent);
+		return this;
+	}
+
+	/**
+	 * @return The enclosure of this item or null if it has none.
+	 */
+	public Enclosure getEnclosure() {
+		return enclosure;
+	}
+
+	/**
+	 * Sets the item's enclosure.
+	 * @param enclosure Enclosure of this item. May be null.
+	 */
+	public FeedItem setEnclosure(Enclosure enclosure) {
+		this.enclosure = enclosure;
+		return this;
+	}
+
+	/**
+	 * @return Link to this item. May be null.
+	 */
+	public String getSourceUrl() {
+		return sourceUrl;
+	}
+
+	/**
+	 * Sets the link to this item.
+	 * @param url Link to this item. May be null.
+	 */
+	public FeedItem setSourceUrl(String url) {
+		this.sourceUrl = url;
+		return this;
+	}
+
+	/**
+	 * @return Link to the main image, the first one found in the description unless set otherwise.
+	 * An empty String if the description has none. May be null.
+	 */
+	public synchronized String getImageUrl() {
+		if (imagePending)
+			convertDescription();
+		return imageUrl;
+	}
+
+	/**
+	 * Sets the main image.
+	 * @param url Link to the main image. May be null.
+	 */
+	public synchronized FeedItem setImageUrl(String url) {
+		this.imageUrl = url;
+		this.imagePending = false;
+		if (!descriptionPending)
+			descriptionHtml = null;
+		return this;
+	}
+
+	/**
+	 * @return String containing the item's title. May be null.
+	 */
+	public String getTitle() {
+		return title;
+	}
+
+	/**
+	 * Sets the item's title.
+	 * @param title String containing this item's title.
+	 */
+	public FeedItem setTitle(String title) {
+		this.title = title;
+		return this;
+	}
+
+	/**
+	 * @return String containing the item's description as plain text. May be null.
+	 */
+	public synchronized String getDescription() {
+		if (descriptionPending)
+			convertDescription();
+		return description;
+	}
+
+	/**
+	 * Sets the item's description.
+	 * @param description String containing this item's description.
+	 */
+	public synchronized FeedItem setDescription(String description) {
+		this.description = description;
+		this.descriptionPending = false;
+		if (!imagePending)
+			descriptionHtml = null;
+		return this;
+	}
+
+	/**
+	 * Sets the item's description from HTML. The plain text description and the main image,
+	 * the first one found in it, are only pulled out once either is asked for.
+	 * @param html String containing this item's description as HTML.
+	 */
+	public synchronized FeedItem setDescriptionHtml(String html) {
+		if (html == null)
+			return setDescription(null);
+
+		this.descriptionHtml = html;
+		this.descriptionPending = true;
+		this.imagePending = true;
+		return this;
+	}
+
+	/**
+	 * @return String containing the item's content as HTML. May be null.
+	 */
+	public synchronized String getContent() {
+		if (contentHtml != null) {
+			// Drop the thumbnail if it's already shown as the main image
+			boolean hasImage = imagePending || imageUrl != null;
+			content = new HtmlScanner().stripTags(contentHtml, hasImage);
+			contentHtml = null;
+		}
+		return content;
+	}
+
+	/**
+	 * Sets the item's content.
+	 * @param content String containing this item's content.
+	 */
+	public synchronized FeedItem setContent(String content) {
+		this.content = content;
+		this.contentHtml = null;
+		return this;
+	}
+
+	/**
+	 * Sets the item's content from HTML. Div tags, and the first image if the item
+	 * has a main image, are only stripped once {@link #getContent()} is called.
+	 * @param html String containing this item's content as HTML.
+	 */
+	public synchronized FeedItem setContentHtml(String html) {
+		this.content = null;
+		this.contentHtml = html;
+		return this;
+	}
+
+	/**
+	 * @return String containing the source to this item's comments. May be null.
+	 */
+	public String getComments() {
+		return comments;
+	}
+
+	/**
+	 * Sets the item's comment source.
+	 * @param comments String containing the source to this item's comments.
+	 */
+	public FeedItem setComments(String comments) {
+		this.comments = comments;
+		return this;
+	}
+
+	/**
+	 * @return String containing the item's author. May be null.
+	 */
+	public String getAuthor() {
+		return author;
+	}
+
+	/**
+	 * Sets the item's author.
+	 * @param author String containing this item's author.
+	 */
+	public FeedItem setAuthor(String author) {
+		this.author = author;
+		return this;
+	}
+
+	/**
+	 * @return String uniquely identifying this item within its feed, such as an RSS guid
+	 * or Atom id. May be null.
+	 */
+	public String getGuid() {
+		return guid;
+	}
+
+	/**
+	 * Sets the item's globally unique identifier.
+	 * @param guid String uniquely identifying this item, such as an RSS guid or Atom id.
+	 */
+	public FeedItem setGuid(String guid) {
+		this.guid = guid;
+		return this;
+	}
+
+	/**
+	 * @return Milliseconds since the epoch the item was published at, 0 if unknown.
+	 */
+	public long getDate() {
+		return date;
+	}
+
+	/**
+	 * Sets the item's date.
+	 * @param date Milliseconds since the epoch the item was published at.
+	 */
+	public FeedItem setDate(long date) {
+		this.date = date;
+		return this;
+	}
+
+	/**
+	 * @return The item's id, generated by readers from its guid or, if missing, its link. -1 if none.
+	 */
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * Sets the item's id.
+	 * @param id Unique id of this item, used for indexing.
+	 */
+	public FeedItem setId(int id) {
+		this.id = id;
+		return this;
+	}
+
+	/**
+	 * Converts the pending HTML description in a single pass.
+	 */
+	private void convertDescription() {
+		HtmlScanner scanner = new HtmlScanner();
+		String text = scanner.toText(descriptionHtml);
+		if (descriptionPending)
+			description = text;
+		if (imagePending)
+			imageUrl = scanner.image();
+
+		descriptionPending = false;
+		imagePending = false;
+		descriptionHtml = null;
+	}
+
+	/**
+	 * @return Length of the description and content without converting them,
+	 * the raw HTML if still pending.
+	 */
+	synchronized int peekTextLength() {
+		int length = 0;
+		String description = descriptionPending ? descriptionHtml : this.description;
+		String content = contentHtml != null ? contentHtml : this.content;
+		if (description != null)
+			length += description.length();
+		if (content != null)
+			length += content.length();
+		return length;
+	}
+
+	/**
+	 * Reads the source, image, description and content as they are, without converting
+	 * anything still pending. {@link #restoreRaw(String[], int)} sets them back.
+	 * @param values Receives the four values in that order.
+	 * @return {@link #RAW_DESCRIPTION}, {@link #RAW_IMAGE} and {@link #RAW_CONTENT} flags. When only
+	 * the image is pending, the image value holds the HTML to pull it out of.
+	 */
+	synchronized int peekRaw(String[] values) {
+		int raw = 0;
+		values[0] = sourceUrl;
+		values[1] = imageUrl;
+		values[2] = description;
+		values[3] = content;
+
+		if (descriptionPending) {
+			raw |= RAW_DESCRIPTION;
+			values[2] = descriptionHtml;
+		}
+		if (imagePending) {
+			raw |= RAW_IMAGE;
+			values[1] = descriptionPending ? null : descriptionHtml;
+		}
+		if (contentHtml != null) {
+			raw |= RAW_CONTENT;
+			values[3] = contentHtml;
+		}
+		return raw;
+	}
+
+	/**
+	 * Sets values read by {@link #peekRaw(String[])} back, leaving HTML pending as it was.
+	 */
+	synchronized void restoreRaw(String[] values, int raw) {
+		setSourceUrl(values[0]);
+		if ((raw & RAW_DESCRIPTION) != 0 && (raw & RAW_IMAGE) != 0) {
+			setDescriptionHtml(values[2]);
+		}
+		else if ((raw & RAW_IMAGE) != 0) {
+			setDescriptionHtml(values[1]);
+			setDescription(values[2]);
+		}
+		else {
+			if ((raw & RAW_DESCRIPTION) != 0)
+				setDescriptionHtml(values[2]);
+			else
+				setDescription(values[2]);
+			setImageUrl(values[1]);
+		}
+
+		if ((raw & RAW_CONTENT) != 0)
+			setContentHtml(values[3]);
+		else
+			setContent(values[3]);
+	}
+
+	/**
+	 * Similar to {@link #toString()} but ommits the content and description.
+	 * @return A small-ish String describing this item's properties.
+	 */
+	public String toShortString() {
+		return "FeedItem{" +
+			"tags=" + tags +
+			", source=" + sourceUrl +
+			", image=" + getImageUrl() +
+			", title='" + title + '\'' +
+			", comments='" + comments + '\'' +
+			", author='" + author + '\'' +
+			", guid='" + guid + '\'' +
+			", date=" + date +
+			", id=" + id +
+			'}';
+	}
+
+	@Override
+	public String toString() {
+		return "FeedItem{" +
+			"tags=" + tags +
+			", source=" + sourceUrl +
+			", image=" + getImageUrl() +
+			", title='" + title + '\'' +
+			", description='" + getDescription() + '\'' +
+			", content='" + getContent() + '\'' +
+			", comments='" + comments + '\'' +
+			", author='" + author + '\'' +
+			", guid='" + guid + '\'' +
+			", date=" + date +
+			", id=" + id +
+			'}';
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || !(o instanceof FeedItem)) return false;
+
+		FeedItem item = (FeedItem) o;
+
+		if (date != item.date) return false;
+		if (id != item.id) return false;
+		if (!equal(author, item.author)) return false;
+		if (!equal(comments, item.comments)) return false;
+		if (!equal(getContent(), item.getContent())) return false;
+		if (!equal(getDescription(), item.getDescription())) return false;
+		if (!equal(getImageUrl(), item.getImageUrl())) return false;
+		if (!equal(sourceUrl, item.sourceUrl)) return false;
+		if (!equal(tags, item.tags)) return false;
+		if (!equal(title, item.title)) return false;
+
+		return true;
+	}
+
+	private static boolean equal(Object a, Object b) {
+		return a == null ? b == null : a.equals(b);
+	}
+
+	@Override
+	public int hashCode() {
+		String image = getImageUrl();
+		String description = getDescription();
+		String content = getContent();
+
+		int result = tags != null ? tags.hashCode() : 0;
+		result = 31 * result + (sourceUrl != null ? sourceUrl.hashCode() : 0);
+		result = 31 * result + (image != null ? image.hashCode() : 0);
+		result = 31 * result + (title != null ? title.hashCode() : 0);
+		result = 31 * result + (description != null ? description.hashCode() : 0);
+		result = 31 * result + (content != null ? content.hashCode() : 0);
+		result = 31 * result + (comments != null ? comments.hashCode() : 0);
+		result = 31 * result + (author != null ? author.hashCode() : 0);
+		result = 31 * result + (int) (date ^ (date >>> 32));
+		result = 31 * result + id;
+		return result;
+	}
+
+	/**
+	 * Attachment of an item, such as the audio file of a podcast episode.
+	 */
+	public static class Enclosure {
+		private String url;
+		private String length;
+		private String mimeType;
+
+		public Enclosure(String url, String length, String mimeType) {
+			this.url = url;
+			this.length = length;
+			this.mimeType = mimeType;
+		}
+
+		/**
+		 * @return The url of the attachment.
+		 */
+		public String getUrl() {
+			return url;
+		}
+
+		/**
+		 * @return The size of the attachment in bytes, as found in the feed.
+		 */
+		public String getLength() {
+			return length;
+		}
+
+		/**
+		 * @return The mime-type of the attachment.
+		 */
+		public String getMimeType() {
+			return mimeType;
+		}
+
+		@Override
+		public String toString() {
+			return "Enclosure{" +
+				"url='" + url + '\'' +
+				", length='" + length + '\'' +
+				", mimeType='" + mimeType + '\'' +
+				'}';
+		}
+	}
+
+	/**
+	 * Media RSS content of an item. Only the url is required, the other attributes are 0 or null if missing.
+	 */
+	public static class MediaContent {
+		private String url;
+		private int fileSize;
+		private String type;
+		private String medium;
+		private boolean isDefault;
+		private String expression;
+		private int bitrate;
+		private float framerate;
+		private float samplingrate;
+		private int channels;
+		private long duration;
+		private int height;
+		private int width;
+		private String lang;
+
+		public MediaContent(String url) {
+			this.url = url;
+		}
+
+		public String getUrl() {
+			return url;
+		}
+
+		public int getFileSize() {
+			return fileSize;
+		}
+
+		public MediaContent setFileSize(int fileSize) {
+			this.fileSize = fileSize;
+			return this;
+		}
+
+		public String getType() {
+			return type;
+		}
+
+		public MediaContent setType(String type) {
+			this.type = type;
+			return this;
+		}
+
+		/**
+		 * @return Type of object, one of image, audio, video, document or executable.
+		 */
+		public String getMedium() {
+			return medium;
+		}
+
+		public MediaContent setMedium(String medium) {
+			this.medium = medium;
+			return this;
+		}
+
+		/**
+		 * @return Whether this is the default object among those of the item.
+		 */
+		public boolean isDefault() {
+			return isDefault;
+		}
+
+		public MediaContent setIsDefault(boolean isDefault) {
+			this.isDefault = isDefault;
+			return this;
+		}
+
+		/**
+		 * @return Whether this is a sample, full or nonstop version of the object.
+		 */
+		public String getExpression() {
+			return expression;
+		}
+
+		public MediaContent setExpression(String expression) {
+			this.expression = expression;
+			return this;
+		}
+
+		/**
+		 * @return Kilobits per second.
+		 */
+		public int getBitrate() {
+			return bitrate;
+		}
+
+		public MediaContent setBitrate(int bitrate) {
+			this.bitrate = bitrate;
+			return this;
+		}
+
+		/**
+		 * @return Frames per second.
+		 */
+		public float getFramerate() {
+			return framerate;
+		}
+
+		public MediaContent setFramerate(float framerate) {
+			this.framerate = framerate;
+			return this;
+		}
+
+		/**
+		 * @return Thousands of samples per second.
+		 */
+		public float getSamplingrate() {
+			return samplingrate;
+		}
+
+		public MediaContent setSamplingrate(float samplingrate) {
+			this.samplingrate = samplingrate;
+			return this;
+		}
+
+		public int getChannels() {
+			return channels;
+		}
+
+		public MediaContent setChannels(int channels) {
+			this.channels = channels;
+			return this;
+		}
+
+		/**
+		 * @return Length in seconds.
+		 */
+		public long getDuration() {
+			return duration;
+		}
+
+		public MediaContent setDuration(long duration) {
+			this.duration = duration;
+			return this;
+		}
+
+		public int getHeight() {
+			return height;
+		}
+
+		public MediaContent setHeight(int height) {
+			this.height = height;
+			return this;
+		}
+
+		public int getWidth() {
+			return width;
+		}
+
+		public MediaContent setWidth(int width) {
+			this.width = width;
+			return this;
+		}
+
+		/**
+		 * @return Primary language as an RFC 3066 code.
+		 */
+		public String getLang() {
+			return lang;
+		}
+
+		public MediaContent setLang(String lang) {
+			this.lang = lang;
+			return this;
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package com.pkmmte.pkrss;
+
+/**
+ * A hash map using primitive int keys, avoiding the boxing and entry objects of a
+ * {@link java.util.HashMap} as well as the O(n) inserts of a {@code SparseArray}.
+ * <p>
+ * Uses open addressing with linear probing. Null values are not allowed.
+ * This class is not thread-safe.
+ */
+final class IntMap<V> {
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private int[] keys;
+	private Object[] values;
+	private int mask;
+	private int size;
+
+	IntMap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param expectedSize Number of entries this map should hold without resizing.
+	 */
+	IntMap(int expectedSize) {
+		int capacity = DEFAULT_CAPACITY;
+		while (capacity * 3 / 4 < expectedSize)
+			capacity <<= 1;
+		allocate(capacity);
+	}
+
+	/**
+	 * @return Number of entries in this map.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @param key Key to look up.
+	 * @return The value mapped to this key or null if none.
+	 */
+	@SuppressWarnings("unchecked")
+	V get(int key) {
+		for (int i = slot(key); values[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == key)
+				return (V) values[i];
+		}
+		return null;
+	}
+
+	/**
+	 * @param key Key to look up.
+	 * @return {@code true} if a value is mapped to this key.
+	 */
+	boolean containsKey(int key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * Maps the value to this key, replacing any previous value.
+	 * @param key Key to map.
+	 * @param value Value to map. Must not be null.
+	 * @return The previous value mapped to this key or null if none.
+	 */
+	@SuppressWarnings("unchecked")
+	V put(int key, V value) {
+		if (value == null)
+			throw new IllegalArgumentException("Value must not be null!");
+
+		int i = slot(key);
+		for (; values[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				V previous = (V) values[i];
+				values[i] = value;
+				return previous;
+			}
+		}
+
+		keys[i] = key;
+		values[i] = value;
+		if (++size > (mask + 1) * 3 / 4)
+			resize();
+		return null;
+	}
+
+	/**
+	 * Removes the value mapped to this key, if any.
+	 * @param key Key to remove.
+	 * @return The removed value or null if none.
+	 */
+	@SuppressWarnings("unchecked")
+	V remove(int key) {
+		int i = slot(key);
+		for (; values[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == key)
+				break;
+		}
+		if (values[i] == null)
+			return null;
+
+		V previous = (V) values[i];
+		values[i] = null;
+		size--;
+
+		// Shift following entries back so lookups never stop at the hole we just made
+		for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+			int home = slot(keys[j]);
+			boolean reachable = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+			if (!reachable) {
+				keys[i] = keys[j];
+				values[i] = values[j];
+				values[j] = null;
+				i = j;
+			}
+		}
+
+		return previous;
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	void clear() {
+		allocate(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @return A new array containing every key in this map, in no particular order.
+	 */
+	int[] keys() {
+		int[] result = new int[size];
+		for (int i = 0, n = 0; i < values.length; i++) {
+			if (values[i] != null)
+				result[n++] = keys[i];
+		}
+		return result;
+	}
+
+	private int slot(int key) {
+		// Spread the bits as article ids are often hash codes themselves
+		int hash = key * 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+		size = 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void resize() {
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		allocate(oldValues.length * 2);
+
+		for (int i = 0; i < oldValues.length; i++) {
+			if (oldValues[i] != null)
+				put(oldKeys[i], (V) oldValues[i]);
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package com.pkmmte.pkrss;
+
+/**
+ * Destination of the log messages written by the feed readers, so they don't depend on
+ * any particular logging framework. Levels have the same values as Android's {@code Log} priorities.
+ */
+public interface Logger {
+	int VERBOSE = 2;
+	int DEBUG = 3;
+	int INFO = 4;
+	int WARN = 5;
+	int ERROR = 6;
+	int ASSERT = 7;
+
+	/**
+	 * Discards everything.
+	 */
+	Logger NONE = new Logger() {
+		@Override
+		public boolean isEnabled() {
+			return false;
+		}
+
+		@Override
+		public void log(String tag, String message, int level) {
+		}
+	};
+
+	/**
+	 * @return Whether messages are actually written, so costly ones may be skipped.
+	 */
+	boolean isEnabled();
+
+	/**
+	 * Writes a message. Only called while {@link #isEnabled()}.
+	 * @param tag Source of the message.
+	 * @param message Message to write.
+	 * @param level One of {@link #VERBOSE}, {@link #DEBUG}, {@link #INFO}, {@link #WARN}, {@link #ERROR} or {@link #ASSERT}.
+	 */
+	void log(String tag, String message, int level);
+}
@@ -0,0 +1,90 @@
+package com.pkmmte.pkrss;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * On-disk format of the read state: a snapshot holding a sorted array of ids plus a log of
+ * changes made since, each applied to an {@link IntMap} of read ids.
+ * <p>
+ * Snapshot: MAGIC, VERSION, count, then count ids in ascending order.
+ * Log records: one op byte followed by an id.
+ */
+final class ReadStateFormat {
+	static final int MAGIC = 0x504B5244;
+	static final int VERSION = 1;
+
+	static final byte OP_UNREAD = 0;
+	static final byte OP_READ = 1;
+	static final byte OP_CLEAR = 2;
+
+	private ReadStateFormat() {
+	}
+
+	/**
+	 * @param ids Read ids in ascending order.
+	 */
+	static void writeSnapshot(DataOutput out, int[] ids) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(ids.length);
+		for (int id : ids)
+			out.writeInt(id);
+	}
+
+	/**
+	 * @param ids Map to add the read ids to.
+	 * @throws IOException If the snapshot is of an unknown format or cut short.
+	 */
+	static void readSnapshot(DataInput in, IntMap<Boolean> ids) throws IOException {
+		if (in.readInt() != MAGIC || in.readInt() != VERSION)
+			throw new IOException("Unknown read state format");
+
+		int count = in.readInt();
+		for (int i = 0; i < count; i++)
+			ids.put(in.readInt(), Boolean.TRUE);
+	}
+
+	static void writeRecord(DataOutput out, byte op, int id) throws IOException {
+		out.writeByte(op);
+		out.writeInt(id);
+	}
+
+	/**
+	 * Applies every record up to the end of the log.
+	 * @param ids Map of read ids to apply the records to.
+	 * @return Number of records read. A torn record at the end of the log is ignored.
+	 */
+	static int readLog(DataInput in, IntMap<Boolean> ids) throws IOException {
+		int records = 0;
+		try {
+			while (true) {
+				byte op = in.readByte();
+				int id = in.readInt();
+				apply(ids, op, id);
+				records++;
+			}
+		}
+		catch (EOFException ignored) {
+		}
+		return records;
+	}
+
+	static void apply(IntMap<Boolean> ids, byte op, int id) {
+		switch (op) {
+			case OP_READ:
+				ids.put(id, Boolean.TRUE);
+				break;
+			case OP_UNREAD:
+				ids.remove(id);
+				break;
+			case OP_CLEAR:
+				ids.clear();
+				break;
+			default:
+				break;
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package com.pkmmte.pkrss;
+
+/**
+ * Learns how often a single feed changes to tell how long to wait before refreshing it again.
+ * <p>
+ * Feeds publishing new articles are polled at about half the time observed between them, while
+ * unchanged feeds are polled less and less often. Failed refreshes back off exponentially without
+ * forgetting what was learned about the feed.
+ * <p>
+ * This class is not thread-safe.
+ */
+final class RefreshInterval {
+	// How much slower to poll each time a feed turns out unchanged
+	static final double QUIET_FACTOR = 1.5;
+
+	// Maximum number of doublings of the interval after consecutive failures
+	static final int MAX_BACKOFF_SHIFT = 6;
+
+	private final long minInterval;
+	private final long maxInterval;
+	private long interval;
+	private int failures;
+	private long newestDate;
+	// Ids returned by the last successful refresh, null before the first one
+	private IntMap<Boolean> ids;
+
+	/**
+	 * @param minInterval Shortest interval in milliseconds.
+	 * @param maxInterval Longest interval in milliseconds, also capping failure backoff.
+	 * @param initialInterval Interval in milliseconds before anything is known about the feed.
+	 */
+	RefreshInterval(long minInterval, long maxInterval, long initialInterval) {
+		this.minInterval = minInterval;
+		this.maxInterval = maxInterval;
+		this.interval = initialInterval;
+	}
+
+	/**
+	 * @return Current interval in milliseconds, before failure backoff.
+	 */
+	long get() {
+		return interval;
+	}
+
+	/**
+	 * Records a refresh the server answered with 304 Not Modified.
+	 * @return Time in milliseconds to wait before the next refresh.
+	 */
+	long notModified() {
+		failures = 0;
+		interval = clamp((long) (interval * QUIET_FACTOR));
+		return interval;
+	}
+
+	/**
+	 * Records a successful refresh and adapts the interval to the articles it returned.
+	 * Only articles newer than any seen before or with an id not returned last time count as new.
+	 * @param ids Ids of the articles returned.
+	 * @param dates Publication dates of the same articles in milliseconds, 0 if unknown.
+	 * @return Time in milliseconds to wait before the next refresh.
+	 */
+	long refreshed(int[] ids, long[] dates) {
+		failures = 0;
+
+		// Find the span of publication dates covered by new articles
+		IntMap<Boolean> seen = new IntMap<Boolean>(ids.length);
+		long newest = 0;
+		long oldest = Long.MAX_VALUE;
+		int fresh = 0;
+		int dated = 0;
+		int later = 0;
+		for (int i = 0; i < ids.length; i++) {
+			seen.put(ids[i], Boolean.TRUE);
+			long date = dates[i];
+			if (date <= newestDate && this.ids != null && this.ids.containsKey(ids[i]))
+				continue;
+
+			fresh++;
+			if (date <= 0)
+				continue;
+			newest = Math.max(newest, date);
+			oldest = Math.min(oldest, date);
+			dated++;
+			if (date > newestDate)
+				later++;
+		}
+		this.ids = seen;
+
+		if (fresh == 0) {
+			interval = clamp((long) (interval * QUIET_FACTOR));
+			return interval;
+		}
+
+		long period = -1;
+		if (later > 0 && newestDate > 0)
+			period = (newest - newestDate) / later;
+		else if (dated > 1 && newest > oldest)
+			period = (newest - oldest) / (dated - 1);
+		newestDate = Math.max(newestDate, newest);
+
+		// Something changed but there's no telling how often, just poll a little sooner
+		if (period < 0)
+			interval = clamp((long) (interval / QUIET_FACTOR));
+		// Aim for half the publishing period, smoothed so a single burst doesn't swing it too far
+		else
+			interval = clamp((interval + period / 2) / 2);
+		return interval;
+	}
+
+	/**
+	 * Records a failed refresh, leaving the learned interval untouched.
+	 * @return Time in milliseconds to wait before the next refresh.
+	 */
+	long failed() {
+		failures = Math.min(failures + 1, MAX_BACKOFF_SHIFT);
+		return Math.min(maxInterval, interval << failures);
+	}
+
+	private long clamp(long interval) {
+		return Math.max(minInterval, Math.min(maxInterval, interval));
+	}
+}
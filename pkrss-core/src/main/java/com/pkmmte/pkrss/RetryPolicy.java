@@ -0,0 +1,115 @@
+package com.pkmmte.pkrss;
+
+/**
+ * Immutable rules for retrying a feed which failed to download.
+ * <p>
+ * Each retry waits exponentially longer than the previous one, starting at {@link #initialBackoff}
+ * and growing by {@link #multiplier} up to {@link #maxBackoff}. Only the download itself is retried,
+ * never a feed which failed halfway through parsing, as articles may already have been delivered.
+ * Requests turned down by the server (4xx) aren't retried either. Asynchronous requests give up
+ * their slot while waiting to retry.
+ * Use {@link RetryPolicy.Builder} to create one and apply it through {@code PkRSS.Builder#retryPolicy(RetryPolicy)}
+ * or {@code RequestCreator#retryPolicy(RetryPolicy)}.
+ */
+public final class RetryPolicy {
+	/** Never retries. */
+	public static final RetryPolicy NONE = new Builder().maxRetries(0).build();
+
+	public final int maxRetries;
+	public final long initialBackoff;
+	public final double multiplier;
+	public final long maxBackoff;
+
+	/* Hidden constructor */
+	RetryPolicy(Builder builder) {
+		this.maxRetries = builder.maxRetries;
+		this.initialBackoff = builder.initialBackoff;
+		this.multiplier = builder.multiplier;
+		this.maxBackoff = builder.maxBackoff;
+	}
+
+	/**
+	 * @param retry Number of the upcoming retry, starting at 1.
+	 * @return Time in milliseconds to wait before it.
+	 */
+	long backoff(int retry) {
+		double backoff = initialBackoff * Math.pow(multiplier, retry - 1);
+		return (long) Math.min(backoff, maxBackoff);
+	}
+
+	@Override
+	public String toString() {
+		return "RetryPolicy{" +
+			"maxRetries=" + maxRetries +
+			", initialBackoff=" + initialBackoff +
+			", multiplier=" + multiplier +
+			", maxBackoff=" + maxBackoff +
+			'}';
+	}
+
+	public static class Builder {
+		private int maxRetries;
+		private long initialBackoff;
+		private double multiplier;
+		private long maxBackoff;
+
+		public Builder() {
+			this.maxRetries = 2;
+			this.initialBackoff = 1000;
+			this.multiplier = 2;
+			this.maxBackoff = 30000;
+		}
+
+		/**
+		 * Maximum number of times to retry after the first attempt. <br />
+		 * <b>Default: </b> 2
+		 */
+		public Builder maxRetries(int maxRetries) {
+			if (maxRetries < 0)
+				throw new IllegalArgumentException("maxRetries must not be negative!");
+
+			this.maxRetries = maxRetries;
+			return this;
+		}
+
+		/**
+		 * Time in milliseconds to wait before the first retry. <br />
+		 * <b>Default: </b> 1 second
+		 */
+		public Builder initialBackoff(long initialBackoff) {
+			if (initialBackoff < 0)
+				throw new IllegalArgumentException("initialBackoff must not be negative!");
+
+			this.initialBackoff = initialBackoff;
+			return this;
+		}
+
+		/**
+		 * Factor by which to grow the wait before each subsequent retry. <br />
+		 * <b>Default: </b> 2
+		 */
+		public Builder multiplier(double multiplier) {
+			if (multiplier < 1)
+				throw new IllegalArgumentException("multiplier must be at least 1!");
+
+			this.multiplier = multiplier;
+			return this;
+		}
+
+		/**
+		 * Longest time in milliseconds to wait before a retry. <br />
+		 * <b>Default: </b> 30 seconds
+		 */
+		public Builder maxBackoff(long maxBackoff) {
+			if (maxBackoff < 0)
+				throw new IllegalArgumentException("maxBackoff must not be negative!");
+
+			this.maxBackoff = maxBackoff;
+			return this;
+		}
+
+		public RetryPolicy build() {
+			return new RetryPolicy(this);
+		}
+	}
+}
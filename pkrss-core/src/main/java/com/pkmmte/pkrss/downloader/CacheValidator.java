@@ -0,0 +1,55 @@
+package com.pkmmte.pkrss.downloader;
+
+/**
+ * Immutable pair of HTTP cache validators (ETag and Last-Modified) returned by a server
+ * along with a feed. Sending them back with the next request lets the server reply with
+ * a bodiless 304 Not Modified response if the feed hasn't changed since.
+ */
+public final class CacheValidator {
+	private final String etag;
+	private final String lastModified;
+
+	/**
+	 * @param etag Value of the ETag header. May be null.
+	 * @param lastModified Value of the Last-Modified header. May be null.
+	 */
+	public CacheValidator(String etag, String lastModified) {
+		this.etag = etag;
+		this.lastModified = lastModified;
+	}
+
+	/**
+	 * Creates a validator out of response header values.
+	 * @param etag Value of the ETag header. May be null.
+	 * @param lastModified Value of the Last-Modified header. May be null.
+	 * @return A new CacheValidator or null if neither header was present.
+	 */
+	public static CacheValidator from(String etag, String lastModified) {
+		if (etag == null && lastModified == null)
+			return null;
+
+		return new CacheValidator(etag, lastModified);
+	}
+
+	/**
+	 * @return Value to send as the If-None-Match header. May be null.
+	 */
+	public String getEtag() {
+		return etag;
+	}
+
+	/**
+	 * @return Value to send as the If-Modified-Since header. May be null.
+	 */
+	public String getLastModified() {
+		return lastModified;
+	}
+
+	@Override
+	public String toString() {
+		return "CacheValidator{" +
+			"etag='" + etag + '\'' +
+			", lastModified='" + lastModified + '\'' +
+			'}';
+	}
+}
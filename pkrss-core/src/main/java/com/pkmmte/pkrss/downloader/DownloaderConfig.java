@@ -0,0 +1,166 @@
+package com.pkmmte.pkrss.downloader;
+
+/**
+ * Immutable HTTP cache and timeout settings shared by the built-in {@code Downloader} implementations.
+ * <p>
+ * Besides sizing the HTTP cache, this decides how stale a cached feed may be while still being used.
+ * With {@link Builder#staleWhileRevalidate(long)}, an expired response is returned right away while a
+ * fresh copy is fetched in the background for next time. With {@link Builder#staleIfError(long)},
+ * an expired response is used if the network request fails, rather than failing the whole load.
+ * Use {@link DownloaderConfig.Builder} to create one.
+ */
+public final class DownloaderConfig {
+	public final long cacheSize;
+	public final long cacheMaxAge;
+	public final long staleWhileRevalidate;
+	public final long staleIfError;
+	public final long connectTimeout;
+	public final long readTimeout;
+
+	/* Hidden constructor */
+	DownloaderConfig(Builder builder) {
+		this.cacheSize = builder.cacheSize;
+		this.cacheMaxAge = builder.cacheMaxAge;
+		this.staleWhileRevalidate = builder.staleWhileRevalidate;
+		this.staleIfError = builder.staleIfError;
+		this.connectTimeout = builder.connectTimeout;
+		this.readTimeout = builder.readTimeout;
+	}
+
+	/**
+	 * @param skipCache Whether the request asked to skip the cache.
+	 * @return Cache-Control header value to send with a regular request.
+	 */
+	String cacheControl(boolean skipCache) {
+		if (skipCache)
+			return "public, max-age=0";
+
+		String header = "public, max-age=" + cacheMaxAge / 1000;
+		if (staleWhileRevalidate > 0)
+			header += ", max-stale=" + staleWhileRevalidate / 1000;
+		return header;
+	}
+
+	/**
+	 * @return Cache-Control header value to send when falling back to the cache after a network error.
+	 */
+	String staleIfErrorCacheControl() {
+		return "only-if-cached, max-stale=" + staleIfError / 1000;
+	}
+
+	/**
+	 * @param warning Warning header of a response. May be null.
+	 * @return {@code true} if the warning marks the response as stale.
+	 */
+	static boolean isStale(String warning) {
+		return warning != null && warning.startsWith("110");
+	}
+
+	@Override
+	public String toString() {
+		return "DownloaderConfig{" +
+			"cacheSize=" + cacheSize +
+			", cacheMaxAge=" + cacheMaxAge +
+			", staleWhileRevalidate=" + staleWhileRevalidate +
+			", staleIfError=" + staleIfError +
+			", connectTimeout=" + connectTimeout +
+			", readTimeout=" + readTimeout +
+			'}';
+	}
+
+	public static class Builder {
+		private long cacheSize;
+		private long cacheMaxAge;
+		private long staleWhileRevalidate;
+		private long staleIfError;
+		private long connectTimeout;
+		private long readTimeout;
+
+		public Builder() {
+			this.cacheSize = 1024 * 1024;
+			this.cacheMaxAge = 2 * 60 * 60 * 1000;
+			this.staleWhileRevalidate = 0;
+			this.staleIfError = 0;
+			this.connectTimeout = 15000;
+			this.readTimeout = 45000;
+		}
+
+		/**
+		 * Maximum size in bytes of the HTTP cache on disk. <br />
+		 * <b>Default: </b> 1 MB
+		 */
+		public Builder cacheSize(long cacheSize) {
+			if (cacheSize < 1)
+				throw new IllegalArgumentException("cacheSize must be at least 1!");
+
+			this.cacheSize = cacheSize;
+			return this;
+		}
+
+		/**
+		 * Maximum age in milliseconds of a cached response to use without asking the server. <br />
+		 * <b>Default: </b> 2 hours
+		 */
+		public Builder cacheMaxAge(long cacheMaxAge) {
+			if (cacheMaxAge < 0)
+				throw new IllegalArgumentException("cacheMaxAge must not be negative!");
+
+			this.cacheMaxAge = cacheMaxAge;
+			return this;
+		}
+
+		/**
+		 * Time in milliseconds past expiry during which a cached response is still returned right
+		 * away, while a fresh one is fetched in the background. <br />
+		 * <b>Default: </b> 0 (Disabled)
+		 */
+		public Builder staleWhileRevalidate(long staleWhileRevalidate) {
+			if (staleWhileRevalidate < 0)
+				throw new IllegalArgumentException("staleWhileRevalidate must not be negative!");
+
+			this.staleWhileRevalidate = staleWhileRevalidate;
+			return this;
+		}
+
+		/**
+		 * Time in milliseconds past expiry during which a cached response is returned should the
+		 * network request fail. <br />
+		 * <b>Default: </b> 0 (Disabled)
+		 */
+		public Builder staleIfError(long staleIfError) {
+			if (staleIfError < 0)
+				throw new IllegalArgumentException("staleIfError must not be negative!");
+
+			this.staleIfError = staleIfError;
+			return this;
+		}
+
+		/**
+		 * Time in milliseconds to wait for a connection to be established. <br />
+		 * <b>Default: </b> 15 seconds
+		 */
+		public Builder connectTimeout(long connectTimeout) {
+			if (connectTimeout < 0)
+				throw new IllegalArgumentException("connectTimeout must not be negative!");
+
+			this.connectTimeout = connectTimeout;
+			return this;
+		}
+
+		/**
+		 * Time in milliseconds to wait for data while reading a response. <br />
+		 * <b>Default: </b> 45 seconds
+		 */
+		public Builder readTimeout(long readTimeout) {
+			if (readTimeout < 0)
+				throw new IllegalArgumentException("readTimeout must not be negative!");
+
+			this.readTimeout = readTimeout;
+			return this;
+		}
+
+		public DownloaderConfig build() {
+			return new DownloaderConfig(this);
+		}
+	}
+}
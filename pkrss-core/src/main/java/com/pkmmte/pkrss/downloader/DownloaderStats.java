@@ -0,0 +1,48 @@
+package com.pkmmte.pkrss.downloader;
+
+/**
+ * Immutable snapshot of how a {@code Downloader}'s requests were answered.
+ * Use {@code Downloader#stats()} to obtain one.
+ */
+public final class DownloaderStats {
+	/** Requests made, successful or not. */
+	public final long requestCount;
+	/** Responses fetched from the network, including 304 Not Modified. */
+	public final long networkCount;
+	/** Responses served from the HTTP cache without contacting the server. */
+	public final long cacheHitCount;
+	/** Cached responses the server confirmed were still valid. */
+	public final long conditionalHitCount;
+	/** Expired cached responses served, either while revalidating or because of an error. */
+	public final long staleCount;
+	/** Requests which failed. */
+	public final long errorCount;
+
+	DownloaderStats(long requestCount, long networkCount, long cacheHitCount, long conditionalHitCount, long staleCount, long errorCount) {
+		this.requestCount = requestCount;
+		this.networkCount = networkCount;
+		this.cacheHitCount = cacheHitCount;
+		this.conditionalHitCount = conditionalHitCount;
+		this.staleCount = staleCount;
+		this.errorCount = errorCount;
+	}
+
+	/**
+	 * @return Ratio of requests whose body came from the cache, or 0 if there weren't any.
+	 */
+	public double cacheHitRate() {
+		return requestCount == 0 ? 0.0 : (double) (cacheHitCount + conditionalHitCount + staleCount) / requestCount;
+	}
+
+	@Override
+	public String toString() {
+		return "DownloaderStats{" +
+			"requestCount=" + requestCount +
+			", networkCount=" + networkCount +
+			", cacheHitCount=" + cacheHitCount +
+			", conditionalHitCount=" + conditionalHitCount +
+			", staleCount=" + staleCount +
+			", errorCount=" + errorCount +
+			'}';
+	}
+}
@@ -0,0 +1,149 @@
+package com.pkmmte.pkrss.downloader;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A raw, unbuffered response returned by {@code Downloader#executeStream(Request)}.
+ * <p>
+ * Holds the response body as a byte stream along with its charset so it may be handed
+ * directly to a parser without ever building the full document as a String.
+ * Whoever receives this object is responsible for calling {@link #close()} once done reading.
+ */
+public class FeedResponse implements Closeable {
+	private final TrackingInputStream stream;
+	private final String charset;
+	private final Closeable resource;
+	private final CacheValidator validator;
+	private final boolean notModified;
+
+	/**
+	 * @param stream Response body stream.
+	 * @param charset Charset name declared by the server. May be null to let the parser detect it.
+	 */
+	public FeedResponse(InputStream stream, String charset) {
+		this(stream, charset, null);
+	}
+
+	/**
+	 * @param stream Response body stream.
+	 * @param charset Charset name declared by the server. May be null to let the parser detect it.
+	 * @param resource Extra resource (e.g. a connection) to release upon closing. May be null.
+	 */
+	public FeedResponse(InputStream stream, String charset, Closeable resource) {
+		this(stream, charset, resource, null, false);
+	}
+
+	/**
+	 * @param stream Response body stream.
+	 * @param charset Charset name declared by the server. May be null to let the parser detect it.
+	 * @param resource Extra resource (e.g. a connection) to release upon closing. May be null.
+	 * @param validator Cache validators sent by the server. May be null.
+	 */
+	public FeedResponse(InputStream stream, String charset, Closeable resource, CacheValidator validator) {
+		this(stream, charset, resource, validator, false);
+	}
+
+	private FeedResponse(InputStream stream, String charset, Closeable resource, CacheValidator validator, boolean notModified) {
+		this.stream = new TrackingInputStream(stream);
+		this.charset = charset;
+		this.resource = resource;
+		this.validator = validator;
+		this.notModified = notModified;
+	}
+
+	/**
+	 * Creates an empty response signaling that the feed hasn't changed since it was last loaded.
+	 * @param validator Cache validators sent along with the 304 response, or the ones sent with the request.
+	 * @return A new FeedResponse with an empty body.
+	 */
+	public static FeedResponse notModified(CacheValidator validator) {
+		return new FeedResponse(new ByteArrayInputStream(new byte[0]), null, null, validator, true);
+	}
+
+	/**
+	 * @return The response body stream. Must only be read once.
+	 */
+	public InputStream stream() {
+		return stream;
+	}
+
+	/**
+	 * @return Charset name of the response body or null if none was declared.
+	 */
+	public String charset() {
+		return charset;
+	}
+
+	/**
+	 * @return Cache validators to send with the next request for this feed. May be null.
+	 */
+	public CacheValidator validator() {
+		return validator;
+	}
+
+	/**
+	 * @return {@code true} if the server confirmed that the feed hasn't changed,
+	 * in which case there is nothing to parse.
+	 */
+	public boolean isNotModified() {
+		return notModified;
+	}
+
+	/**
+	 * Parsers tend to swallow I/O errors, so the first one thrown while reading is kept here.
+	 * @return The first {@link IOException} thrown while reading the stream or null if none.
+	 */
+	public IOException error() {
+		return stream.error;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			stream.close();
+		}
+		finally {
+			if (resource != null)
+				resource.close();
+		}
+	}
+
+	/**
+	 * Remembers the first read error so it isn't lost inside the parser.
+	 */
+	private static class TrackingInputStream extends FilterInputStream {
+		private IOException error;
+
+		TrackingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			try {
+				return super.read();
+			} catch (IOException e) {
+				throw track(e);
+			}
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int count) throws IOException {
+			try {
+				return super.read(buffer, offset, count);
+			} catch (IOException e) {
+				throw track(e);
+			}
+		}
+
+		private IOException track(IOException e) {
+			if (error == null)
+				error = e;
+			return e;
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package com.pkmmte.pkrss.downloader;
+
+import java.io.IOException;
+
+/**
+ * Thrown by downloaders when the server answers with an HTTP error status, telling requests
+ * the server turned down (4xx) apart from servers failing to handle them (5xx).
+ */
+public class HttpStatusException extends IOException {
+	private static final long serialVersionUID = 1L;
+
+	private final int code;
+
+	/**
+	 * @param code HTTP status code of the response.
+	 */
+	public HttpStatusException(int code) {
+		super("Unexpected response code " + code);
+		this.code = code;
+	}
+
+	/**
+	 * @return HTTP status code of the response.
+	 */
+	public int getCode() {
+		return code;
+	}
+
+	/**
+	 * @return {@code true} if the server failed to handle the request (5xx), which may be worth retrying.
+	 */
+	public boolean isServerError() {
+		return code >= 500;
+	}
+}
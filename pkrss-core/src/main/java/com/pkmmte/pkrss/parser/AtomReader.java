@@ -0,0 +1,100 @@
+package com.pkmmte.pkrss.parser;
+
+import com.pkmmte.pkrss.FeedItem;
+import com.pkmmte.pkrss.Logger;
+import java.io.IOException;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+/**
+ * Reads feeds using the Atom format.
+ */
+public class AtomReader extends FeedReader {
+	public AtomReader() {
+		this(Logger.NONE);
+	}
+
+	/**
+	 * @param logger Destination of log messages. May be null for none.
+	 */
+	public AtomReader(Logger logger) {
+		super(logger);
+	}
+
+	@Override
+	void readItems(XmlPullParser xmlParser, Listener listener) throws IOException, XmlPullParserException {
+		FeedItem item = new FeedItem();
+		int eventType = xmlParser.getEventType();
+
+		// Loop through the entire xml feed
+		while (eventType != XmlPullParser.END_DOCUMENT) {
+			String tagname = xmlParser.getName();
+			switch (eventType) {
+				case XmlPullParser.START_TAG:
+					if (tagname.equalsIgnoreCase("entry")) // Start a new instance
+						item = new FeedItem();
+					else // Handle this node if not an entry tag
+						handleNode(xmlParser, tagname, item);
+					break;
+				case XmlPullParser.END_TAG:
+					if (tagname.equalsIgnoreCase("entry"))
+						emit(item, listener);
+					break;
+				default:
+					break;
+			}
+			eventType = xmlParser.next();
+		}
+	}
+
+	/**
+	 * Handles a node from the tag node and assigns it to the correct item value.
+	 * @param xmlParser XmlPullParser positioned on the node.
+	 * @param tag The tag which to handle.
+	 * @param item Item to assign the node value to.
+	 * @return True if a proper tag was given or handled. False if improper tag was given or
+	 * if an exception if triggered.
+	 */
+	private boolean handleNode(XmlPullParser xmlParser, String tag, FeedItem item) {
+		try {
+			if (tag.equalsIgnoreCase("category"))
+				item.addTag(xmlParser.getAttributeValue(null, "term"));
+			else if (tag.equalsIgnoreCase("link")) {
+				// Links without a relation are alternate ones as per RFC 4287
+				String rel = xmlParser.getAttributeValue(null, "rel");
+				if (rel == null || rel.equalsIgnoreCase("alternate"))
+					item.setSourceUrl(xmlParser.getAttributeValue(null, "href"));
+				else if (rel.equalsIgnoreCase("replies"))
+					item.setComments(xmlParser.getAttributeValue(null, "href"));
+			}
+
+			if (xmlParser.next() != XmlPullParser.TEXT)
+				return false;
+
+			if (tag.equalsIgnoreCase("title"))
+				item.setTitle(xmlParser.getText());
+			else if (tag.equalsIgnoreCase("summary"))
+				item.setDescriptionHtml(xmlParser.getText());
+			else if (tag.equalsIgnoreCase("content"))
+				item.setContentHtml(xmlParser.getText());
+			else if (tag.equalsIgnoreCase("category"))
+				item.addTag(xmlParser.getText());
+			else if (tag.equalsIgnoreCase("id"))
+				item.setGuid(xmlParser.getText());
+			else if (tag.equalsIgnoreCase("name"))
+				item.setAuthor(xmlParser.getText());
+			else if (tag.equalsIgnoreCase("published"))
+				item.setDate(parseDate(xmlParser.getText()));
+
+			return true;
+		}
+		catch (IOException e) {
+			e.printStackTrace();
+			return false;
+		}
+		catch (XmlPullParserException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+}
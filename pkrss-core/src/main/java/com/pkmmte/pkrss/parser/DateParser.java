@@ -0,0 +1,365 @@
+package com.pkmmte.pkrss.parser;
+
+/**
+ * Hand-written decoder for the dates found in feeds: RFC 822 (RSS) and RFC 3339 (Atom).
+ * <p>
+ * Dates are decoded in a single pass straight into epoch milliseconds without going through
+ * {@code SimpleDateFormat}, {@code Date} or {@code Calendar}. Parsing is lenient about what
+ * feeds get wrong in practice: missing or full day and month names, two digit years, missing
+ * seconds, fractional seconds, missing zones (taken as UTC), "+hh:mm" offsets in RFC 822 dates
+ * and RFC 3339 dates found where RFC 822 ones belong.
+ * <p>
+ * Items of a feed tend to share timestamps and feeds are reloaded over and over,
+ * so recently decoded dates are remembered in a small cache.
+ * <p>
+ * This class is thread-safe.
+ */
+final class DateParser {
+	/** Returned for dates which couldn't be decoded. */
+	static final long INVALID = Long.MIN_VALUE;
+
+	// Direct-mapped cache of recently decoded dates. Races only ever cost a miss.
+	private static final int CACHE_SIZE = 256;
+	private static final Entry[] CACHE = new Entry[CACHE_SIZE];
+
+	private static final String[] MONTHS = {
+		"jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec"
+	};
+
+	// Named zones and their offsets in minutes. Unknown names are taken as UTC.
+	private static final String[] ZONE_NAMES = {
+		"GMT", "UT", "UTC", "Z",
+		"EST", "EDT", "CST", "CDT", "MST", "MDT", "PST", "PDT", "AKST", "AKDT", "HST",
+		"WET", "WEST", "BST", "CET", "CEST", "MET", "MEST", "EET", "EEST", "MSK",
+		"IST", "JST", "KST", "AEST", "AEDT", "ACST", "AWST", "NZST", "NZDT"
+	};
+	private static final int[] ZONE_OFFSETS = {
+		0, 0, 0, 0,
+		-300, -240, -360, -300, -420, -360, -480, -420, -540, -480, -600,
+		0, 60, 60, 60, 120, 60, 120, 120, 180, 180,
+		330, 540, 540, 600, 660, 570, 480, 720, 780
+	};
+
+	private DateParser() {
+	}
+
+	/**
+	 * Decodes an RFC 822 or RFC 3339 date, whichever it looks like.
+	 * @param text Date as found in the feed. May be null.
+	 * @return Milliseconds since the epoch or {@link #INVALID}.
+	 */
+	static long parse(String text) {
+		if (text == null)
+			return INVALID;
+
+		int hash = text.hashCode();
+		int index = (hash ^ (hash >>> 16)) & (CACHE_SIZE - 1);
+		Entry entry = CACHE[index];
+		if (entry != null && entry.text.equals(text))
+			return entry.time;
+
+		// Trim without copying
+		int start = 0;
+		int end = text.length();
+		while (start < end && text.charAt(start) <= ' ')
+			start++;
+		while (end > start && text.charAt(end - 1) <= ' ')
+			end--;
+
+		long time;
+		if (end - start >= 10 && isDigit(text.charAt(start)) && text.charAt(start + 4) == '-')
+			time = parseRfc3339(text, start, end);
+		else
+			time = parseRfc822(text, start, end);
+
+		if (time != INVALID)
+			CACHE[index] = new Entry(text, time);
+		return time;
+	}
+
+	/**
+	 * Decodes dates like "Sun, 05 Jul 2015 19:42:24 -0700".
+	 */
+	private static long parseRfc822(String s, int i, int end) {
+		// Optional day of week, "Sun," or "Sunday,"
+		if (i < end && isLetter(s.charAt(i))) {
+			while (i < end && isLetter(s.charAt(i)))
+				i++;
+			if (i < end && (s.charAt(i) == ',' || s.charAt(i) == '.'))
+				i++;
+			i = skipSpaces(s, i, end);
+		}
+
+		// Day of month
+		int start = i;
+		int day = 0;
+		while (i < end && i - start < 2 && isDigit(s.charAt(i)))
+			day = day * 10 + (s.charAt(i++) - '0');
+		if (i == start)
+			return INVALID;
+		i = skipSeparators(s, i, end);
+
+		// Month, possibly spelled out
+		if (i + 3 > end)
+			return INVALID;
+		int month = month(s, i);
+		if (month < 0)
+			return INVALID;
+		i += 3;
+		while (i < end && isLetter(s.charAt(i)))
+			i++;
+		if (i < end && s.charAt(i) == '.')
+			i++;
+		i = skipSeparators(s, i, end);
+
+		// Year, two digit years as per RFC 2822
+		start = i;
+		int year = 0;
+		while (i < end && i - start < 4 && isDigit(s.charAt(i)))
+			year = year * 10 + (s.charAt(i++) - '0');
+		switch (i - start) {
+			case 2:
+				year += year < 50 ? 2000 : 1900;
+				break;
+			case 3:
+				year += 1900;
+				break;
+			case 4:
+				break;
+			default:
+				return INVALID;
+		}
+		i = skipSpaces(s, i, end);
+
+		// Time, midnight if missing
+		int hour = 0;
+		int minute = 0;
+		int second = 0;
+		if (i < end && isDigit(s.charAt(i))) {
+			start = i;
+			while (i < end && i - start < 2 && isDigit(s.charAt(i)))
+				hour = hour * 10 + (s.charAt(i++) - '0');
+			if (i >= end || s.charAt(i) != ':' || (minute = twoDigits(s, i + 1, end)) < 0)
+				return INVALID;
+			i += 3;
+			if (i < end && s.charAt(i) == ':') {
+				if ((second = twoDigits(s, i + 1, end)) < 0)
+					return INVALID;
+				i += 3;
+				i = skipFraction(s, i, end);
+			}
+		}
+		i = skipSpaces(s, i, end);
+
+		int offset = zone(s, i, end);
+		if (offset == Integer.MIN_VALUE)
+			return INVALID;
+		return toMillis(year, month, day, hour, minute, second, 0, offset);
+	}
+
+	/**
+	 * Decodes dates like "2015-07-05T19:42:24.123+02:00" or simply "2015-07-05".
+	 */
+	private static long parseRfc3339(String s, int i, int end) {
+		int year = fourDigits(s, i, end);
+		int month = twoDigits(s, i + 5, end);
+		int day = i + 7 < end && s.charAt(i + 7) == '-' ? twoDigits(s, i + 8, end) : -1;
+		if (year < 0 || month < 0 || day < 0)
+			return INVALID;
+		i += 10;
+
+		// Date only
+		if (i >= end)
+			return toMillis(year, month, day, 0, 0, 0, 0, 0);
+
+		char separator = s.charAt(i);
+		if (separator != 'T' && separator != 't' && separator != ' ')
+			return INVALID;
+
+		int hour = twoDigits(s, i + 1, end);
+		int minute = i + 3 < end && s.charAt(i + 3) == ':' ? twoDigits(s, i + 4, end) : -1;
+		if (hour < 0 || minute < 0)
+			return INVALID;
+		i += 6;
+
+		int second = 0;
+		int millis = 0;
+		if (i < end && s.charAt(i) == ':') {
+			if ((second = twoDigits(s, i + 1, end)) < 0)
+				return INVALID;
+			i += 3;
+
+			// Fractional seconds, only milliseconds are kept
+			if (i < end && (s.charAt(i) == '.' || s.charAt(i) == ',')) {
+				int scale = 100;
+				i++;
+				while (i < end && isDigit(s.charAt(i))) {
+					millis += (s.charAt(i++) - '0') * scale;
+					scale /= 10;
+				}
+			}
+		}
+
+		int offset = zone(s, skipSpaces(s, i, end), end);
+		if (offset == Integer.MIN_VALUE)
+			return INVALID;
+		return toMillis(year, month, day, hour, minute, second, millis, offset);
+	}
+
+	/**
+	 * @return Offset from UTC in minutes of the zone starting at i, 0 if none, or Integer.MIN_VALUE if malformed.
+	 */
+	private static int zone(String s, int i, int end) {
+		if (i >= end)
+			return 0;
+
+		char c = s.charAt(i);
+		if (c == '+' || c == '-')
+			return numericZone(s, i, end);
+		if (!isLetter(c))
+			return Integer.MIN_VALUE;
+
+		int start = i;
+		while (i < end && isLetter(s.charAt(i)))
+			i++;
+
+		// Some feeds write "GMT+02:00"
+		if (i < end && (s.charAt(i) == '+' || s.charAt(i) == '-'))
+			return numericZone(s, i, end);
+
+		int length = i - start;
+		for (int z = 0; z < ZONE_NAMES.length; z++) {
+			String name = ZONE_NAMES[z];
+			if (name.length() == length && s.regionMatches(true, start, name, 0, length))
+				return ZONE_OFFSETS[z];
+		}
+		return 0;
+	}
+
+	/**
+	 * Decodes "+hhmm", "+hh:mm" or "+hh".
+	 */
+	private static int numericZone(String s, int i, int end) {
+		int sign = s.charAt(i) == '-' ? -1 : 1;
+		int hours = twoDigits(s, i + 1, end);
+		if (hours < 0)
+			return Integer.MIN_VALUE;
+		i += 3;
+
+		if (i < end && s.charAt(i) == ':')
+			i++;
+		int minutes = 0;
+		if (i < end && isDigit(s.charAt(i))) {
+			minutes = twoDigits(s, i, end);
+			if (minutes < 0)
+				return Integer.MIN_VALUE;
+		}
+		return sign * (hours * 60 + minutes);
+	}
+
+	private static long toMillis(int year, int month, int day, int hour, int minute, int second, int millis, int offset) {
+		if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+			|| hour > 24 || minute > 59 || second > 60)
+			return INVALID;
+
+		// Leap seconds are folded into the second before
+		if (second == 60)
+			second = 59;
+
+		long seconds = ((daysFromEpoch(year, month, day) * 24 + hour) * 60 + minute - offset) * 60 + second;
+		return seconds * 1000 + millis;
+	}
+
+	/**
+	 * Days between 1970-01-01 and the given date of the proleptic Gregorian calendar.
+	 */
+	private static long daysFromEpoch(int year, int month, int day) {
+		// Count years from March so the leap day comes last
+		long y = month <= 2 ? year - 1 : year;
+		long era = (y >= 0 ? y : y - 399) / 400;
+		long yearOfEra = y - era * 400;
+		long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+		long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097 + dayOfEra - 719468;
+	}
+
+	private static int daysInMonth(int year, int month) {
+		switch (month) {
+			case 2:
+				return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+			case 4:
+			case 6:
+			case 9:
+			case 11:
+				return 30;
+			default:
+				return 31;
+		}
+	}
+
+	/**
+	 * @return Month number from 1 to 12 of the three letters at i, or -1 if unknown.
+	 */
+	private static int month(String s, int i) {
+		for (int m = 0; m < MONTHS.length; m++) {
+			if (s.regionMatches(true, i, MONTHS[m], 0, 3))
+				return m + 1;
+		}
+		return -1;
+	}
+
+	private static int twoDigits(String s, int i, int end) {
+		if (i + 2 > end)
+			return -1;
+		char a = s.charAt(i);
+		char b = s.charAt(i + 1);
+		if (!isDigit(a) || !isDigit(b))
+			return -1;
+		return (a - '0') * 10 + (b - '0');
+	}
+
+	private static int fourDigits(String s, int i, int end) {
+		int high = twoDigits(s, i, end);
+		int low = twoDigits(s, i + 2, end);
+		return high < 0 || low < 0 ? -1 : high * 100 + low;
+	}
+
+	private static int skipFraction(String s, int i, int end) {
+		if (i < end && s.charAt(i) == '.') {
+			i++;
+			while (i < end && isDigit(s.charAt(i)))
+				i++;
+		}
+		return i;
+	}
+
+	private static int skipSpaces(String s, int i, int end) {
+		while (i < end && s.charAt(i) == ' ')
+			i++;
+		return i;
+	}
+
+	private static int skipSeparators(String s, int i, int end) {
+		while (i < end && (s.charAt(i) == ' ' || s.charAt(i) == '-'))
+			i++;
+		return i;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isLetter(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+
+	private static class Entry {
+		final String text;
+		final long time;
+
+		Entry(String text, long time) {
+			this.text = text;
+			this.time = time;
+		}
+	}
+}
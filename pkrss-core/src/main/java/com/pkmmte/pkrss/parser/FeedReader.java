@@ -0,0 +1,204 @@
+package com.pkmmte.pkrss.parser;
+
+import com.pkmmte.pkrss.FeedItem;
+import com.pkmmte.pkrss.Logger;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+/**
+ * Base class of the readers turning feeds into {@link FeedItem}s. Readers have no Android
+ * dependency so the same engine parses feeds on servers and plain JVMs; on Android it is
+ * what the default parsers run on.
+ * <p>
+ * Malformed feeds don't throw: whatever was read up to the error is kept.
+ * Readers are thread-safe. All parsing state is local to each call and XmlPullParsers
+ * come from a shared pool, so many feeds may be read at once.
+ */
+public abstract class FeedReader {
+	/**
+	 * Receives each item as soon as it has been read, before the rest of the feed.
+	 */
+	public interface Listener {
+		/**
+		 * Called on the reading thread once an item has been completely read.
+		 * @param item The newly read item.
+		 */
+		void onItemParsed(FeedItem item);
+	}
+
+	// Same tag the Android parsers always logged with
+	static final String TAG = "Parser";
+
+	private final Logger logger;
+
+	FeedReader(Logger logger) {
+		this.logger = logger == null ? Logger.NONE : logger;
+	}
+
+	/**
+	 * Reads every item of a feed.
+	 * @param feed Whole feed as a String.
+	 * @return The items in feed order.
+	 */
+	public List<FeedItem> read(String feed) {
+		Collector collector = new Collector();
+		read(feed, collector);
+		return collector.items;
+	}
+
+	/**
+	 * Reads every item of a feed out of a byte stream as it is being downloaded.
+	 * @param input Stream to read. It will not be closed.
+	 * @param encoding Charset name of the stream. May be null if unknown.
+	 * @return The items in feed order.
+	 */
+	public List<FeedItem> read(InputStream input, String encoding) {
+		Collector collector = new Collector();
+		read(input, encoding, collector);
+		return collector.items;
+	}
+
+	/**
+	 * Reads a feed, handing each item over as soon as it is read rather than keeping them all.
+	 * @param feed Whole feed as a String.
+	 * @param listener Listener to notify of each item.
+	 */
+	public void read(String feed, Listener listener) {
+		XmlPullParser xmlParser = null;
+		try {
+			// Read directly from the String rather than copying it into a byte array
+			xmlParser = XmlParserPool.acquire();
+			xmlParser.setInput(new StringReader(feed));
+			read(xmlParser, listener);
+		}
+		catch (XmlPullParserException e) {
+			e.printStackTrace();
+		}
+		finally {
+			XmlParserPool.release(xmlParser);
+		}
+	}
+
+	/**
+	 * Reads a feed out of a byte stream, handing each item over as soon as it is read
+	 * rather than keeping them all.
+	 * @param input Stream to read. It will not be closed.
+	 * @param encoding Charset name of the stream. May be null if unknown.
+	 * @param listener Listener to notify of each item.
+	 */
+	public void read(InputStream input, String encoding, Listener listener) {
+		XmlPullParser xmlParser = null;
+		try {
+			// Let the XmlPullParser decode the stream as it reads it
+			xmlParser = XmlParserPool.acquire();
+			xmlParser.setInput(input, encoding);
+			read(xmlParser, listener);
+		}
+		catch (XmlPullParserException e) {
+			e.printStackTrace();
+		}
+		finally {
+			XmlParserPool.release(xmlParser);
+		}
+	}
+
+	private void read(XmlPullParser xmlParser, Listener listener) {
+		long time = System.currentTimeMillis();
+		try {
+			readItems(xmlParser, listener);
+		}
+		catch (IOException e) {
+			e.printStackTrace();
+		}
+		catch (XmlPullParserException e) {
+			e.printStackTrace();
+		}
+
+		if (logger.isEnabled())
+			logger.log(TAG, "Parsing took " + (System.currentTimeMillis() - time) + "ms", Logger.DEBUG);
+	}
+
+	/**
+	 * Reads all items out of the input currently assigned to the XmlPullParser,
+	 * passing each to {@link #emit(FeedItem, Listener)}.
+	 * @param xmlParser XmlPullParser exclusively owned by this call.
+	 */
+	abstract void readItems(XmlPullParser xmlParser, Listener listener) throws IOException, XmlPullParserException;
+
+	/**
+	 * Assigns a completely read item its id and hands it over.
+	 */
+	final void emit(FeedItem item, Listener listener) {
+		item.setId(generateId(item));
+		if (logger.isEnabled())
+			logger.log(TAG, item.toShortString(), Logger.INFO);
+		listener.onItemParsed(item);
+	}
+
+	/**
+	 * Generates a stable id for the specified item out of its guid or, if missing, its
+	 * link. Items with neither fall back to their title and date.
+	 * <p>
+	 * Unlike {@link FeedItem#hashCode()}, the id stays the same when the item's content
+	 * changes between reads, which is what allows duplicates to be detected.
+	 * @param item Item to generate an id for.
+	 * @return A non-negative id.
+	 */
+	protected int generateId(FeedItem item) {
+		int id = stableId(item.getGuid(), item.getSourceUrl(), item.getTitle(), item.getDate());
+		return id >= 0 ? id : Math.abs(item.hashCode());
+	}
+
+	/**
+	 * Hashes the first of the guid, the link or the title and date which is known.
+	 * @return A non-negative id or -1 if none of them is.
+	 */
+	static int stableId(String guid, String link, String title, long date) {
+		String key = guid;
+		if (key == null)
+			key = link;
+		if (key == null && title != null)
+			key = title + '|' + date;
+		if (key == null)
+			return -1;
+
+		// 64-bit FNV-1a folded into 31 bits, spreads similar URLs better than String.hashCode()
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < key.length(); i++) {
+			hash ^= key.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return (int) (hash ^ (hash >>> 32)) & Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Converts a date as found in the feed, see {@link DateParser}.
+	 * @return Milliseconds since the epoch or 0 if it couldn't be decoded.
+	 */
+	final long parseDate(String encodedDate) {
+		long date = DateParser.parse(encodedDate);
+		if (date == DateParser.INVALID) {
+			if (logger.isEnabled())
+				logger.log(TAG, "Error parsing date " + encodedDate, Logger.WARN);
+			return 0;
+		}
+		return date;
+	}
+
+	/**
+	 * Keeps every item read.
+	 */
+	private static final class Collector implements Listener {
+		final List<FeedItem> items = new ArrayList<FeedItem>();
+
+		@Override
+		public void onItemParsed(FeedItem item) {
+			items.add(item);
+		}
+	}
+}
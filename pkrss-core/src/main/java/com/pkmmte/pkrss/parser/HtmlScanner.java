@@ -0,0 +1,410 @@
+package com.pkmmte.pkrss.parser;
+
+/**
+ * Small streaming HTML tokenizer used to clean up item descriptions and content.
+ * Custom parsers may use it as well.
+ * <p>
+ * Each method walks the markup once, without regular expressions or an XML parser,
+ * and tolerates the broken markup feeds are full of: unclosed tags, unquoted attributes,
+ * stray '&lt;' and unknown entities are left as they are.
+ * <p>
+ * A scanner reuses its buffer between calls. This class is not thread-safe.
+ */
+public final class HtmlScanner {
+	private static final String[] ENTITY_NAMES = {
+		"amp", "lt", "gt", "quot", "apos", "nbsp", "hellip", "mdash", "ndash", "lsquo", "rsquo",
+		"ldquo", "rdquo", "laquo", "raquo", "bull", "middot", "copy", "reg", "trade", "deg", "euro"
+	};
+	private static final char[] ENTITY_CHARS = {
+		'&', '<', '>', '"', '\'', '\u00A0', '\u2026', '\u2014', '\u2013', '\u2018', '\u2019',
+		'\u201C', '\u201D', '\u00AB', '\u00BB', '\u2022', '\u00B7', '\u00A9', '\u00AE', '\u2122', '\u00B0', '\u20AC'
+	};
+
+	// Longest entity worth looking for, "&#x10FFFF;" included
+	private static final int MAX_ENTITY_LENGTH = 10;
+
+	private final StringBuilder buffer = new StringBuilder();
+	private String image = "";
+
+	// End of the tag name found by the last call to tagEnd()
+	private int nameEnd;
+
+	/**
+	 * Converts HTML into plain text, dropping images and turning line breaks
+	 * and block elements into new lines. The first image found is kept for {@link #image()}.
+	 * @param html Markup which to convert.
+	 * @return Plain text, never null.
+	 */
+	public String toText(String html) {
+		StringBuilder text = buffer;
+		text.setLength(0);
+		image = "";
+		if (html == null)
+			return "";
+
+		int length = html.length();
+		int i = 0;
+		while (i < length) {
+			char c = html.charAt(i);
+			if (c == '<') {
+				// Comments
+				if (html.startsWith("<!--", i)) {
+					int end = html.indexOf("-->", i + 4);
+					i = end < 0 ? length : end + 3;
+					continue;
+				}
+
+				int end = tagEnd(html, i);
+				if (end < 0) {
+					appendText(text, c);
+					i++;
+					continue;
+				}
+
+				boolean closing = html.charAt(i + 1) == '/';
+				int nameStart = closing ? i + 2 : i + 1;
+				int nameLength = nameEnd - nameStart;
+				if (isTag(html, nameStart, nameLength, "img")) {
+					if (!closing && image.length() == 0)
+						image = stripSize(attribute(html, nameEnd, end, "src"));
+				}
+				else if (isTag(html, nameStart, nameLength, "br")) {
+					trimSpace(text);
+					text.append('\n');
+				}
+				else if (isTag(html, nameStart, nameLength, "script") || isTag(html, nameStart, nameLength, "style")) {
+					if (!closing) {
+						// Skip everything up to the closing tag
+						int close = indexOfIgnoreCase(html, "</" + html.substring(nameStart, nameEnd), end);
+						int gt = close < 0 ? -1 : html.indexOf('>', close);
+						end = gt < 0 ? length - 1 : gt;
+					}
+				}
+				else if (isParagraph(html, nameStart, nameLength))
+					newLines(text, 2);
+				else if (isTag(html, nameStart, nameLength, "li") || isTag(html, nameStart, nameLength, "tr"))
+					newLines(text, 1);
+
+				i = end + 1;
+			}
+			else if (c == '&') {
+				i = appendEntity(html, i, text, true);
+			}
+			else {
+				appendText(text, c);
+				i++;
+			}
+		}
+
+		// Block elements closing at the very end leave trailing new lines behind
+		int end = text.length();
+		while (end > 0 && isWhitespace(text.charAt(end - 1)))
+			end--;
+		text.setLength(end);
+		return text.toString();
+	}
+
+	/**
+	 * @return Source of the first image found by the last call to {@link #toText(String)}
+	 * with any "-WxH" size suffix removed, or an empty String if none was found.
+	 */
+	public String image() {
+		return image;
+	}
+
+	/**
+	 * Removes div tags, keeping what's inside them, and optionally the first image.
+	 * @param html Markup which to clean up.
+	 * @param firstImage Whether to remove the first img tag as well.
+	 * @return Cleaned up markup, or the same String if there was nothing to remove.
+	 */
+	public String stripTags(String html, boolean firstImage) {
+		if (html == null)
+			return null;
+
+		StringBuilder out = null;
+		int length = html.length();
+		int copied = 0;
+		int i = html.indexOf('<');
+		while (i >= 0 && i < length) {
+			int end = tagEnd(html, i);
+			if (end < 0) {
+				i = html.indexOf('<', i + 1);
+				continue;
+			}
+
+			boolean closing = html.charAt(i + 1) == '/';
+			int nameStart = closing ? i + 2 : i + 1;
+			int nameLength = nameEnd - nameStart;
+			boolean image = !closing && firstImage && isTag(html, nameStart, nameLength, "img");
+			if (image || isTag(html, nameStart, nameLength, "div")) {
+				if (out == null) {
+					out = buffer;
+					out.setLength(0);
+				}
+				out.append(html, copied, i);
+				copied = end + 1;
+				if (image)
+					firstImage = false;
+			}
+			i = html.indexOf('<', end + 1);
+		}
+
+		if (out == null)
+			return html;
+		out.append(html, copied, length);
+		return out.toString();
+	}
+
+	/**
+	 * Finds the end of the tag starting at the given '&lt;', skipping over quoted attribute values.
+	 * Also records where the tag name ends.
+	 * @return Index of the closing '&gt;' or -1 if this isn't a tag.
+	 */
+	private int tagEnd(String html, int start) {
+		int length = html.length();
+		int i = start + 1;
+		if (i < length && html.charAt(i) == '/')
+			i++;
+		if (i >= length || !isLetter(html.charAt(i)))
+			return -1;
+
+		while (i < length && (isLetter(html.charAt(i)) || isDigit(html.charAt(i)) || html.charAt(i) == ':'))
+			i++;
+		nameEnd = i;
+
+		char quote = 0;
+		for (; i < length; i++) {
+			char c = html.charAt(i);
+			if (quote != 0) {
+				if (c == quote)
+					quote = 0;
+			}
+			else if (c == '"' || c == '\'')
+				quote = c;
+			else if (c == '>')
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Looks up an attribute value within a tag, decoding any entities in it.
+	 * @return The attribute value or an empty String if missing.
+	 */
+	private static String attribute(String html, int start, int end, String name) {
+		int i = start;
+		while (i < end) {
+			// Attribute name
+			while (i < end && (isWhitespace(html.charAt(i)) || html.charAt(i) == '/'))
+				i++;
+			int nameStart = i;
+			while (i < end && !isWhitespace(html.charAt(i)) && html.charAt(i) != '=' && html.charAt(i) != '/')
+				i++;
+			int nameLength = i - nameStart;
+			while (i < end && isWhitespace(html.charAt(i)))
+				i++;
+			if (i >= end || html.charAt(i) != '=') {
+				if (nameLength == 0)
+					i++;
+				continue;
+			}
+			i++;
+			while (i < end && isWhitespace(html.charAt(i)))
+				i++;
+
+			// Attribute value, quoted or not
+			int valueStart;
+			int valueEnd;
+			char quote = i < end ? html.charAt(i) : 0;
+			if (quote == '"' || quote == '\'') {
+				valueStart = i + 1;
+				valueEnd = html.indexOf(quote, valueStart);
+				if (valueEnd < 0 || valueEnd > end)
+					valueEnd = end;
+				i = valueEnd + 1;
+			}
+			else {
+				valueStart = i;
+				while (i < end && !isWhitespace(html.charAt(i)))
+					i++;
+				valueEnd = i;
+			}
+
+			if (nameLength == name.length() && html.regionMatches(true, nameStart, name, 0, nameLength))
+				return decode(html, valueStart, valueEnd);
+		}
+		return "";
+	}
+
+	/**
+	 * Removes every "-WxH" size suffix, such as the "-150x150" WordPress adds to thumbnails,
+	 * so the full size image is used.
+	 */
+	private static String stripSize(String src) {
+		StringBuilder out = null;
+		int copied = 0;
+		int length = src.length();
+		for (int i = src.indexOf('-'); i >= 0; i = src.indexOf('-', i + 1)) {
+			int width = digits(src, i + 1, length);
+			if (width == 0 || i + 1 + width >= length || src.charAt(i + 1 + width) != 'x')
+				continue;
+			int height = digits(src, i + 2 + width, length);
+			if (height == 0)
+				continue;
+
+			if (out == null)
+				out = new StringBuilder(length);
+			out.append(src, copied, i);
+			copied = i + 2 + width + height;
+			i = copied - 1;
+		}
+
+		if (out == null)
+			return src;
+		out.append(src, copied, length);
+		return out.toString();
+	}
+
+	/**
+	 * @return How many digits there are at the given index, up to 4.
+	 */
+	private static int digits(String s, int start, int end) {
+		int i = start;
+		while (i < end && i - start < 4 && isDigit(s.charAt(i)))
+			i++;
+		return i - start;
+	}
+
+	private static String decode(String html, int start, int end) {
+		int amp = html.indexOf('&', start);
+		if (amp < 0 || amp >= end)
+			return html.substring(start, end);
+
+		StringBuilder out = new StringBuilder(end - start);
+		for (int i = start; i < end; ) {
+			if (html.charAt(i) == '&')
+				i = appendEntity(html, i, out, false);
+			else
+				out.append(html.charAt(i++));
+		}
+		return out.toString();
+	}
+
+	/**
+	 * Appends the character of the entity starting at the given '&amp;', or the '&amp;' itself if unknown.
+	 * @param text Whether the output is text, whose whitespace gets collapsed.
+	 * @return Index following the entity.
+	 */
+	private static int appendEntity(String html, int start, StringBuilder out, boolean text) {
+		int semicolon = html.indexOf(';', start + 1);
+		if (semicolon > start + 1 && semicolon - start <= MAX_ENTITY_LENGTH) {
+			int codePoint = -1;
+			if (html.charAt(start + 1) == '#') {
+				boolean hex = semicolon > start + 2 && (html.charAt(start + 2) == 'x' || html.charAt(start + 2) == 'X');
+				try {
+					codePoint = hex ? Integer.parseInt(html.substring(start + 3, semicolon), 16)
+						: Integer.parseInt(html.substring(start + 2, semicolon));
+				}
+				catch (NumberFormatException e) {
+					codePoint = -1;
+				}
+				if (codePoint < 0 || codePoint > Character.MAX_CODE_POINT)
+					codePoint = -1;
+			}
+			else {
+				int nameLength = semicolon - start - 1;
+				for (int e = 0; e < ENTITY_NAMES.length; e++) {
+					String name = ENTITY_NAMES[e];
+					if (name.length() == nameLength && html.regionMatches(start + 1, name, 0, nameLength)) {
+						codePoint = ENTITY_CHARS[e];
+						break;
+					}
+				}
+			}
+
+			if (codePoint >= 0) {
+				if (text && codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT && isWhitespace((char) codePoint))
+					appendText(out, ' ');
+				else
+					out.appendCodePoint(codePoint);
+				return semicolon + 1;
+			}
+		}
+
+		if (text)
+			appendText(out, '&');
+		else
+			out.append('&');
+		return start + 1;
+	}
+
+	/**
+	 * Appends a character of text, collapsing whitespace like a browser would.
+	 */
+	private static void appendText(StringBuilder text, char c) {
+		if (isWhitespace(c)) {
+			int length = text.length();
+			if (length == 0 || text.charAt(length - 1) == ' ' || text.charAt(length - 1) == '\n')
+				return;
+			c = ' ';
+		}
+		text.append(c);
+	}
+
+	/**
+	 * Ends the current line so the text has the given amount of new lines at its end.
+	 */
+	private static void newLines(StringBuilder text, int count) {
+		trimSpace(text);
+		int length = text.length();
+		if (length == 0)
+			return;
+
+		int existing = 0;
+		while (existing < count && existing < length && text.charAt(length - 1 - existing) == '\n')
+			existing++;
+		for (; existing < count; existing++)
+			text.append('\n');
+	}
+
+	private static void trimSpace(StringBuilder text) {
+		int length = text.length();
+		if (length > 0 && text.charAt(length - 1) == ' ')
+			text.setLength(length - 1);
+	}
+
+	private static boolean isParagraph(String html, int start, int length) {
+		if (length == 2 && (html.charAt(start) == 'h' || html.charAt(start) == 'H')
+			&& html.charAt(start + 1) >= '1' && html.charAt(start + 1) <= '6')
+			return true;
+		return isTag(html, start, length, "p") || isTag(html, start, length, "div")
+			|| isTag(html, start, length, "blockquote") || isTag(html, start, length, "ul")
+			|| isTag(html, start, length, "ol") || isTag(html, start, length, "table");
+	}
+
+	private static boolean isTag(String html, int start, int length, String name) {
+		return length == name.length() && html.regionMatches(true, start, name, 0, length);
+	}
+
+	private static int indexOfIgnoreCase(String html, String target, int from) {
+		int last = html.length() - target.length();
+		for (int i = from; i <= last; i++) {
+			if (html.regionMatches(true, i, target, 0, target.length()))
+				return i;
+		}
+		return -1;
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == '\f';
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isLetter(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+}
@@ -0,0 +1,155 @@
+package com.pkmmte.pkrss.parser;
+
+import com.pkmmte.pkrss.FeedItem;
+import com.pkmmte.pkrss.Logger;
+import java.io.IOException;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+/**
+ * Reads feeds using the RSS2 standard format, including enclosures and Media RSS content.
+ */
+public class Rss2Reader extends FeedReader {
+	public Rss2Reader() {
+		this(Logger.NONE);
+	}
+
+	/**
+	 * @param logger Destination of log messages. May be null for none.
+	 */
+	public Rss2Reader(Logger logger) {
+		super(logger);
+	}
+
+	@Override
+	void readItems(XmlPullParser xmlParser, Listener listener) throws IOException, XmlPullParserException {
+		FeedItem item = new FeedItem();
+		int eventType = xmlParser.getEventType();
+
+		// Loop through the entire xml feed
+		while (eventType != XmlPullParser.END_DOCUMENT) {
+			String tagname = xmlParser.getName();
+			switch (eventType) {
+				case XmlPullParser.START_TAG:
+					if (tagname.equalsIgnoreCase("item")) // Start a new instance
+						item = new FeedItem();
+					// Enclosures are not readable as text by XmlPullParser in Android, only their attributes are read
+					// https://code.google.com/p/android/issues/detail?id=18658
+					else if (tagname.equalsIgnoreCase("enclosure"))
+						item.setEnclosure(readEnclosure(xmlParser));
+					else if (tagname.equalsIgnoreCase("media:content"))
+						item.addMediaContent(readMediaContent(xmlParser));
+					else // Handle this node if not an entry tag
+						handleNode(xmlParser, tagname, item);
+					break;
+				case XmlPullParser.END_TAG:
+					if (tagname.equalsIgnoreCase("item"))
+						emit(item, listener);
+					break;
+				default:
+					break;
+			}
+			eventType = xmlParser.next();
+		}
+	}
+
+	/**
+	 * Handles a node from the tag node and assigns it to the correct item value.
+	 * @param xmlParser XmlPullParser positioned on the node.
+	 * @param tag The tag which to handle.
+	 * @param item Item to assign the node value to.
+	 * @return True if a proper tag was given or handled. False if improper tag was given or
+	 * if an exception if triggered.
+	 */
+	private boolean handleNode(XmlPullParser xmlParser, String tag, FeedItem item) {
+		try {
+			if (xmlParser.next() != XmlPullParser.TEXT)
+				return false;
+
+			if (tag.equalsIgnoreCase("link"))
+				item.setSourceUrl(xmlParser.getText());
+			else if (tag.equalsIgnoreCase("title"))
+				item.setTitle(xmlParser.getText());
+			else if (tag.equalsIgnoreCase("description"))
+				item.setDescriptionHtml(xmlParser.getText());
+			else if (tag.equalsIgnoreCase("content:encoded"))
+				item.setContentHtml(xmlParser.getText());
+			else if (tag.equalsIgnoreCase("guid"))
+				item.setGuid(xmlParser.getText());
+			else if (tag.equalsIgnoreCase("wfw:commentRss"))
+				item.setComments(xmlParser.getText());
+			else if (tag.equalsIgnoreCase("category"))
+				item.addTag(xmlParser.getText());
+			else if (tag.equalsIgnoreCase("dc:creator"))
+				item.setAuthor(xmlParser.getText());
+			else if (tag.equalsIgnoreCase("pubDate"))
+				item.setDate(parseDate(xmlParser.getText()));
+
+			return true;
+		}
+		catch (IOException e) {
+			e.printStackTrace();
+			return false;
+		}
+		catch (XmlPullParserException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+
+	private static FeedItem.Enclosure readEnclosure(XmlPullParser xmlParser) {
+		String url = null;
+		String length = null;
+		String type = null;
+		for (int i = 0; i < xmlParser.getAttributeCount(); i++) {
+			String att = xmlParser.getAttributeName(i);
+			if (att.equalsIgnoreCase("url"))
+				url = xmlParser.getAttributeValue(i);
+			else if (att.equalsIgnoreCase("length"))
+				length = xmlParser.getAttributeValue(i);
+			else if (att.equalsIgnoreCase("type"))
+				type = xmlParser.getAttributeValue(i);
+		}
+		return new FeedItem.Enclosure(url, length, type);
+	}
+
+	/**
+	 * Reads the attributes of a media content node.
+	 * @param xmlParser XmlPullParser positioned on the media content node.
+	 */
+	private static FeedItem.MediaContent readMediaContent(XmlPullParser xmlParser) {
+		String url = xmlParser.getAttributeValue(null, "url");
+		if (url == null)
+			throw new IllegalArgumentException("Url argument must not be null");
+
+		FeedItem.MediaContent mc = new FeedItem.MediaContent(url);
+		String value;
+		if ((value = xmlParser.getAttributeValue(null, "type")) != null)
+			mc.setType(value);
+		if ((value = xmlParser.getAttributeValue(null, "fileSize")) != null)
+			mc.setFileSize(Integer.parseInt(value));
+		if ((value = xmlParser.getAttributeValue(null, "medium")) != null)
+			mc.setMedium(value);
+		if ((value = xmlParser.getAttributeValue(null, "isDefault")) != null)
+			mc.setIsDefault(Boolean.parseBoolean(value));
+		if ((value = xmlParser.getAttributeValue(null, "expression")) != null)
+			mc.setExpression(value);
+		if ((value = xmlParser.getAttributeValue(null, "bitrate")) != null)
+			mc.setBitrate(Integer.parseInt(value));
+		if ((value = xmlParser.getAttributeValue(null, "framerate")) != null)
+			mc.setFramerate(Integer.parseInt(value));
+		if ((value = xmlParser.getAttributeValue(null, "samplingrate")) != null)
+			mc.setSamplingrate(Integer.parseInt(value));
+		if ((value = xmlParser.getAttributeValue(null, "channels")) != null)
+			mc.setChannels(Integer.parseInt(value));
+		if ((value = xmlParser.getAttributeValue(null, "duration")) != null)
+			mc.setDuration(Integer.parseInt(value));
+		if ((value = xmlParser.getAttributeValue(null, "height")) != null)
+			mc.setHeight(Integer.parseInt(value));
+		if ((value = xmlParser.getAttributeValue(null, "width")) != null)
+			mc.setWidth(Integer.parseInt(value));
+		if ((value = xmlParser.getAttributeValue(null, "lang")) != null)
+			mc.setLang(value);
+		return mc;
+	}
+}
@@ -0,0 +1,73 @@
+package com.pkmmte.pkrss.parser;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+/**
+ * A pool of reusable, non namespace aware {@link XmlPullParser} instances shared by all parsers.
+ * <p>
+ * An XmlPullParser may only be used by one thread at a time, so each parse call borrows its own
+ * instance via {@link #acquire()} and hands it back via {@link #release(XmlPullParser)} once done.
+ * Creating parsers is fairly expensive so a handful of idle ones are kept around.
+ */
+final class XmlParserPool {
+	// Keep enough idle parsers around for every core to be parsing a feed at once
+	private static final int MAX_IDLE = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+	private static final Queue<XmlPullParser> idle = new ConcurrentLinkedQueue<XmlPullParser>();
+	private static final AtomicInteger idleCount = new AtomicInteger();
+	private static XmlPullParserFactory factory;
+
+	private XmlParserPool() {
+	}
+
+	/**
+	 * @return An XmlPullParser for the exclusive use of the calling thread until released.
+	 * @throws XmlPullParserException If no parser could be created.
+	 */
+	static XmlPullParser acquire() throws XmlPullParserException {
+		XmlPullParser parser = idle.poll();
+		if (parser != null) {
+			idleCount.decrementAndGet();
+			return parser;
+		}
+
+		return newParser();
+	}
+
+	/**
+	 * Returns a parser to the pool. It must not be used by the caller afterwards.
+	 * @param parser Parser previously obtained through {@link #acquire()}. May be null.
+	 */
+	static void release(XmlPullParser parser) {
+		if (parser == null)
+			return;
+
+		// Drop the reference to the previous input so it may be garbage collected
+		try {
+			parser.setInput(null);
+		}
+		catch (XmlPullParserException e) {
+			return;
+		}
+
+		if (idleCount.incrementAndGet() <= MAX_IDLE)
+			idle.offer(parser);
+		else
+			idleCount.decrementAndGet();
+	}
+
+	private static synchronized XmlPullParser newParser() throws XmlPullParserException {
+		// Factories are not guaranteed to be thread-safe, hence the lock
+		if (factory == null) {
+			factory = XmlPullParserFactory.newInstance();
+			factory.setNamespaceAware(false);
+		}
+
+		return factory.newPullParser();
+	}
+}
@@ -0,0 +1,140 @@
+package com.pkmmte.pkrss;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BlobFormatTest {
+
+    @Test
+    public void testStringRoundTrip() throws IOException {
+        String[] values = {null, "", "plain", "caf\u00E9 \u65E5\u672C \uD83D\uDE00", "line\nbreak\u0000nul"};
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (String value : values)
+            BlobFormat.writeString(out, value);
+
+        DataInputStream in = input(bytes.toByteArray());
+        for (String value : values)
+            assertEquals(value, BlobFormat.readString(in));
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    public void testStringIsUtf8() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BlobFormat.writeString(new DataOutputStream(bytes), "\u00E9");
+
+        // Length prefix then the two UTF-8 bytes
+        assertEquals(6, bytes.size());
+        assertEquals(2, bytes.toByteArray()[3]);
+    }
+
+    @Test
+    public void testNullString() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BlobFormat.writeString(new DataOutputStream(bytes), null);
+
+        assertEquals(4, bytes.size());
+        assertNull(BlobFormat.readString(input(bytes.toByteArray())));
+    }
+
+    @Test
+    public void testBadStringLength() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(Integer.MAX_VALUE);
+        out.write(new byte[16]);
+
+        try {
+            BlobFormat.readString(input(bytes.toByteArray()));
+            fail("Expected an IOException for a length past the end");
+        } catch (IOException expected) {
+            assertEquals("Invalid length " + Integer.MAX_VALUE, expected.getMessage());
+        }
+
+        // One byte short
+        bytes.reset();
+        out.writeInt(3);
+        out.write(new byte[2]);
+        try {
+            BlobFormat.readString(input(bytes.toByteArray()));
+            fail("Expected an IOException for a truncated String");
+        } catch (IOException expected) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testCount() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(2);
+        out.write(new byte[2]);
+        assertEquals(2, BlobFormat.readCount(input(bytes.toByteArray())));
+
+        int[] counts = {-2, Integer.MIN_VALUE, 3, Integer.MAX_VALUE};
+        for (int count : counts) {
+            bytes.reset();
+            out.writeInt(count);
+            out.write(new byte[2]);
+            try {
+                BlobFormat.readCount(input(bytes.toByteArray()));
+                fail("Expected an IOException for count " + count);
+            } catch (IOException expected) {
+                assertEquals("Invalid count " + count, expected.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testHeader() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BlobFormat.writeHeader(new DataOutputStream(bytes), (short) 0x504D, (byte) 1);
+        assertEquals(3, bytes.size());
+
+        BlobFormat.readHeader(input(bytes.toByteArray()), (short) 0x504D, (byte) 1, "test");
+        try {
+            BlobFormat.readHeader(input(bytes.toByteArray()), (short) 0x504D, (byte) 2, "test");
+            fail("Expected an IOException for another version");
+        } catch (IOException expected) {
+            assertEquals("Unknown test format", expected.getMessage());
+        }
+        try {
+            BlobFormat.readHeader(input(bytes.toByteArray()), (short) 0x5045, (byte) 1, "test");
+            fail("Expected an IOException for another magic number");
+        } catch (IOException expected) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testIsSerialized() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject("serialized");
+        out.close();
+        assertTrue(BlobFormat.isSerialized(bytes.toByteArray()));
+
+        ByteArrayOutputStream blob = new ByteArrayOutputStream();
+        BlobFormat.writeHeader(new DataOutputStream(blob), (short) 0x504D, (byte) 1);
+        assertFalse(BlobFormat.isSerialized(blob.toByteArray()));
+        assertFalse(BlobFormat.isSerialized(new byte[] {(byte) 0xAC}));
+        assertFalse(BlobFormat.isSerialized(new byte[0]));
+    }
+
+    private static DataInputStream input(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+}
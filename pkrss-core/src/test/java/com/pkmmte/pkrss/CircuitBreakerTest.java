@@ -0,0 +1,83 @@
+package com.pkmmte.pkrss;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CircuitBreakerTest {
+
+    /**
+     * Circuit breaker running on a clock set by the test.
+     */
+    private static class ManualCircuitBreaker extends CircuitBreaker {
+        long time = 1000;
+
+        ManualCircuitBreaker(int failureThreshold, long openDuration) {
+            super(failureThreshold, openDuration);
+        }
+
+        @Override
+        long now() {
+            return time;
+        }
+    }
+
+    @Test
+    public void testThreshold() {
+        ManualCircuitBreaker breaker = new ManualCircuitBreaker(3, 100);
+        assertTrue(breaker.allow("a"));
+
+        breaker.failure("a");
+        breaker.failure("a");
+        assertTrue(breaker.allow("a"));
+
+        breaker.failure("a");
+        assertFalse(breaker.allow("a"));
+        assertFalse(breaker.allow("a"));
+
+        // Other hosts are unaffected
+        assertTrue(breaker.allow("b"));
+    }
+
+    @Test
+    public void testHalfOpenProbe() {
+        ManualCircuitBreaker breaker = new ManualCircuitBreaker(1, 100);
+        breaker.failure("a");
+
+        breaker.time += 99;
+        assertFalse(breaker.allow("a"));
+
+        // A single probe once the open duration has passed
+        breaker.time += 1;
+        assertTrue(breaker.allow("a"));
+        assertFalse(breaker.allow("a"));
+
+        // A failed probe keeps it open for another round
+        breaker.failure("a");
+        breaker.time += 99;
+        assertFalse(breaker.allow("a"));
+        breaker.time += 1;
+        assertTrue(breaker.allow("a"));
+    }
+
+    @Test
+    public void testResetOnSuccess() {
+        ManualCircuitBreaker breaker = new ManualCircuitBreaker(2, 100);
+        breaker.failure("a");
+        breaker.failure("a");
+        assertFalse(breaker.allow("a"));
+
+        breaker.time += 100;
+        assertTrue(breaker.allow("a"));
+        breaker.success("a");
+        assertTrue(breaker.allow("a"));
+        assertTrue(breaker.allow("a"));
+
+        // Failures are counted from scratch again
+        breaker.failure("a");
+        assertTrue(breaker.allow("a"));
+        breaker.failure("a");
+        assertFalse(breaker.allow("a"));
+    }
+}
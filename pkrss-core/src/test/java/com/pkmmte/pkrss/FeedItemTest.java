@@ -0,0 +1,68 @@
+package com.pkmmte.pkrss;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+public class FeedItemTest {
+    private static final String HTML = "<p>Some <b>text</b><img src=\"http://example.com/a.png\"></p>";
+
+    @Test
+    public void testLazyDescription() {
+        FeedItem item = new FeedItem().setDescriptionHtml(HTML);
+        assertEquals("http://example.com/a.png", item.getImageUrl());
+        assertEquals("Some text", item.getDescription());
+
+        // An explicit image wins over the one in the description
+        item = new FeedItem().setDescriptionHtml(HTML).setImageUrl("http://example.com/b.png");
+        assertEquals("http://example.com/b.png", item.getImageUrl());
+        assertEquals("Some text", item.getDescription());
+
+        assertEquals("", new FeedItem().setDescriptionHtml("<p>None</p>").getImageUrl());
+        assertNull(new FeedItem().setDescriptionHtml(null).getDescription());
+    }
+
+    @Test
+    public void testContent() {
+        String html = "<div><img src=\"a.png\"><p>Body</p></div>";
+        // The first image is only dropped when it's already shown as the main image
+        assertEquals("<img src=\"a.png\"><p>Body</p>", new FeedItem().setContentHtml(html).getContent());
+        assertEquals("<p>Body</p>", new FeedItem().setImageUrl("a.png").setContentHtml(html).getContent());
+        assertEquals("<div>Raw</div>", new FeedItem().setContent("<div>Raw</div>").getContent());
+    }
+
+    @Test
+    public void testRawRoundTrip() {
+        FeedItem item = new FeedItem().setSourceUrl("http://example.com/").setDescriptionHtml(HTML)
+                .setContentHtml("<div>Body</div>");
+        String[] values = new String[4];
+        int raw = item.peekRaw(values);
+        assertEquals(FeedItem.RAW_DESCRIPTION | FeedItem.RAW_IMAGE | FeedItem.RAW_CONTENT, raw);
+        assertEquals(HTML, values[2]);
+
+        FeedItem restored = new FeedItem();
+        restored.restoreRaw(values, raw);
+        assertEquals("http://example.com/", restored.getSourceUrl());
+        assertEquals(item.getDescription(), restored.getDescription());
+        assertEquals(item.getImageUrl(), restored.getImageUrl());
+        assertEquals(item.getContent(), restored.getContent());
+
+        // Converted values are kept as they are
+        raw = item.peekRaw(values);
+        assertEquals(0, raw);
+        restored = new FeedItem();
+        restored.restoreRaw(values, raw);
+        assertEquals(item, restored);
+    }
+
+    @Test
+    public void testEquals() {
+        FeedItem a = new FeedItem().setTitle("Title").setGuid("guid").addTag("tag");
+        FeedItem b = new FeedItem().setTitle("Title").setGuid("guid").addTag("tag");
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, b.setTitle("Other"));
+    }
+}
@@ -0,0 +1,117 @@
+package com.pkmmte.pkrss;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class IntMapTest {
+
+    @Test
+    public void testPutGet() {
+        IntMap<String> map = new IntMap<>();
+        assertNull(map.put(1, "one"));
+        assertNull(map.put(-1, "minus one"));
+        assertEquals("one", map.put(1, "uno"));
+
+        assertEquals(2, map.size());
+        assertEquals("uno", map.get(1));
+        assertEquals("minus one", map.get(-1));
+        assertNull(map.get(2));
+        assertTrue(map.containsKey(-1));
+        assertFalse(map.containsKey(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullValue() {
+        new IntMap<String>().put(1, null);
+    }
+
+    @Test
+    public void testGrowth() {
+        IntMap<Integer> map = new IntMap<>(4);
+        for (int i = 0; i < 10000; i++)
+            map.put(i * 31, i);
+
+        assertEquals(10000, map.size());
+        for (int i = 0; i < 10000; i++)
+            assertEquals(Integer.valueOf(i), map.get(i * 31));
+        assertNull(map.get(1));
+
+        int[] keys = map.keys();
+        Arrays.sort(keys);
+        assertEquals(10000, keys.length);
+        for (int i = 0; i < keys.length; i++)
+            assertEquals(i * 31, keys[i]);
+    }
+
+    @Test
+    public void testRemove() {
+        IntMap<String> map = new IntMap<>();
+        map.put(1, "one");
+        map.put(2, "two");
+
+        assertEquals("one", map.remove(1));
+        assertNull(map.remove(1));
+        assertNull(map.remove(3));
+        assertEquals(1, map.size());
+        assertNull(map.get(1));
+        assertEquals("two", map.get(2));
+    }
+
+    @Test
+    public void testRemoveKeepsCollidingKeys() {
+        // Keys a multiple of the capacity apart are likely to share probe chains
+        IntMap<Integer> map = new IntMap<>();
+        for (int i = 0; i < 12; i++)
+            map.put(i << 16, i);
+
+        for (int i = 0; i < 12; i += 2)
+            assertEquals(Integer.valueOf(i), map.remove(i << 16));
+
+        assertEquals(6, map.size());
+        for (int i = 0; i < 12; i++)
+            assertEquals(i % 2 == 0 ? null : Integer.valueOf(i), map.get(i << 16));
+    }
+
+    @Test
+    public void testMatchesHashMap() {
+        Random random = new Random(42);
+        IntMap<Integer> map = new IntMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(2000) - 1000;
+            if (random.nextInt(3) == 0)
+                assertEquals(expected.remove(key), map.remove(key));
+            else
+                assertEquals(expected.put(key, i), map.put(key, i));
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (int key = -1000; key < 1000; key++)
+            assertEquals(expected.get(key), map.get(key));
+    }
+
+    @Test
+    public void testClear() {
+        IntMap<String> map = new IntMap<>();
+        for (int i = 0; i < 100; i++)
+            map.put(i, "value");
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertEquals(0, map.keys().length);
+        assertNull(map.get(5));
+
+        map.put(5, "again");
+        assertEquals("again", map.get(5));
+    }
+}
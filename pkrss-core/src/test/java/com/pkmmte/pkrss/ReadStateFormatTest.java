@@ -0,0 +1,129 @@
+package com.pkmmte.pkrss;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class ReadStateFormatTest {
+
+    @Test
+    public void testSnapshotRoundTrip() throws IOException {
+        int[] ids = {Integer.MIN_VALUE, -5, 0, 7, 123456789, Integer.MAX_VALUE};
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ReadStateFormat.writeSnapshot(new DataOutputStream(bytes), ids);
+        assertEquals(12 + ids.length * 4, bytes.size());
+
+        IntMap<Boolean> read = new IntMap<>();
+        ReadStateFormat.readSnapshot(input(bytes.toByteArray()), read);
+        assertArrayEquals(ids, sortedKeys(read));
+    }
+
+    @Test
+    public void testEmptySnapshot() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ReadStateFormat.writeSnapshot(new DataOutputStream(bytes), new int[0]);
+
+        IntMap<Boolean> read = new IntMap<>();
+        ReadStateFormat.readSnapshot(input(bytes.toByteArray()), read);
+        assertEquals(0, read.size());
+    }
+
+    @Test
+    public void testUnknownSnapshotFormat() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(ReadStateFormat.MAGIC);
+            out.writeInt(ReadStateFormat.VERSION + 1);
+            out.writeInt(0);
+        } catch (IOException e) {
+            fail();
+        }
+
+        try {
+            ReadStateFormat.readSnapshot(input(bytes.toByteArray()), new IntMap<Boolean>());
+            fail("Expected an IOException");
+        } catch (IOException expected) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testLogOnTopOfSnapshot() throws IOException {
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        ReadStateFormat.writeSnapshot(new DataOutputStream(snapshot), new int[] {1, 2, 3});
+
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(log);
+        ReadStateFormat.writeRecord(out, ReadStateFormat.OP_UNREAD, 2);
+        ReadStateFormat.writeRecord(out, ReadStateFormat.OP_READ, 4);
+        ReadStateFormat.writeRecord(out, ReadStateFormat.OP_READ, 1);
+        assertEquals(15, log.size());
+
+        IntMap<Boolean> read = new IntMap<>();
+        ReadStateFormat.readSnapshot(input(snapshot.toByteArray()), read);
+        assertEquals(3, ReadStateFormat.readLog(input(log.toByteArray()), read));
+        assertArrayEquals(new int[] {1, 3, 4}, sortedKeys(read));
+    }
+
+    @Test
+    public void testClearRecord() throws IOException {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(log);
+        ReadStateFormat.writeRecord(out, ReadStateFormat.OP_READ, 1);
+        ReadStateFormat.writeRecord(out, ReadStateFormat.OP_CLEAR, 0);
+        ReadStateFormat.writeRecord(out, ReadStateFormat.OP_READ, 2);
+
+        IntMap<Boolean> read = new IntMap<>();
+        read.put(9, Boolean.TRUE);
+        assertEquals(3, ReadStateFormat.readLog(input(log.toByteArray()), read));
+        assertArrayEquals(new int[] {2}, sortedKeys(read));
+    }
+
+    @Test
+    public void testTornRecordIgnored() throws IOException {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(log);
+        ReadStateFormat.writeRecord(out, ReadStateFormat.OP_READ, 1);
+        ReadStateFormat.writeRecord(out, ReadStateFormat.OP_READ, 2);
+
+        // Cut the last record short, as a crash halfway through an append would
+        byte[] torn = Arrays.copyOf(log.toByteArray(), log.size() - 2);
+        IntMap<Boolean> read = new IntMap<>();
+        assertEquals(1, ReadStateFormat.readLog(input(torn), read));
+        assertArrayEquals(new int[] {1}, sortedKeys(read));
+        assertNull(read.get(2));
+    }
+
+    @Test
+    public void testUnknownOpSkipped() throws IOException {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(log);
+        ReadStateFormat.writeRecord(out, (byte) 42, 1);
+        ReadStateFormat.writeRecord(out, ReadStateFormat.OP_READ, 2);
+
+        IntMap<Boolean> read = new IntMap<>();
+        assertEquals(2, ReadStateFormat.readLog(input(log.toByteArray()), read));
+        assertArrayEquals(new int[] {2}, sortedKeys(read));
+    }
+
+    private static DataInputStream input(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    private static int[] sortedKeys(IntMap<Boolean> map) {
+        int[] keys = map.keys();
+        Arrays.sort(keys);
+        return keys;
+    }
+}
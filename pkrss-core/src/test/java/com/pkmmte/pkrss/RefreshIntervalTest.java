@@ -0,0 +1,147 @@
+package com.pkmmte.pkrss;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RefreshIntervalTest {
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+    private static final long T0 = 1436125344000L;
+
+    private static RefreshInterval interval() {
+        return new RefreshInterval(MINUTE, DAY, 30 * MINUTE);
+    }
+
+    /**
+     * Feed with three articles ten minutes apart, once refreshed.
+     */
+    private static RefreshInterval learned() {
+        RefreshInterval interval = interval();
+        // Span of 20 minutes over 3 articles, aims for 5 minutes from 30
+        assertEquals(35 * MINUTE / 2, interval.refreshed(new int[] {1, 2, 3},
+                new long[] {T0, T0 + 10 * MINUTE, T0 + 20 * MINUTE}));
+        return interval;
+    }
+
+    @Test
+    public void testQuietFeedBacksOff() {
+        RefreshInterval interval = learned();
+        int[] ids = {1, 2, 3};
+        long[] dates = {T0, T0 + 10 * MINUTE, T0 + 20 * MINUTE};
+
+        assertEquals(1575000, interval.refreshed(ids, dates));
+        assertEquals(2362500, interval.refreshed(ids, dates));
+        assertEquals(2362500, interval.get());
+    }
+
+    @Test
+    public void testBusyFeedSpeedsUp() {
+        RefreshInterval interval = learned();
+
+        // One new article every 10 minutes, newer than any seen
+        long previous = interval.get();
+        for (int i = 4; i < 24; i++) {
+            long next = interval.refreshed(new int[] {i - 2, i - 1, i},
+                    new long[] {T0 + (i - 3) * 10 * MINUTE, T0 + (i - 2) * 10 * MINUTE, T0 + (i - 1) * 10 * MINUTE});
+            assertTrue(next < previous);
+            previous = next;
+        }
+
+        // Settles at half the publishing period
+        assertTrue(Math.abs(interval.get() - 5 * MINUTE) < 1000);
+    }
+
+    @Test
+    public void testPeriodEstimate() {
+        // With nothing known, the span of the returned articles
+        RefreshInterval interval = learned();
+
+        // Afterwards, the time since the newest article seen per new article
+        assertEquals((35 * MINUTE / 2 + 10 * MINUTE) / 2, interval.refreshed(new int[] {3, 4, 5},
+                new long[] {T0 + 20 * MINUTE, T0 + 30 * MINUTE, T0 + 60 * MINUTE}));
+    }
+
+    @Test
+    public void testFreshIds() {
+        // An unseen id counts as new even though it's older than any seen,
+        // but there's no telling how often, so just poll sooner
+        RefreshInterval interval = learned();
+        assertEquals(700000, interval.refreshed(new int[] {1, 2, 3, 9},
+                new long[] {T0, T0 + 10 * MINUTE, T0 + 20 * MINUTE, T0 + 5 * MINUTE}));
+
+        // A seen id updated with a newer date counts as new
+        interval = learned();
+        assertEquals((35 * MINUTE / 2 + 10 * MINUTE) / 2, interval.refreshed(new int[] {1, 2, 3},
+                new long[] {T0, T0 + 10 * MINUTE, T0 + 40 * MINUTE}));
+
+        // Only ids returned last time are remembered
+        interval = learned();
+        interval.refreshed(new int[] {3}, new long[] {T0 + 20 * MINUTE});
+        assertEquals(1575000, interval.get());
+        assertEquals(1050000, interval.refreshed(new int[] {1, 3}, new long[] {T0, T0 + 20 * MINUTE}));
+    }
+
+    @Test
+    public void testUndated() {
+        RefreshInterval interval = interval();
+        assertEquals(20 * MINUTE, interval.refreshed(new int[] {1, 2}, new long[] {0, 0}));
+        assertEquals(30 * MINUTE, interval.refreshed(new int[] {1, 2}, new long[] {0, 0}));
+    }
+
+    @Test
+    public void testNotModified() {
+        RefreshInterval interval = interval();
+        assertEquals(45 * MINUTE, interval.notModified());
+        assertEquals(45 * MINUTE, interval.get());
+
+        // Ids from before the 304 are still known
+        interval = learned();
+        interval.notModified();
+        assertEquals(2362500, interval.refreshed(new int[] {1, 2, 3},
+                new long[] {T0, T0 + 10 * MINUTE, T0 + 20 * MINUTE}));
+    }
+
+    @Test
+    public void testClamp() {
+        RefreshInterval interval = new RefreshInterval(10 * MINUTE, 60 * MINUTE, 30 * MINUTE);
+        assertEquals(45 * MINUTE, interval.notModified());
+        assertEquals(60 * MINUTE, interval.notModified());
+        assertEquals(60 * MINUTE, interval.notModified());
+
+        // Articles every minute don't go below the minimum
+        for (int i = 1; i < 10; i++)
+            interval.refreshed(new int[] {i}, new long[] {T0 + i * MINUTE});
+        assertEquals(10 * MINUTE, interval.get());
+    }
+
+    @Test
+    public void testFailuresKeepLearnedInterval() {
+        RefreshInterval interval = learned();
+        long learned = interval.get();
+
+        assertEquals(learned * 2, interval.failed());
+        assertEquals(learned * 4, interval.failed());
+        for (int i = 0; i < 10; i++)
+            interval.failed();
+        assertEquals(learned << RefreshInterval.MAX_BACKOFF_SHIFT, interval.failed());
+        assertEquals(learned, interval.get());
+
+        // Backoff starts over after a success
+        long next = interval.refreshed(new int[] {1, 2, 3},
+                new long[] {T0, T0 + 10 * MINUTE, T0 + 20 * MINUTE});
+        assertEquals(1575000, next);
+        assertEquals(next * 2, interval.failed());
+    }
+
+    @Test
+    public void testFailureBackoffCapped() {
+        RefreshInterval interval = new RefreshInterval(MINUTE, 60 * MINUTE, 30 * MINUTE);
+        assertEquals(60 * MINUTE, interval.failed());
+        assertEquals(60 * MINUTE, interval.failed());
+        assertEquals(30 * MINUTE, interval.get());
+    }
+}
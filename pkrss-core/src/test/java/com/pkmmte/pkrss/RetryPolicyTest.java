@@ -0,0 +1,57 @@
+package com.pkmmte.pkrss;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class RetryPolicyTest {
+
+    @Test
+    public void testDefaultBackoff() {
+        RetryPolicy policy = new RetryPolicy.Builder().build();
+        assertEquals(2, policy.maxRetries);
+        assertEquals(1000, policy.backoff(1));
+        assertEquals(2000, policy.backoff(2));
+        assertEquals(4000, policy.backoff(3));
+        assertEquals(16000, policy.backoff(5));
+        assertEquals(30000, policy.backoff(6));
+        assertEquals(30000, policy.backoff(100));
+    }
+
+    @Test
+    public void testCustomBackoff() {
+        RetryPolicy policy = new RetryPolicy.Builder()
+                .initialBackoff(100)
+                .multiplier(1.5)
+                .maxBackoff(300)
+                .build();
+        assertEquals(100, policy.backoff(1));
+        assertEquals(150, policy.backoff(2));
+        assertEquals(225, policy.backoff(3));
+        assertEquals(300, policy.backoff(4));
+
+        // Constant backoff
+        policy = new RetryPolicy.Builder().initialBackoff(500).multiplier(1).build();
+        assertEquals(500, policy.backoff(1));
+        assertEquals(500, policy.backoff(10));
+
+        // The cap wins over the initial backoff
+        policy = new RetryPolicy.Builder().initialBackoff(5000).maxBackoff(1000).build();
+        assertEquals(1000, policy.backoff(1));
+    }
+
+    @Test
+    public void testNone() {
+        assertEquals(0, RetryPolicy.NONE.maxRetries);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadMultiplier() {
+        new RetryPolicy.Builder().multiplier(0.5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeRetries() {
+        new RetryPolicy.Builder().maxRetries(-1);
+    }
+}
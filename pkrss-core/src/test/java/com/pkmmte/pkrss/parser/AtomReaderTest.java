@@ -0,0 +1,63 @@
+package com.pkmmte.pkrss.parser;
+
+import com.pkmmte.pkrss.FeedItem;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AtomReaderTest {
+    private static final String FEED = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<feed xmlns=\"http://www.w3.org/2005/Atom\">\n"
+            + "  <title>Feed</title>\n"
+            + "  <link href=\"http://example.com/\"/>\n"
+            + "  <entry>\n"
+            + "    <title>First</title>\n"
+            + "    <link rel=\"alternate\" href=\"http://example.com/first\"/>\n"
+            + "    <link rel=\"replies\" href=\"http://example.com/first/comments\"/>\n"
+            + "    <id>urn:uuid:1</id>\n"
+            + "    <published>2015-07-05T19:42:24.123+02:00</published>\n"
+            + "    <author>\n"
+            + "      <name>Author</name>\n"
+            + "    </author>\n"
+            + "    <category term=\"news\"/>\n"
+            + "    <summary type=\"html\">&lt;p&gt;Summary &lt;img src=\"http://example.com/s.png\"&gt;&lt;/p&gt;</summary>\n"
+            + "    <content type=\"html\">&lt;div&gt;Body&lt;/div&gt;</content>\n"
+            + "  </entry>\n"
+            + "  <entry>\n"
+            + "    <title>Second</title>\n"
+            + "    <link href=\"http://example.com/second\"/>\n"
+            + "    <id>urn:uuid:2</id>\n"
+            + "  </entry>\n"
+            + "</feed>";
+
+    @Test
+    public void testRead() {
+        List<FeedItem> items = new AtomReader().read(FEED);
+        assertEquals(2, items.size());
+
+        FeedItem first = items.get(0);
+        assertEquals("First", first.getTitle());
+        assertEquals("http://example.com/first", first.getSourceUrl());
+        assertEquals("http://example.com/first/comments", first.getComments());
+        assertEquals("urn:uuid:1", first.getGuid());
+        assertEquals(1436118144123L, first.getDate());
+        assertEquals("Author", first.getAuthor());
+        assertEquals(Arrays.asList("news"), first.getTags());
+        assertEquals("Summary", first.getDescription());
+        assertEquals("http://example.com/s.png", first.getImageUrl());
+        assertEquals("Body", first.getContent());
+        assertEquals(FeedReader.stableId("urn:uuid:1", null, null, 0), first.getId());
+    }
+
+    @Test
+    public void testLinkWithoutRelation() {
+        FeedItem second = new AtomReader().read(FEED).get(1);
+        assertEquals("http://example.com/second", second.getSourceUrl());
+        assertNull(second.getComments());
+        assertEquals(0, second.getDate());
+    }
+}
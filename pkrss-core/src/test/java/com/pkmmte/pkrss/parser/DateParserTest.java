@@ -0,0 +1,162 @@
+package com.pkmmte.pkrss.parser;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+
+public class DateParserTest {
+    private static final long MINUTE = 60 * 1000L;
+    private static final long HOUR = 60 * MINUTE;
+
+    // 2015-07-05 19:42:24 UTC
+    private static final long TIME = utc(2015, 7, 5, 19, 42, 24);
+
+    private static long utc(int year, int month, int day, int hour, int minute, int second) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"), Locale.US);
+        calendar.clear();
+        calendar.set(year, month - 1, day, hour, minute, second);
+        return calendar.getTimeInMillis();
+    }
+
+    @Test
+    public void testRfc822() {
+        assertEquals(TIME, DateParser.parse("Sun, 05 Jul 2015 19:42:24 GMT"));
+        assertEquals(TIME, DateParser.parse("Sun, 05 Jul 2015 19:42:24 +0000"));
+        assertEquals(TIME + 7 * HOUR, DateParser.parse("Sun, 05 Jul 2015 19:42:24 -0700"));
+        assertEquals(TIME - 2 * HOUR, DateParser.parse("Sun, 05 Jul 2015 19:42:24 +0200"));
+    }
+
+    @Test
+    public void testRfc822Variants() {
+        // No day name, full names, single digit day, no seconds, no time, no zone
+        assertEquals(TIME, DateParser.parse("05 Jul 2015 19:42:24 GMT"));
+        assertEquals(TIME, DateParser.parse("Sunday, 05 July 2015 19:42:24 GMT"));
+        assertEquals(TIME, DateParser.parse("Sun, 5 Jul 2015 19:42:24 GMT"));
+        assertEquals(TIME, DateParser.parse("sun, 05 JUL 2015 19:42:24 gmt"));
+        assertEquals(TIME, DateParser.parse("Sun, 05-Jul-2015 19:42:24 GMT"));
+        assertEquals(TIME, DateParser.parse("Sun, 05 Jul 2015 19:42:24"));
+        assertEquals(TIME, DateParser.parse("  Sun, 05 Jul 2015 19:42:24 GMT\n"));
+        assertEquals(TIME, DateParser.parse("Sun, 05 Jul 2015 19:42:24.123 GMT"));
+        assertEquals(TIME - 24 * 1000, DateParser.parse("Sun, 05 Jul 2015 19:42 GMT"));
+        assertEquals(utc(2015, 7, 5, 0, 0, 0), DateParser.parse("Sun, 05 Jul 2015"));
+    }
+
+    @Test
+    public void testTwoDigitYears() {
+        assertEquals(TIME, DateParser.parse("Sun, 05 Jul 15 19:42:24 GMT"));
+        assertEquals(utc(2049, 1, 1, 0, 0, 0), DateParser.parse("01 Jan 49 00:00:00 GMT"));
+        assertEquals(utc(1950, 1, 1, 0, 0, 0), DateParser.parse("01 Jan 50 00:00:00 GMT"));
+        assertEquals(utc(1999, 12, 31, 23, 59, 59), DateParser.parse("31 Dec 99 23:59:59 GMT"));
+
+        // Three digit years count from 1900
+        assertEquals(TIME, DateParser.parse("Sun, 05 Jul 115 19:42:24 GMT"));
+    }
+
+    @Test
+    public void testNamedZones() {
+        assertEquals(TIME, DateParser.parse("Sun, 05 Jul 2015 19:42:24 UT"));
+        assertEquals(TIME, DateParser.parse("Sun, 05 Jul 2015 19:42:24 UTC"));
+        assertEquals(TIME, DateParser.parse("Sun, 05 Jul 2015 19:42:24 Z"));
+        assertEquals(TIME + 5 * HOUR, DateParser.parse("Sun, 05 Jul 2015 19:42:24 EST"));
+        assertEquals(TIME + 4 * HOUR, DateParser.parse("Sun, 05 Jul 2015 19:42:24 EDT"));
+        assertEquals(TIME + 7 * HOUR, DateParser.parse("Sun, 05 Jul 2015 19:42:24 PDT"));
+        assertEquals(TIME - 2 * HOUR, DateParser.parse("Sun, 05 Jul 2015 19:42:24 CEST"));
+        assertEquals(TIME - 5 * HOUR - 30 * MINUTE, DateParser.parse("Sun, 05 Jul 2015 19:42:24 IST"));
+
+        // Unknown names are taken as UTC
+        assertEquals(TIME, DateParser.parse("Sun, 05 Jul 2015 19:42:24 XYZ"));
+    }
+
+    @Test
+    public void testNumericZones() {
+        assertEquals(TIME - 2 * HOUR, DateParser.parse("Sun, 05 Jul 2015 19:42:24 +02:00"));
+        assertEquals(TIME - 2 * HOUR, DateParser.parse("Sun, 05 Jul 2015 19:42:24 +02"));
+        assertEquals(TIME - 2 * HOUR, DateParser.parse("Sun, 05 Jul 2015 19:42:24 GMT+02:00"));
+        assertEquals(TIME + 3 * HOUR + 30 * MINUTE, DateParser.parse("Sun, 05 Jul 2015 19:42:24 -0330"));
+    }
+
+    @Test
+    public void testRfc3339() {
+        assertEquals(TIME, DateParser.parse("2015-07-05T19:42:24Z"));
+        assertEquals(TIME, DateParser.parse("2015-07-05t19:42:24z"));
+        assertEquals(TIME, DateParser.parse("2015-07-05 19:42:24Z"));
+        assertEquals(TIME, DateParser.parse("2015-07-05T19:42:24"));
+        assertEquals(TIME - 2 * HOUR, DateParser.parse("2015-07-05T19:42:24+02:00"));
+        assertEquals(TIME + 7 * HOUR, DateParser.parse("2015-07-05T19:42:24-07:00"));
+        assertEquals(TIME + 7 * HOUR, DateParser.parse("2015-07-05T19:42:24-0700"));
+        assertEquals(TIME - 24 * 1000, DateParser.parse("2015-07-05T19:42Z"));
+        assertEquals(utc(2015, 7, 5, 0, 0, 0), DateParser.parse("2015-07-05"));
+    }
+
+    @Test
+    public void testFractionalSeconds() {
+        assertEquals(TIME + 123, DateParser.parse("2015-07-05T19:42:24.123Z"));
+        assertEquals(TIME + 500, DateParser.parse("2015-07-05T19:42:24.5Z"));
+        assertEquals(TIME + 123, DateParser.parse("2015-07-05T19:42:24.123456789Z"));
+        assertEquals(TIME + 123, DateParser.parse("2015-07-05T19:42:24,123Z"));
+        assertEquals(TIME + 123 - 2 * HOUR, DateParser.parse("2015-07-05T19:42:24.123+02:00"));
+    }
+
+    @Test
+    public void testCalendar() {
+        assertEquals(0, DateParser.parse("1970-01-01T00:00:00Z"));
+        assertEquals(utc(2016, 2, 29, 12, 0, 0), DateParser.parse("2016-02-29T12:00:00Z"));
+        assertEquals(utc(2000, 2, 29, 12, 0, 0), DateParser.parse("Tue, 29 Feb 2000 12:00:00 GMT"));
+        assertEquals(-HOUR, DateParser.parse("1969-12-31T23:00:00Z"));
+
+        // Leap seconds are folded into the second before
+        assertEquals(utc(2016, 12, 31, 23, 59, 59), DateParser.parse("2016-12-31T23:59:60Z"));
+    }
+
+    @Test
+    public void testMatchesSimpleDateFormat() throws Exception {
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss Z", Locale.US);
+        String[] dates = {
+            "Mon, 01 Jan 2001 00:00:00 +0000",
+            "Fri, 13 Oct 2006 08:15:59 -0500",
+            "Thu, 31 Dec 2099 23:59:59 +1300",
+            "Wed, 04 Mar 1981 12:30:00 +0530"
+        };
+        for (String date : dates)
+            assertEquals(date, format.parse(date).getTime(), DateParser.parse(date));
+    }
+
+    @Test
+    public void testInvalid() {
+        String[] dates = {
+            null,
+            "",
+            "   ",
+            "yesterday",
+            "Sun, Jul 2015 19:42:24 GMT",
+            "Sun, 05 Foo 2015 19:42:24 GMT",
+            "Sun, 05 Jul 19:42:24 GMT",
+            "Sun, 05 Jul 2015 19-42-24 GMT",
+            "Sun, 05 Jul 2015 19:42:24 +",
+            "Sun, 32 Jul 2015 19:42:24 GMT",
+            "Sun, 29 Feb 2015 19:42:24 GMT",
+            "2015-13-05T19:42:24Z",
+            "2015-02-29T19:42:24Z",
+            "2015-07-05X19:42:24Z",
+            "2015-07-05T19Z",
+            "2015-07-05T19:61:24Z",
+            "2015-07-05T19:42:24 #",
+            "2015/07/05"
+        };
+        for (String date : dates)
+            assertEquals(String.valueOf(date), DateParser.INVALID, DateParser.parse(date));
+    }
+
+    @Test
+    public void testCached() {
+        // A second parse is served from the cache and must agree
+        String date = "Sun, 05 Jul 2015 19:42:24 -0700";
+        assertEquals(TIME + 7 * HOUR, DateParser.parse(date));
+        assertEquals(TIME + 7 * HOUR, DateParser.parse(new String(date)));
+    }
+}
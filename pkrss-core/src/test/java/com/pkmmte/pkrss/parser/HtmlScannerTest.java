@@ -0,0 +1,117 @@
+package com.pkmmte.pkrss.parser;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class HtmlScannerTest {
+
+    @Test
+    public void testPlainText() {
+        HtmlScanner scanner = new HtmlScanner();
+        assertEquals("", scanner.toText(null));
+        assertEquals("", scanner.toText(""));
+        assertEquals("Hello world", scanner.toText("Hello world"));
+        assertEquals("Hello world", scanner.toText("  Hello \n\t world  "));
+        assertEquals("Hello bold world", scanner.toText("Hello <b>bold</b> <a href=\"x\">world</a>"));
+        assertEquals("", scanner.image());
+    }
+
+    @Test
+    public void testLineBreaks() {
+        HtmlScanner scanner = new HtmlScanner();
+        assertEquals("one\ntwo", scanner.toText("one <br> two"));
+        assertEquals("one\ntwo", scanner.toText("one<br/>two"));
+        assertEquals("one\n\ntwo", scanner.toText("<p>one</p><p>two</p>"));
+        assertEquals("title\n\ntext", scanner.toText("<h2>title</h2>\n<div>text</div>\n"));
+        assertEquals("list\n\na\nb", scanner.toText("list<ul><li>a</li><li>b</li></ul>"));
+    }
+
+    @Test
+    public void testSkipped() {
+        HtmlScanner scanner = new HtmlScanner();
+        assertEquals("before after", scanner.toText("before <!-- <b>comment</b> --> after"));
+        assertEquals("before after", scanner.toText("before <script>if (a < b) x = '</p>';</script> after"));
+        assertEquals("before after", scanner.toText("before <STYLE>p { color: red; }</style> after"));
+        assertEquals("before", scanner.toText("before <script>never closed"));
+    }
+
+    @Test
+    public void testBrokenMarkup() {
+        HtmlScanner scanner = new HtmlScanner();
+        assertEquals("a < b", scanner.toText("a < b"));
+        assertEquals("1 <2", scanner.toText("1 <2"));
+        assertEquals("x<b", scanner.toText("x<b"));
+        assertEquals("quoted", scanner.toText("<a title=\"a > b\">quoted</a>"));
+    }
+
+    @Test
+    public void testEntities() {
+        HtmlScanner scanner = new HtmlScanner();
+        assertEquals("<a> & \"b\" 'c'", scanner.toText("&lt;a&gt; &amp; &quot;b&quot; &apos;c&apos;"));
+        assertEquals("a\u00A0b", scanner.toText("a&nbsp;b"));
+        assertEquals("wait\u2026 \u2014 \u00A9 \u20AC", scanner.toText("wait&hellip; &mdash; &copy; &euro;"));
+        assertEquals("AB\u00E9", scanner.toText("&#65;&#x42;&#XE9;"));
+        assertEquals("\uD83D\uDE00", scanner.toText("&#x1F600;"));
+        assertEquals("a b", scanner.toText("a&#10;&#32;b"));
+
+        // Unknown or malformed entities are left as they are
+        assertEquals("&foo; &#xZZ; & &;", scanner.toText("&foo; &#xZZ; & &;"));
+        assertEquals("&#x110000;", scanner.toText("&#x110000;"));
+        assertEquals("AT&T", scanner.toText("AT&T"));
+    }
+
+    @Test
+    public void testImage() {
+        HtmlScanner scanner = new HtmlScanner();
+        assertEquals("text", scanner.toText("<img src=\"http://a.com/1.png\"> text <img src=\"http://a.com/2.png\">"));
+        assertEquals("http://a.com/1.png", scanner.image());
+
+        // Attributes in any order and quoting, with entities decoded
+        scanner.toText("<IMG alt='x > y' class=thumb SRC=http://a.com/i.png?a=1&amp;b=2 />");
+        assertEquals("http://a.com/i.png?a=1&b=2", scanner.image());
+
+        // Closing tags and images without a source are skipped
+        scanner.toText("</img><img alt=\"none\"><img src='http://a.com/3.png'>");
+        assertEquals("http://a.com/3.png", scanner.image());
+
+        // Reset between calls
+        scanner.toText("no image");
+        assertEquals("", scanner.image());
+    }
+
+    @Test
+    public void testImageSize() {
+        HtmlScanner scanner = new HtmlScanner();
+        scanner.toText("<img src=\"http://a.com/photo-150x150.jpg\">");
+        assertEquals("http://a.com/photo.jpg", scanner.image());
+
+        scanner.toText("<img src=\"http://a.com/2015-07/my-photo-1024x768.jpg\">");
+        assertEquals("http://a.com/2015-07/my-photo.jpg", scanner.image());
+
+        scanner.toText("<img src=\"http://a.com/photo-150x.jpg\">");
+        assertEquals("http://a.com/photo-150x.jpg", scanner.image());
+    }
+
+    @Test
+    public void testStripTags() {
+        HtmlScanner scanner = new HtmlScanner();
+        assertEquals(null, scanner.stripTags(null, true));
+        assertEquals("<p>a</p>b", scanner.stripTags("<div class=\"x\"><p>a</p></div>b", false));
+        assertEquals("<p>a</p><img src=\"2.png\">",
+            scanner.stripTags("<img src=\"1.png\"><p>a</p><img src=\"2.png\">", true));
+        assertEquals("<img src=\"1.png\">", scanner.stripTags("<div><img src=\"1.png\"></div>", false));
+        assertEquals("a < b", scanner.stripTags("a < <div>b", true));
+    }
+
+    @Test
+    public void testStripTagsUnchanged() {
+        HtmlScanner scanner = new HtmlScanner();
+        String html = "<p>Nothing <b>to</b> strip</p>";
+        assertSame(html, scanner.stripTags(html, true));
+
+        String image = "<img src=\"1.png\">";
+        assertSame(image, scanner.stripTags(image, false));
+    }
+}
@@ -0,0 +1,157 @@
+package com.pkmmte.pkrss.parser;
+
+import com.pkmmte.pkrss.FeedItem;
+import com.pkmmte.pkrss.Logger;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class Rss2ReaderTest {
+    private static final String FEED = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<rss version=\"2.0\" xmlns:content=\"http://purl.org/rss/1.0/modules/content/\""
+            + " xmlns:media=\"http://search.yahoo.com/mrss/\">\n"
+            + "<channel>\n"
+            + "  <title>Channel</title>\n"
+            + "  <link>http://example.com/</link>\n"
+            + "  <item>\n"
+            + "    <title>First</title>\n"
+            + "    <link>http://example.com/first</link>\n"
+            + "    <guid>first-guid</guid>\n"
+            + "    <pubDate>Sun, 05 Jul 2015 19:42:24 GMT</pubDate>\n"
+            + "    <dc:creator>Author</dc:creator>\n"
+            + "    <category>news</category>\n"
+            + "    <category>tech</category>\n"
+            + "    <wfw:commentRss>http://example.com/first/comments</wfw:commentRss>\n"
+            + "    <description><![CDATA[<p>Hello <img src=\"http://example.com/a-150x150.jpg\"> world &amp; all</p>]]></description>\n"
+            + "    <content:encoded><![CDATA[<div><img src=\"http://example.com/a.jpg\"><p>Body</p></div>]]></content:encoded>\n"
+            + "    <enclosure url=\"http://example.com/a.mp3\" length=\"1234\" type=\"audio/mpeg\"/>\n"
+            + "    <media:content url=\"http://example.com/a.mp4\" type=\"video/mp4\" fileSize=\"42\" isDefault=\"true\""
+            + " width=\"1280\" height=\"720\" duration=\"60\" lang=\"en\"/>\n"
+            + "  </item>\n"
+            + "  <item>\n"
+            + "    <title>Second</title>\n"
+            + "    <pubDate>not a date</pubDate>\n"
+            + "  </item>\n"
+            + "</channel>\n"
+            + "</rss>";
+
+    @Test
+    public void testRead() {
+        List<FeedItem> items = new Rss2Reader().read(FEED);
+        assertEquals(2, items.size());
+
+        FeedItem first = items.get(0);
+        assertEquals("First", first.getTitle());
+        assertEquals("http://example.com/first", first.getSourceUrl());
+        assertEquals("first-guid", first.getGuid());
+        assertEquals(1436125344000L, first.getDate());
+        assertEquals("Author", first.getAuthor());
+        assertEquals(Arrays.asList("news", "tech"), first.getTags());
+        assertEquals("http://example.com/first/comments", first.getComments());
+
+        // HTML is converted on first access
+        assertEquals("Hello world & all", first.getDescription());
+        assertEquals("http://example.com/a.jpg", first.getImageUrl());
+        assertEquals("<p>Body</p>", first.getContent());
+
+        FeedItem second = items.get(1);
+        assertEquals("Second", second.getTitle());
+        assertEquals(0, second.getDate());
+        assertNull(second.getSourceUrl());
+        assertNull(second.getDescription());
+        assertNull(second.getEnclosure());
+        assertNull(second.getMediaContent());
+    }
+
+    @Test
+    public void testEnclosureAndMedia() {
+        FeedItem item = new Rss2Reader().read(FEED).get(0);
+
+        FeedItem.Enclosure enclosure = item.getEnclosure();
+        assertNotNull(enclosure);
+        assertEquals("http://example.com/a.mp3", enclosure.getUrl());
+        assertEquals("1234", enclosure.getLength());
+        assertEquals("audio/mpeg", enclosure.getMimeType());
+
+        assertEquals(1, item.getMediaContent().size());
+        FeedItem.MediaContent media = item.getMediaContent().get(0);
+        assertEquals("http://example.com/a.mp4", media.getUrl());
+        assertEquals("video/mp4", media.getType());
+        assertEquals(42, media.getFileSize());
+        assertTrue(media.isDefault());
+        assertEquals(1280, media.getWidth());
+        assertEquals(720, media.getHeight());
+        assertEquals(60, media.getDuration());
+        assertEquals("en", media.getLang());
+        assertNull(media.getMedium());
+    }
+
+    @Test
+    public void testStableIds() {
+        List<FeedItem> items = new Rss2Reader().read(FEED);
+        List<FeedItem> again = new Rss2Reader().read(FEED.replace("Hello", "Goodbye"));
+
+        // Same guid, same id even though the description changed
+        assertTrue(items.get(0).getId() >= 0);
+        assertEquals(items.get(0).getId(), again.get(0).getId());
+        assertEquals(FeedReader.stableId("first-guid", null, null, 0), items.get(0).getId());
+
+        // No guid nor link, falls back to the title and date
+        assertEquals(FeedReader.stableId(null, null, "Second", 0), items.get(1).getId());
+        assertEquals(-1, FeedReader.stableId(null, null, null, 0));
+    }
+
+    @Test
+    public void testStream() {
+        final List<FeedItem> streamed = new ArrayList<>();
+        new Rss2Reader().read(new ByteArrayInputStream(FEED.getBytes()), "UTF-8", new FeedReader.Listener() {
+            @Override
+            public void onItemParsed(FeedItem item) {
+                streamed.add(item);
+            }
+        });
+
+        assertEquals(2, streamed.size());
+        assertEquals("First", streamed.get(0).getTitle());
+        assertEquals(2, new Rss2Reader().read(new ByteArrayInputStream(FEED.getBytes()), null).size());
+    }
+
+    @Test
+    public void testMalformed() {
+        // Items read before the error are kept
+        String truncated = FEED.substring(0, FEED.indexOf("<title>Second"));
+        assertEquals(1, new Rss2Reader().read(truncated).size());
+
+        assertEquals(0, new Rss2Reader().read("not xml at all").size());
+        assertEquals(0, new Rss2Reader().read("").size());
+    }
+
+    @Test
+    public void testLogger() {
+        final List<String> messages = new ArrayList<>();
+        Logger logger = new Logger() {
+            @Override
+            public boolean isEnabled() {
+                return true;
+            }
+
+            @Override
+            public void log(String tag, String message, int level) {
+                messages.add(level + " " + message);
+            }
+        };
+        new Rss2Reader(logger).read(FEED);
+
+        assertTrue(messages.contains(Logger.WARN + " Error parsing date not a date"));
+        assertTrue(messages.get(0).startsWith(Logger.INFO + " FeedItem{"));
+        assertTrue(messages.get(messages.size() - 1).startsWith(Logger.DEBUG + " Parsing took "));
+    }
+}
@@ -7,6 +7,8 @@ import android.os.Parcelable;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectInputStream;
@@ -18,53 +20,59 @@ import java.util.Vector;
 
 /**
  * Main Article class for storing all parsed/downloaded data.
+ * <p>
+ * An Article wraps the Android-free {@link FeedItem} read by the core readers, adding Uris,
+ * extras and Parcelable support. Parsing links into Uris, converting the description into plain
+ * text, pulling the image out of it and cleaning up the content are put off until each is first
+ * asked for, as most articles are never opened.
  */
 public class Article implements Parcelable {
+	private final FeedItem item;
 	private Bundle extras;
-	private List<String> tags;
 	private Vector<MediaContent> mediaContentVec;
+	private Enclosure enclosure;
+
+	// Whether the item's media content and enclosure still have to be converted, guarded by this
+	private boolean mediaContentPending;
+	private boolean enclosurePending;
+
+	// Uris parsed from the item's links on first access, along with the link each was parsed from
 	private Uri source;
+	private String sourceFrom;
 	private Uri image;
-	private String title;
-	private String description;
-	private String content;
-	private String comments;
-	private String author;
-	private long date;
-	private int id;
-    private Enclosure enclosure;
+	private String imageFrom;
 
 	public Article() {
+		this(new FeedItem());
+	}
+
+	/**
+	 * Wraps an item read by the core readers. The item must not be used on its own afterwards.
+	 * @param item Item to wrap.
+	 */
+	public Article(FeedItem item) {
+		this.item = item;
 		this.extras = new Bundle();
-		this.tags = new ArrayList<String>();
-		this.mediaContentVec = null;
-		this.source = null;
-		this.image = null;
-		this.title = null;
-		this.description = null;
-		this.content = null;
-		this.comments = null;
-		this.author = null;
-		this.date = 0;
-		this.id = -1;
-        this.enclosure = null;
+		this.mediaContentPending = item.getMediaContent() != null;
+		this.enclosurePending = item.getEnclosure() != null;
 	}
 
 	public Article(Bundle extras, List<String> tags, Vector<MediaContent> mediaContent, Uri source,
 				   Uri image, String title, String description, String content, String comments,
 				   String author, long date, int id) {
+		this.item = new FeedItem();
 		this.extras = extras == null ? new Bundle() : extras;
-		this.tags = tags == null ? new ArrayList<String>() : tags;
 		this.mediaContentVec = mediaContent == null ? new Vector<MediaContent>() : mediaContent;
-		this.source = source;
-		this.image = image;
-		this.title = title;
-		this.description = description;
-		this.content = content;
-		this.comments = comments;
-		this.author = author;
-		this.date = date;
-		this.id = id;
+		item.setTags(tags == null ? new ArrayList<String>() : tags);
+		setSource(source);
+		setImage(image);
+		item.setTitle(title);
+		item.setDescription(description);
+		item.setContent(content);
+		item.setComments(comments);
+		item.setAuthor(author);
+		item.setDate(date);
+		item.setId(id);
 	}
 
 	/**
@@ -153,7 +161,7 @@ public class Article implements Parcelable {
 	 * @return A String List containing this article's tags.
 	 */
 	public List<String> getTags() {
-		return tags;
+		return item.getTags();
 	}
 
 	/**
@@ -161,14 +169,16 @@ public class Article implements Parcelable {
 	 * @param tags Tag List to override the current one with.
 	 */
 	public Article setTags(List<String> tags) {
-		this.tags = tags;
+		item.setTags(tags);
 		return this;
 	}
 
 	/**
 	 * @return A list with media content pairs
 	 */
-	public Vector<MediaContent> getMediaContent() {
+	public synchronized Vector<MediaContent> getMediaContent() {
+		if (mediaContentPending)
+			convertMediaContent();
 		return mediaContentVec;
 	}
 
@@ -176,8 +186,9 @@ public class Article implements Parcelable {
 	 * Overrides the current list of media content with a new one.
 	 * @param mediaContentVec Media content list to override the current one
 	 */
-	public Article setMediaContent(Vector<MediaContent> mediaContentVec) {
+	public synchronized Article setMediaContent(Vector<MediaContent> mediaContentVec) {
 		this.mediaContentVec = mediaContentVec;
+		this.mediaContentPending = false;
 		return this;
 	}
 
@@ -185,10 +196,12 @@ public class Article implements Parcelable {
 	 * Adds a single media content item to the list
 	 * @param mediaContent The media content object to add
 	 */
-	public Article addMediaContent(MediaContent mediaContent) {
+	public synchronized Article addMediaContent(MediaContent mediaContent) {
 		if(mediaContent == null)
 			return this;
 
+		if (mediaContentPending)
+			convertMediaContent();
 		if(this.mediaContentVec == null)
 			this.mediaContentVec = new Vector<>();
 
@@ -201,7 +214,9 @@ public class Article implements Parcelable {
 	 * Removes a single media content item from the list
 	 * @param mediaContent The media content object to remove
 	 */
-	public Article removeMediaContent(MediaContent mediaContent) {
+	public synchronized Article removeMediaContent(MediaContent mediaContent) {
+		if (mediaContentPending)
+			convertMediaContent();
 		if(mediaContent == null || this.mediaContentVec == null)
 			return this;
 
@@ -215,7 +230,7 @@ public class Article implements Parcelable {
 	 * @param tag String value to add as a tag.
 	 */
 	public Article setNewTag(String tag) {
-		this.tags.add(tag);
+		item.addTag(tag);
 		return this;
 	}
 
@@ -223,7 +238,12 @@ public class Article implements Parcelable {
 	 * @return A Uri containing the source address of this article.
 	 * (In other words, a link to this article)
 	 */
-	public Uri getSource() {
+	public synchronized Uri getSource() {
+		String url = item.getSourceUrl();
+		if (url != sourceFrom) {
+			source = url == null ? null : Uri.parse(url);
+			sourceFrom = url;
+		}
 		return source;
 	}
 
@@ -231,15 +251,39 @@ public class Article implements Parcelable {
 	 * Sets the source of the article.
 	 * @param source Simple Uri object referencing the source. It may be a URL or null.
 	 */
-	public Article setSource(Uri source) {
+	public synchronized Article setSource(Uri source) {
+		String url = source == null ? null : source.toString();
+		item.setSourceUrl(url);
 		this.source = source;
+		this.sourceFrom = url;
 		return this;
 	}
 
+	/**
+	 * Sets the source of the article, only parsed into a Uri once {@link #getSource()} is called.
+	 * @param url Link to this article. May be null.
+	 */
+	public Article setSourceUrl(String url) {
+		item.setSourceUrl(url);
+		return this;
+	}
+
+	/**
+	 * @return The source address of this article as a String, without parsing it into a Uri. May be null.
+	 */
+	public String getSourceUrl() {
+		return item.getSourceUrl();
+	}
+
 	/**
 	 * @return A Uri containing the main image source. It may be a URL, resource, asset, or null.
 	 */
-	public Uri getImage() {
+	public synchronized Uri getImage() {
+		String url = item.getImageUrl();
+		if (url != imageFrom) {
+			image = url == null ? null : Uri.parse(url);
+			imageFrom = url;
+		}
 		return image;
 	}
 
@@ -247,8 +291,11 @@ public class Article implements Parcelable {
 	 * Sets the main article image.
 	 * @param image Simple Uri object referencing the image source. It may be a URL, resource, asset, or null.
 	 */
-	public Article setImage(Uri image) {
+	public synchronized Article setImage(Uri image) {
+		String url = image == null ? null : image.toString();
+		item.setImageUrl(url);
 		this.image = image;
+		this.imageFrom = url;
 		return this;
 	}
 
@@ -256,7 +303,7 @@ public class Article implements Parcelable {
 	 * @return String containing the article's title. May be null.
 	 */
 	public String getTitle() {
-		return title;
+		return item.getTitle();
 	}
 
 	/**
@@ -264,7 +311,7 @@ public class Article implements Parcelable {
 	 * @param title String containing this article's title.
 	 */
 	public Article setTitle(String title) {
-		this.title = title;
+		item.setTitle(title);
 		return this;
 	}
 
@@ -272,7 +319,7 @@ public class Article implements Parcelable {
 	 * @return String containing the article's description. May be null.
 	 */
 	public String getDescription() {
-		return description;
+		return item.getDescription();
 	}
 
 	/**
@@ -280,7 +327,17 @@ public class Article implements Parcelable {
 	 * @param description String containing this article's description.
 	 */
 	public Article setDescription(String description) {
-		this.description = description;
+		item.setDescription(description);
+		return this;
+	}
+
+	/**
+	 * Sets the article's description from HTML. The plain text description and the main image,
+	 * the first one found in it, are only pulled out once either is asked for.
+	 * @param html String containing this article's description as HTML.
+	 */
+	public Article setDescriptionHtml(String html) {
+		item.setDescriptionHtml(html);
 		return this;
 	}
 
@@ -288,7 +345,7 @@ public class Article implements Parcelable {
 	 * @return String containing the article's content. May be null.
 	 */
 	public String getContent() {
-		return content;
+		return item.getContent();
 	}
 
 	/**
@@ -296,7 +353,17 @@ public class Article implements Parcelable {
 	 * @param content String containing this article's content.
 	 */
 	public Article setContent(String content) {
-		this.content = content;
+		item.setContent(content);
+		return this;
+	}
+
+	/**
+	 * Sets the article's content from HTML. Div tags, and the first image if the article
+	 * has a main image, are only stripped once {@link #getContent()} is called.
+	 * @param html String containing this article's content as HTML.
+	 */
+	public Article setContentHtml(String html) {
+		item.setContentHtml(html);
 		return this;
 	}
 
@@ -304,7 +371,7 @@ public class Article implements Parcelable {
 	 * @return String containing the source to this article's comments. May be null.
 	 */
 	public String getComments() {
-		return comments;
+		return item.getComments();
 	}
 
 	/**
@@ -312,14 +379,19 @@ public class Article implements Parcelable {
 	 * @param comments String containing the source to this article's comments.
 	 */
 	public Article setComments(String comments) {
-		this.comments = comments;
+		item.setComments(comments);
 		return this;
 	}
 
     /**
      * @return Enclosure which contains the URL, length, and mime type of the article's enclosure
      */
-    public Enclosure getEnclosure() {
+    public synchronized Enclosure getEnclosure() {
+        if (enclosurePending) {
+            FeedItem.Enclosure e = item.getEnclosure();
+            enclosure = new Enclosure(e.getUrl(), e.getLength(), e.getMimeType());
+            enclosurePending = false;
+        }
         return this.enclosure;
     }
 
@@ -327,8 +399,9 @@ public class Article implements Parcelable {
      * Sets the article's enclosure.
      * @param enclosure Enclosure which contains the URL, length, and mime type
      */
-    public Article setEnclosure(Enclosure enclosure) {
+    public synchronized Article setEnclosure(Enclosure enclosure) {
         this.enclosure = enclosure;
+        this.enclosurePending = false;
         return this;
     }
 
@@ -336,7 +409,7 @@ public class Article implements Parcelable {
 	 * @return String containing the article's author. May be null.
 	 */
 	public String getAuthor() {
-		return author;
+		return item.getAuthor();
 	}
 
 	/**
@@ -344,7 +417,24 @@ public class Article implements Parcelable {
 	 * @param author String containing this article's author.
 	 */
 	public Article setAuthor(String author) {
-		this.author = author;
+		item.setAuthor(author);
+		return this;
+	}
+
+	/**
+	 * @return String uniquely identifying this article within its feed, such as an RSS guid
+	 * or Atom id. May be null.
+	 */
+	public String getGuid() {
+		return item.getGuid();
+	}
+
+	/**
+	 * Sets the article's globally unique identifier.
+	 * @param guid String uniquely identifying this article, such as an RSS guid or Atom id.
+	 */
+	public Article setGuid(String guid) {
+		item.setGuid(guid);
 		return this;
 	}
 
@@ -352,7 +442,7 @@ public class Article implements Parcelable {
 	 * @return long containing the article's raw date.
 	 */
 	public long getDate() {
-		return date;
+		return item.getDate();
 	}
 
 	/**
@@ -360,15 +450,15 @@ public class Article implements Parcelable {
 	 * @param date String containing this article's raw date. Usually expressed in milliseconds.
 	 */
 	public Article setDate(long date) {
-		this.date = date;
+		item.setDate(date);
 		return this;
 	}
 
 	/**
-	 * @return long containing the article's id. IDs are normally generated based on the properties' hashcodes combined.
+	 * @return long containing the article's id. IDs are normally generated from the article's guid or, if missing, its source.
 	 */
 	public int getId() {
-		return id;
+		return item.getId();
 	}
 
 	/**
@@ -376,17 +466,65 @@ public class Article implements Parcelable {
 	 * @param id Long containing this article's id. Be sure to provide a unique id as it will be used for indexing.
 	 */
 	public Article setId(int id) {
-		this.id = id;
+		item.setId(id);
 		return this;
 	}
 
+	/**
+	 * Converts the media content read along with the item.
+	 */
+	private void convertMediaContent() {
+		List<FeedItem.MediaContent> list = item.getMediaContent();
+		mediaContentVec = new Vector<MediaContent>(list.size());
+		for (FeedItem.MediaContent source : list) {
+			MediaContent mc = new MediaContent();
+			mc.setUrl(source.getUrl());
+			mc.setFileSize(source.getFileSize());
+			mc.setType(source.getType());
+			mc.setMedium(source.getMedium());
+			mc.setIsDefault(source.isDefault());
+			mc.setExpression(source.getExpression());
+			mc.setBitrate(source.getBitrate());
+			mc.setFramerate(source.getFramerate());
+			mc.setSamplingrate(source.getSamplingrate());
+			mc.setChannels(source.getChannels());
+			mc.setDuration(source.getDuration());
+			mc.setHeight(source.getHeight());
+			mc.setWidth(source.getWidth());
+			mc.setLang(source.getLang());
+			mediaContentVec.add(mc);
+		}
+		mediaContentPending = false;
+	}
+
+	/**
+	 * @see FeedItem#peekTextLength()
+	 */
+	int peekTextLength() {
+		return item.peekTextLength();
+	}
+
+	/**
+	 * @see FeedItem#peekRaw(String[])
+	 */
+	int peekRaw(String[] values) {
+		return item.peekRaw(values);
+	}
+
+	/**
+	 * @see FeedItem#restoreRaw(String[], int)
+	 */
+	void restoreRaw(String[] values, int raw) {
+		item.restoreRaw(values, raw);
+	}
+
 	/**
 	 * Looks up the read index for this article's id.
 	 * @return {@code true} if this article's id has been marked as read,
 	 * {@code false} if otherwise or instance has not yet been created.
 	 */
 	public boolean isRead() {
-		return PkRSS.getInstance() == null ? false : PkRSS.getInstance().isRead(id);
+		return PkRSS.getInstance() == null ? false : PkRSS.getInstance().isRead(getId());
 	}
 
 	/**
@@ -405,7 +543,7 @@ public class Article implements Parcelable {
 	public boolean markRead(boolean read) {
 		if (PkRSS.getInstance() == null) return false;
 
-		PkRSS.getInstance().markRead(id, read);
+		PkRSS.getInstance().markRead(getId(), read);
 		return true;
 	}
 
@@ -415,7 +553,7 @@ public class Article implements Parcelable {
 	 * {@code false} if otherwise, instance has not yet been created, or an error occurred.
 	 */
 	public boolean isFavorite() {
-		return PkRSS.getInstance() == null ? false : PkRSS.getInstance().containsFavorite(id);
+		return PkRSS.getInstance() == null ? false : PkRSS.getInstance().containsFavorite(getId());
 	}
 
 	/**
@@ -444,14 +582,15 @@ public class Article implements Parcelable {
 	public String toShortString() {
 		return "Article{" +
 			"extras=" + extras +
-			", tags=" + tags +
-			", source=" + source +
-			", image=" + image +
-			", title='" + title + '\'' +
-			", comments='" + comments + '\'' +
-			", author='" + author + '\'' +
-			", date=" + date +
-			", id=" + id +
+			", tags=" + getTags() +
+			", source=" + getSource() +
+			", image=" + getImage() +
+			", title='" + getTitle() + '\'' +
+			", comments='" + getComments() + '\'' +
+			", author='" + getAuthor() + '\'' +
+			", guid='" + getGuid() + '\'' +
+			", date=" + getDate() +
+			", id=" + getId() +
 			'}';
 	}
 
@@ -459,16 +598,17 @@ public class Article implements Parcelable {
 	public String toString() {
 		return "Article{" +
 			"extras=" + extras +
-			", tags=" + tags +
-			", source=" + source +
-			", image=" + image +
-			", title='" + title + '\'' +
-			", description='" + description + '\'' +
-			", content='" + content + '\'' +
-			", comments='" + comments + '\'' +
-			", author='" + author + '\'' +
-			", date=" + date +
-			", id=" + id +
+			", tags=" + getTags() +
+			", source=" + getSource() +
+			", image=" + getImage() +
+			", title='" + getTitle() + '\'' +
+			", description='" + getDescription() + '\'' +
+			", content='" + getContent() + '\'' +
+			", comments='" + getComments() + '\'' +
+			", author='" + getAuthor() + '\'' +
+			", guid='" + getGuid() + '\'' +
+			", date=" + getDate() +
+			", id=" + getId() +
 			'}';
 	}
 
@@ -479,54 +619,34 @@ public class Article implements Parcelable {
 
 		Article article = (Article) o;
 
-		if (date != article.date) return false;
-		if (id != article.id) return false;
-		if (author != null ? !author.equals(article.author) : article.author != null) return false;
-		if (comments != null ? !comments.equals(article.comments) : article.comments != null) return false;
-		if (content != null ? !content.equals(article.content) : article.content != null) return false;
-		if (description != null ? !description.equals(article.description) : article.description != null) return false;
-		if (!extras.equals(article.extras)) return false;
-		if (image != null ? !image.equals(article.image) : article.image != null) return false;
-		if (source != null ? !source.equals(article.source) : article.source != null) return false;
-		if (!tags.equals(article.tags)) return false;
-		if (title != null ? !title.equals(article.title) : article.title != null) return false;
-
-		return true;
+		return extras.equals(article.extras) && item.equals(article.item);
 	}
 
 	@Override
 	public int hashCode() {
-		int result = extras.hashCode();
-		result = 31 * result + tags.hashCode();
-		result = 31 * result + (source != null ? source.hashCode() : 0);
-		result = 31 * result + (image != null ? image.hashCode() : 0);
-		result = 31 * result + (title != null ? title.hashCode() : 0);
-		result = 31 * result + (description != null ? description.hashCode() : 0);
-		result = 31 * result + (content != null ? content.hashCode() : 0);
-		result = 31 * result + (comments != null ? comments.hashCode() : 0);
-		result = 31 * result + (author != null ? author.hashCode() : 0);
-		result = 31 * result + (int) (date ^ (date >>> 32));
-		result = 31 * result + id;
-		return result;
+		return 31 * extras.hashCode() + item.hashCode();
 	}
 
 	protected Article(Parcel in) {
+		this(new FeedItem());
 		extras = in.readBundle();
 		if (in.readByte() == 0x01) {
-			tags = new ArrayList<String>();
+			List<String> tags = new ArrayList<String>();
 			in.readList(tags, String.class.getClassLoader());
+			item.setTags(tags);
 		}
 		else {
-			tags = null;
+			item.setTags(null);
 		}
-		source = (Uri) in.readValue(Uri.class.getClassLoader());
-		image = (Uri) in.readValue(Uri.class.getClassLoader());
-		title = in.readString();
-		description = in.readString();
-		content = in.readString();
-		author = in.readString();
-		date = in.readLong();
-		id = in.readInt();
+		setSource((Uri) in.readValue(Uri.class.getClassLoader()));
+		setImage((Uri) in.readValue(Uri.class.getClassLoader()));
+		item.setTitle(in.readString());
+		item.setDescription(in.readString());
+		item.setContent(in.readString());
+		item.setAuthor(in.readString());
+		item.setDate(in.readLong());
+		item.setId(in.readInt());
+		item.setGuid(in.readString());
 	}
 
 	@Override
@@ -536,6 +656,7 @@ public class Article implements Parcelable {
 
 	@Override
 	public void writeToParcel(Parcel dest, int flags) {
+		List<String> tags = getTags();
 		dest.writeBundle(extras);
 		if (tags == null) {
 			dest.writeByte((byte) (0x00));
@@ -544,14 +665,15 @@ public class Article implements Parcelable {
 			dest.writeByte((byte) (0x01));
 			dest.writeList(tags);
 		}
-		dest.writeValue(source);
-		dest.writeValue(image);
-		dest.writeString(title);
-		dest.writeString(description);
-		dest.writeString(content);
-		dest.writeString(author);
-		dest.writeLong(date);
-		dest.writeInt(id);
+		dest.writeValue(getSource());
+		dest.writeValue(getImage());
+		dest.writeString(getTitle());
+		dest.writeString(getDescription());
+		dest.writeString(getContent());
+		dest.writeString(getAuthor());
+		dest.writeLong(getDate());
+		dest.writeInt(getId());
+		dest.writeString(getGuid());
 	}
 
 	public static final Creator<Article> CREATOR = new Creator<Article>() {
@@ -567,6 +689,10 @@ public class Article implements Parcelable {
 	};
 
 	public static class MediaContent implements Parcelable, Serializable {
+		// Header of the binary format written by toByteArray
+		private static final short CODEC_MAGIC = 0x504D;
+		private static final byte CODEC_VERSION = 1;
+
 		private String url;
 		private int fileSize;
 		private String type;
@@ -878,36 +1004,116 @@ public class Article implements Parcelable {
 			}
 		};
 
+		/**
+		 * Decodes media content encoded by {@link #toByteArray(Vector)}. Also reads the Java
+		 * serialization format used by older versions.
+		 * @param byteArray Encoded media content. May be null.
+		 * @return The decoded media content or null if it couldn't be decoded.
+		 */
 		public static Vector<MediaContent> fromByteArray(byte[] byteArray) {
-			try {
-				ByteArrayInputStream bais = new ByteArrayInputStream (byteArray);
-				ObjectInput in = new ObjectInputStream(bais);
+			if (byteArray == null)
+				return null;
 
-				@SuppressWarnings("unchecked")
-				Vector<MediaContent> vec = (Vector < MediaContent >)in.readObject();
+			if (BlobFormat.isSerialized(byteArray))
+				return fromSerializedArray(byteArray);
+
+			try {
+				DataInputStream in = new DataInputStream(new ByteArrayInputStream(byteArray));
+				BlobFormat.readHeader(in, CODEC_MAGIC, CODEC_VERSION, "media content");
+
+				int count = BlobFormat.readCount(in);
+				Vector<MediaContent> vec = new Vector<MediaContent>(count);
+				for (int i = 0; i < count; i++) {
+					MediaContent mc = new MediaContent();
+					mc.url = BlobFormat.readString(in);
+					mc.fileSize = in.readInt();
+					mc.type = BlobFormat.readString(in);
+					mc.medium = BlobFormat.readString(in);
+					mc.isDefault = in.readBoolean();
+					mc.expression = BlobFormat.readString(in);
+					mc.bitrate = in.readInt();
+					mc.framerate = in.readFloat();
+					mc.samplingrate = in.readFloat();
+					mc.channels = in.readInt();
+					mc.duration = in.readLong();
+					mc.height = in.readInt();
+					mc.width = in.readInt();
+					mc.lang = BlobFormat.readString(in);
+					vec.add(mc);
+				}
 
 				return vec;
 			} catch (IOException e) {
 				e.printStackTrace();
 				return null;
-			} catch (ClassNotFoundException e) {
+			} catch (RuntimeException e) {
+				// Corrupt data the checks above didn't catch, still not worth crashing over
 				e.printStackTrace();
 				return null;
 			}
 		}
 
+		/**
+		 * Encodes media content into a compact, versioned binary format.
+		 * @param contentArray Media content to encode. May be null.
+		 * @return The encoded media content.
+		 */
 		public static byte[] toByteArray(Vector<MediaContent> contentArray) {
 			byte[] array = null;
 			try {
 				ByteArrayOutputStream byteArrayStream = new ByteArrayOutputStream();
-				ObjectOutputStream objectOutputStream = new ObjectOutputStream( byteArrayStream );
-				objectOutputStream.writeObject(contentArray);
-				objectOutputStream.close();
+				DataOutputStream out = new DataOutputStream(byteArrayStream);
+				BlobFormat.writeHeader(out, CODEC_MAGIC, CODEC_VERSION);
+
+				int count = contentArray == null ? 0 : contentArray.size();
+				out.writeInt(count);
+				for (int i = 0; i < count; i++) {
+					MediaContent mc = contentArray.get(i);
+					BlobFormat.writeString(out, mc.url);
+					out.writeInt(mc.fileSize);
+					BlobFormat.writeString(out, mc.type);
+					BlobFormat.writeString(out, mc.medium);
+					out.writeBoolean(mc.isDefault);
+					BlobFormat.writeString(out, mc.expression);
+					out.writeInt(mc.bitrate);
+					out.writeFloat(mc.framerate);
+					out.writeFloat(mc.samplingrate);
+					out.writeInt(mc.channels);
+					out.writeLong(mc.duration);
+					out.writeInt(mc.height);
+					out.writeInt(mc.width);
+					BlobFormat.writeString(out, mc.lang);
+				}
+				out.close();
 				array = byteArrayStream.toByteArray();
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
 			return  array;
 		}
+
+		/**
+		 * Reads media content stored through Java serialization by older versions.
+		 */
+		private static Vector<MediaContent> fromSerializedArray(byte[] byteArray) {
+			try {
+				ByteArrayInputStream bais = new ByteArrayInputStream (byteArray);
+				ObjectInput in = new ObjectInputStream(bais);
+
+				@SuppressWarnings("unchecked")
+				Vector<MediaContent> vec = (Vector < MediaContent >)in.readObject();
+
+				return vec;
+			} catch (IOException e) {
+				e.printStackTrace();
+				return null;
+			} catch (ClassNotFoundException e) {
+				e.printStackTrace();
+				return null;
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+				return null;
+			}
+		}
 	}
 }
\ No newline at end of file
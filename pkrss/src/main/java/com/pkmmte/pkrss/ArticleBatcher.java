@@ -0,0 +1,60 @@
+package com.pkmmte.pkrss;
+
+import com.pkmmte.pkrss.parser.ArticleListener;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects articles as they are parsed and hands them to an {@link ArticleSink}
+ * in batches, either every N articles or every T milliseconds.
+ * <p>
+ * The time limit is checked whenever a new article arrives, so a batch is never held
+ * back longer than it takes to parse the next item. Call {@link #flush()} once parsing
+ * is done to deliver whatever is left.
+ */
+class ArticleBatcher implements ArticleListener {
+	private final CallbackHandler handler;
+	private final boolean safe;
+	private final ArticleSink sink;
+	private final int batchSize;
+	private final long batchInterval;
+
+	private List<Article> batch = new ArrayList<Article>();
+	private long lastFlush = System.currentTimeMillis();
+
+	/**
+	 * @param handler Handler to deliver batches with.
+	 * @param safe Whether to catch exceptions thrown by the sink.
+	 * @param sink Sink receiving each batch.
+	 * @param batchSize Number of articles per batch. Values below 1 disable the count limit.
+	 * @param batchInterval Maximum time in milliseconds to hold a batch for. Values below 1 disable the time limit.
+	 */
+	ArticleBatcher(CallbackHandler handler, boolean safe, ArticleSink sink, int batchSize, long batchInterval) {
+		this.handler = handler;
+		this.safe = safe;
+		this.sink = sink;
+		this.batchSize = batchSize;
+		this.batchInterval = batchInterval;
+	}
+
+	@Override
+	public void onArticleParsed(Article article) {
+		batch.add(article);
+
+		if ((batchSize > 0 && batch.size() >= batchSize) || (batchInterval > 0 && System.currentTimeMillis() - lastFlush >= batchInterval))
+			flush();
+	}
+
+	/**
+	 * Delivers all pending articles, if any.
+	 */
+	public void flush() {
+		lastFlush = System.currentTimeMillis();
+		if (batch.isEmpty())
+			return;
+
+		// Hand over the current list and start a new one as delivery may happen on another thread
+		handler.onArticles(safe, sink, batch);
+		batch = new ArrayList<Article>();
+	}
+}
@@ -0,0 +1,354 @@
+package com.pkmmte.pkrss;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.net.Uri;
+import android.os.Build;
+import android.text.TextUtils;
+import com.pkmmte.pkrss.downloader.CacheValidator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SQLite database keeping a copy of loaded articles across process restarts, per feed, along with
+ * the cache validators of each request URL. <p> <b>Warning:</b> <i>Extra article properties
+ * will not be saved!</i>
+ * <p>
+ * Articles older than the maximum age are dropped and the least recently stored ones go first
+ * once the maximum size is exceeded. Sizes are the same estimates used for the in-memory cache.
+ */
+class ArticleDatabase extends SQLiteOpenHelper {
+	// Basic Database Info
+	private static final int DATABASE_VERSION = 2;
+	private static final String DATABASE_NAME = "db.pkrss.articles";
+	private static final String TABLE_ARTICLES = "articles";
+	private static final String TABLE_VALIDATORS = "validators";
+
+	// Column Keys
+	private static final String KEY_FEED = "FEED";
+	private static final String KEY_TAGS = "TAGS";
+	private static final String KEY_MEDIA_CONTENT = "MEDIA_CONTENT";
+	private static final String KEY_SOURCE = "SOURCE";
+	private static final String KEY_IMAGE = "IMAGE";
+	private static final String KEY_TITLE = "TITLE";
+	private static final String KEY_DESCRIPTION = "DESCRIPTION";
+	private static final String KEY_CONTENT = "CONTENT";
+	private static final String KEY_COMMENTS = "COMMENTS";
+	private static final String KEY_AUTHOR = "AUTHOR";
+	private static final String KEY_DATE = "DATE";
+	private static final String KEY_ID = "ID";
+	private static final String KEY_GUID = "GUID";
+	private static final String KEY_ENCLOSURE = "ENCLOSURE";
+	private static final String KEY_RAW = "RAW";
+	private static final String KEY_SIZE = "SIZE";
+	private static final String KEY_STORED = "STORED";
+	private static final String KEY_URL = "URL";
+	private static final String KEY_ETAG = "ETAG";
+	private static final String KEY_LAST_MODIFIED = "LAST_MODIFIED";
+
+	// Projection in the order expected by read(Cursor)
+	private static final String[] COLUMNS = {KEY_TAGS, KEY_MEDIA_CONTENT, KEY_SOURCE, KEY_IMAGE, KEY_TITLE, KEY_DESCRIPTION, KEY_CONTENT, KEY_COMMENTS,
+		KEY_AUTHOR, KEY_DATE, KEY_ID, KEY_GUID, KEY_ENCLOSURE, KEY_RAW};
+
+	private final long maxAge;
+	private final long maxBytes;
+
+	// Long-lived handle and statements, created on first use
+	private SQLiteDatabase database;
+	private SQLiteStatement insertStatement;
+	private SQLiteStatement touchStatement;
+	private SQLiteStatement validatorStatement;
+
+	/**
+	 * @param maxAge Maximum time in milliseconds to keep an article since it was last stored.
+	 * @param maxBytes Maximum estimated size in bytes of all stored articles.
+	 */
+	public ArticleDatabase(Context context, long maxAge, long maxBytes) {
+		super(context, DATABASE_NAME, null, DATABASE_VERSION);
+		this.maxAge = maxAge;
+		this.maxBytes = maxBytes;
+
+		// Lets reads run concurrently with writes
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN)
+			setWriteAheadLoggingEnabled(true);
+	}
+
+	@Override
+	public void onCreate(SQLiteDatabase db) {
+		db.execSQL("CREATE TABLE " + TABLE_ARTICLES + " ( "
+			+ KEY_FEED + " TEXT NOT NULL , "
+			+ KEY_TAGS + " TEXT , "
+			+ KEY_MEDIA_CONTENT + " BLOB , "
+			+ KEY_SOURCE + " TEXT , "
+			+ KEY_IMAGE + " TEXT , "
+			+ KEY_TITLE + " TEXT , "
+			+ KEY_DESCRIPTION + " TEXT , "
+			+ KEY_CONTENT + " TEXT , "
+			+ KEY_COMMENTS + " TEXT , "
+			+ KEY_AUTHOR + " TEXT , "
+			+ KEY_DATE + " INTEGER , "
+			+ KEY_ID + " INTEGER NOT NULL , "
+			+ KEY_GUID + " TEXT , "
+			+ KEY_ENCLOSURE + " BLOB , "
+			+ KEY_RAW + " INTEGER NOT NULL , "
+			+ KEY_SIZE + " INTEGER NOT NULL , "
+			+ KEY_STORED + " INTEGER NOT NULL , "
+			+ "PRIMARY KEY (" + KEY_FEED + ", " + KEY_ID + ")"
+			+ ")");
+		db.execSQL("CREATE INDEX " + TABLE_ARTICLES + "_" + KEY_STORED + " ON " + TABLE_ARTICLES + " (" + KEY_STORED + ")");
+		db.execSQL("CREATE TABLE " + TABLE_VALIDATORS + " ( "
+			+ KEY_URL + " TEXT PRIMARY KEY , "
+			+ KEY_ETAG + " TEXT , "
+			+ KEY_LAST_MODIFIED + " TEXT "
+			+ ")");
+	}
+
+	@Override
+	public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+		// Nothing in here can't be downloaded again
+		db.execSQL("DROP TABLE IF EXISTS " + TABLE_ARTICLES);
+		db.execSQL("DROP TABLE IF EXISTS " + TABLE_VALIDATORS);
+		onCreate(db);
+	}
+
+	@Override
+	public void onOpen(SQLiteDatabase db) {
+		super.onOpen(db);
+		if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN && !db.isReadOnly())
+			db.enableWriteAheadLogging();
+	}
+
+	/**
+	 * Closes the database handle and all precompiled statements.
+	 * It is reopened as needed if used again afterwards.
+	 */
+	@Override
+	public synchronized void close() {
+		if (insertStatement != null) {
+			insertStatement.close();
+			touchStatement.close();
+			validatorStatement.close();
+			insertStatement = null;
+			touchStatement = null;
+			validatorStatement = null;
+		}
+		database = null;
+		super.close();
+	}
+
+	/**
+	 * @return The shared database handle, opening it and compiling statements if needed.
+	 */
+	private synchronized SQLiteDatabase database() {
+		if (database == null) {
+			database = getWritableDatabase();
+			insertStatement = database.compileStatement("INSERT OR REPLACE INTO " + TABLE_ARTICLES + " (" + KEY_FEED + ", " + KEY_TAGS + ", "
+				+ KEY_MEDIA_CONTENT + ", " + KEY_SOURCE + ", " + KEY_IMAGE + ", " + KEY_TITLE + ", " + KEY_DESCRIPTION + ", " + KEY_CONTENT + ", "
+				+ KEY_COMMENTS + ", " + KEY_AUTHOR + ", " + KEY_DATE + ", " + KEY_ID + ", " + KEY_GUID + ", " + KEY_ENCLOSURE + ", " + KEY_RAW + ", "
+				+ KEY_SIZE + ", " + KEY_STORED + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+			touchStatement = database.compileStatement("UPDATE " + TABLE_ARTICLES + " SET " + KEY_STORED + "=? WHERE " + KEY_FEED + "=? AND "
+				+ KEY_ID + "=?");
+			validatorStatement = database.compileStatement("INSERT OR REPLACE INTO " + TABLE_VALIDATORS + " (" + KEY_URL + ", " + KEY_ETAG + ", "
+				+ KEY_LAST_MODIFIED + ") VALUES (?, ?, ?)");
+		}
+		return database;
+	}
+
+	/**
+	 * Stores articles of a feed in a single transaction, replacing those with the same id,
+	 * then drops articles past the maximum age or size.
+	 * <p>
+	 * Descriptions and contents still pending conversion are stored as raw HTML, so storing
+	 * doesn't force any conversion and they're only converted once read back and accessed.
+	 * @param url Safe URL of the feed.
+	 * @param articles Articles to store.
+	 * @param ids Ids of articles already stored which are still in the feed, whose age is refreshed.
+	 */
+	public synchronized void put(String url, List<Article> articles, int[] ids) {
+		SQLiteDatabase db = database();
+		long now = System.currentTimeMillis();
+		db.beginTransactionNonExclusive();
+		try {
+			for (Article article : articles)
+				insert(url, article, now);
+			for (int id : ids)
+				touch(url, id, now);
+			trim(db, now);
+			db.setTransactionSuccessful();
+		} finally {
+			db.endTransaction();
+		}
+	}
+
+	/**
+	 * @param url Safe URL of the feed.
+	 * @return Stored articles of this feed from newest to oldest, excluding expired ones.
+	 * Empty if none.
+	 */
+	public List<Article> get(String url) {
+		long expiry = System.currentTimeMillis() - maxAge;
+		Cursor cursor = database().query(TABLE_ARTICLES, COLUMNS, KEY_FEED + "=? AND " + KEY_STORED + ">=?",
+		                                 new String[] {url, String.valueOf(expiry)}, null, null, KEY_DATE + " DESC");
+
+		List<Article> articleList = new ArrayList<Article>(cursor.getCount());
+		try {
+			while (cursor.moveToNext())
+				articleList.add(read(cursor));
+		} finally {
+			cursor.close();
+		}
+
+		return articleList;
+	}
+
+	/**
+	 * Stores or removes the cache validators of a request URL.
+	 * @param url Request URL.
+	 * @param validator Validators to store or null to remove them.
+	 */
+	public synchronized void putValidator(String url, CacheValidator validator) {
+		SQLiteDatabase db = database();
+		if (validator == null) {
+			db.delete(TABLE_VALIDATORS, KEY_URL + "=?", new String[] {url});
+			return;
+		}
+
+		validatorStatement.clearBindings();
+		validatorStatement.bindString(1, url);
+		bind(validatorStatement, 2, validator.getEtag());
+		bind(validatorStatement, 3, validator.getLastModified());
+		validatorStatement.executeInsert();
+	}
+
+	/**
+	 * @param url Request URL.
+	 * @return Stored cache validators of this request URL or null if none.
+	 */
+	public CacheValidator getValidator(String url) {
+		Cursor cursor = database().query(TABLE_VALIDATORS, new String[] {KEY_ETAG, KEY_LAST_MODIFIED}, KEY_URL + "=?",
+		                                 new String[] {url}, null, null, null);
+		try {
+			return cursor.moveToFirst() ? CacheValidator.from(cursor.getString(0), cursor.getString(1)) : null;
+		} finally {
+			cursor.close();
+		}
+	}
+
+	/**
+	 * Removes ALL content stored in this database!
+	 */
+	public synchronized void deleteAll() {
+		SQLiteDatabase db = database();
+		db.delete(TABLE_ARTICLES, null, null);
+		db.delete(TABLE_VALIDATORS, null, null);
+	}
+
+	private void insert(String url, Article article, long now) {
+		// Bind values in column order
+		SQLiteStatement statement = insertStatement;
+		statement.clearBindings();
+		statement.bindString(1, url);
+		bind(statement, 2, TextUtils.join("_PCX_", article.getTags()));
+		byte[] mediaContent = Article.MediaContent.toByteArray(article.getMediaContent());
+		if (mediaContent != null)
+			statement.bindBlob(3, mediaContent);
+		String[] values = new String[4];
+		int raw = article.peekRaw(values);
+		bind(statement, 4, values[0]);
+		bind(statement, 5, values[1]);
+		bind(statement, 6, article.getTitle());
+		bind(statement, 7, values[2]);
+		bind(statement, 8, values[3]);
+		bind(statement, 9, article.getComments());
+		bind(statement, 10, article.getAuthor());
+		statement.bindLong(11, article.getDate());
+		statement.bindLong(12, article.getId());
+		bind(statement, 13, article.getGuid());
+		byte[] enclosure = Enclosure.toByteArray(article.getEnclosure());
+		if (enclosure != null)
+			statement.bindBlob(14, enclosure);
+		statement.bindLong(15, raw);
+		statement.bindLong(16, ArticleStore.estimateSize(article));
+		statement.bindLong(17, now);
+
+		statement.executeInsert();
+	}
+
+	private void touch(String url, int id, long now) {
+		touchStatement.bindLong(1, now);
+		touchStatement.bindString(2, url);
+		touchStatement.bindLong(3, id);
+		touchStatement.executeUpdateDelete();
+	}
+
+	/**
+	 * Drops expired articles, then the least recently stored ones until under the maximum size.
+	 */
+	private void trim(SQLiteDatabase db, long now) {
+		db.delete(TABLE_ARTICLES, KEY_STORED + "<?", new String[] {String.valueOf(now - maxAge)});
+
+		long excess = DatabaseUtils.longForQuery(db, "SELECT IFNULL(SUM(" + KEY_SIZE + "), 0) FROM " + TABLE_ARTICLES, null) - maxBytes;
+		if (excess <= 0)
+			return;
+
+		// Collect the least recently stored articles until enough space would be freed
+		Cursor cursor = db.query(TABLE_ARTICLES, new String[] {"ROWID", KEY_SIZE}, null, null, null, null, KEY_STORED + ", " + KEY_DATE);
+		List<Long> rowIds = new ArrayList<Long>();
+		try {
+			while (excess > 0 && cursor.moveToNext()) {
+				rowIds.add(cursor.getLong(0));
+				excess -= cursor.getLong(1);
+			}
+		} finally {
+			cursor.close();
+		}
+
+		SQLiteStatement delete = db.compileStatement("DELETE FROM " + TABLE_ARTICLES + " WHERE ROWID=?");
+		try {
+			for (long rowId : rowIds) {
+				delete.bindLong(1, rowId);
+				delete.executeUpdateDelete();
+			}
+		} finally {
+			delete.close();
+		}
+	}
+
+	/**
+	 * Builds an Article out of the current row of a cursor over {@link #COLUMNS}.
+	 */
+	private static Article read(Cursor cursor) {
+		Article article = new Article(null, Arrays.asList(cursor.getString(0).split("_PCX_")), Article.MediaContent.fromByteArray(cursor.getBlob(1)), null,
+		                              null, cursor.getString(4), null, null, cursor.getString(7), cursor.getString(8), cursor.getLong(9), cursor.getInt(10));
+		article.setGuid(cursor.getString(11));
+		article.setEnclosure(Enclosure.fromByteArray(cursor.getBlob(12)));
+
+		// Leave stored HTML pending, as it was when stored
+		String[] values = {cursor.getString(2), cursor.getString(3), cursor.getString(5), cursor.getString(6)};
+		article.restoreRaw(values, cursor.getInt(13));
+		return article;
+	}
+
+	/**
+	 * Same as {@link Uri#parse(String)} but lets null columns through.
+	 */
+	static Uri parseUri(String uri) {
+		return uri == null ? null : Uri.parse(uri);
+	}
+
+	/**
+	 * Binds a value as text or null, as SQLiteStatement doesn't accept null Strings.
+	 */
+	private static void bind(SQLiteStatement statement, int index, Object value) {
+		if (value == null)
+			statement.bindNull(index);
+		else
+			statement.bindString(index, value.toString());
+	}
+}
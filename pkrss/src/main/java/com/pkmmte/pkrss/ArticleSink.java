@@ -0,0 +1,18 @@
+package com.pkmmte.pkrss;
+
+import java.util.List;
+
+/**
+ * Receives articles incrementally while a feed is still being downloaded and parsed.
+ * <p>
+ * Assign one to a request via {@link RequestCreator#stream(ArticleSink)}. Articles are delivered
+ * in batches on the same thread as {@link Callback} events and before they are inserted into
+ * {@link PkRSS#get(String)}. {@link Callback#onLoaded(List)} is still called with the full list
+ * once the whole feed has been parsed.
+ */
+public interface ArticleSink {
+	/**
+	 * @param articles Articles parsed since the previous batch, in feed order.
+	 */
+	void onArticles(List<Article> articles);
+}
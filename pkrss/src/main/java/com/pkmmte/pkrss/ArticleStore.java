@@ -0,0 +1,361 @@
+package com.pkmmte.pkrss;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory storage for all loaded articles, grouped by the safe URL of the feed they came from
+ * and indexed by article id for constant time lookups.
+ * <p>
+ * Each feed holds any given article id only once and is kept ordered from newest to oldest.
+ * Articles are evicted whenever the limits of the {@link CachePolicy} are exceeded.
+ * All access is synchronized on this object. Lists handed out are copies, safe to iterate
+ * while loads keep modifying the store.
+ */
+class ArticleStore {
+	// Rough per article cost of the object itself, its Uris, tags, etc. on top of its text
+	private static final int ARTICLE_OVERHEAD = 512;
+
+	// Newest first, articles without a date last. Sorting is stable so ties keep feed order.
+	private static final Comparator<Article> NEWEST_FIRST = new Comparator<Article>() {
+		@Override
+		public int compare(Article lhs, Article rhs) {
+			long l = lhs.getDate() > 0 ? lhs.getDate() : Long.MIN_VALUE;
+			long r = rhs.getDate() > 0 ? rhs.getDate() : Long.MIN_VALUE;
+			return l < r ? 1 : (l == r ? 0 : -1);
+		}
+	};
+
+	/**
+	 * Internal counterpart of {@link EvictionListener}, also told when feeds are removed.
+	 */
+	interface Listener {
+		void onEvicted(String url, List<Article> evicted, boolean feedRemoved);
+	}
+
+	private final CachePolicy policy;
+	private final Listener listener;
+
+	// Feeds keyed by safe URL, in access order when evicting the least recently used
+	private final LinkedHashMap<String, Feed> feeds;
+
+	// Primary index of every stored article by id, shared by all feeds containing it
+	private final IntMap<Indexed> index = new IntMap<Indexed>();
+
+	private int articleCount;
+	private long byteCount;
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+
+	ArticleStore(CachePolicy policy, Listener listener) {
+		this.policy = policy;
+		this.listener = listener;
+		this.feeds = new LinkedHashMap<String, Feed>(16, 0.75f, policy.eviction == CachePolicy.Eviction.LRU);
+	}
+
+	/**
+	 * Merges articles into the list of the specified feed and indexes them, then evicts
+	 * articles as needed. Articles whose id is already stored for this feed are skipped.
+	 * @param url Safe URL of the feed.
+	 * @param articles Articles to store.
+	 * @return The articles actually added, in the order given. Empty if none.
+	 */
+	List<Article> insert(String url, List<Article> articles) {
+		Map<String, Evicted> evicted = new LinkedHashMap<String, Evicted>();
+		List<Article> newArticles;
+
+		synchronized (this) {
+			if (articles.isEmpty())
+				return Collections.emptyList();
+
+			Feed feed = feeds.get(url);
+
+			if (feed == null) {
+				feed = new Feed(url, articles.size());
+				feeds.put(url, feed);
+			}
+
+			// Only keep articles this feed doesn't already have
+			newArticles = new ArrayList<Article>(articles.size());
+			for (Article article : articles) {
+				if (feed.sizes.containsKey(article.getId()))
+					continue;
+
+				// Don't bother with articles which would be evicted right away
+				if (feed.articles.size() >= policy.maxArticlesPerFeed && NEWEST_FIRST.compare(article, feed.last()) >= 0)
+					continue;
+
+				add(feed, article);
+				newArticles.add(article);
+			}
+
+			merge(feed.articles, new ArrayList<Article>(newArticles));
+
+			// Enforce the per feed limit, then the global ones
+			while (feed.articles.size() > policy.maxArticlesPerFeed)
+				evictLast(feed, evicted);
+			trim(evicted);
+		}
+
+		// Notify without holding the lock
+		for (Evicted e : evicted.values())
+			listener.onEvicted(e.url, e.articles, e.feedRemoved);
+
+		return newArticles;
+	}
+
+	/**
+	 * @param url Safe URL of the feed.
+	 * @return A copy of all articles stored for this feed or null if it hasn't been loaded or was evicted.
+	 */
+	synchronized List<Article> get(String url) {
+		Feed feed = feeds.get(url);
+		if (feed == null) {
+			missCount++;
+			return null;
+		}
+
+		hitCount++;
+		return new ArrayList<Article>(feed.articles);
+	}
+
+	/**
+	 * @param id Article id to look up.
+	 * @return The stored article with this id or null if none.
+	 */
+	synchronized Article get(int id) {
+		Indexed indexed = index.get(id);
+		if (indexed == null) {
+			missCount++;
+			return null;
+		}
+
+		hitCount++;
+		return indexed.article;
+	}
+
+	/**
+	 * Same as {@link #get(String)} without counting as an access.
+	 * @param url Safe URL of the feed.
+	 * @return {@code true} if articles are stored for this feed.
+	 */
+	synchronized boolean contains(String url) {
+		return feeds.containsKey(url);
+	}
+
+	/**
+	 * @return The ids of every stored article.
+	 */
+	synchronized int[] ids() {
+		return index.keys();
+	}
+
+	/**
+	 * @return An unmodifiable snapshot of the articles per feed, without counting as an access.
+	 */
+	synchronized Map<String, List<Article>> asMap() {
+		Map<String, List<Article>> map = new HashMap<String, List<Article>>(feeds.size() * 2);
+		for (Feed feed : feeds.values())
+			map.put(feed.url, Collections.unmodifiableList(new ArrayList<Article>(feed.articles)));
+		return Collections.unmodifiableMap(map);
+	}
+
+	/**
+	 * @return A snapshot of the current statistics.
+	 */
+	synchronized CacheStats stats() {
+		return new CacheStats(hitCount, missCount, evictionCount, feeds.size(), articleCount, byteCount);
+	}
+
+	/**
+	 * Estimates the memory retained by an article, mostly made up of its text.
+	 * @param article Article to measure.
+	 * @return Estimated size in bytes.
+	 */
+	static int estimateSize(Article article) {
+		// Measure pending HTML as is rather than converting it
+		long chars = length(article.getTitle()) + article.peekTextLength()
+			+ length(article.getAuthor()) + length(article.getComments()) + length(article.getGuid());
+		return (int) Math.min(Integer.MAX_VALUE, ARTICLE_OVERHEAD + chars * 2);
+	}
+
+	private static int length(String text) {
+		return text == null ? 0 : text.length();
+	}
+
+	private void add(Feed feed, Article article) {
+		int bytes = estimateSize(article);
+		feed.sizes.put(article.getId(), bytes);
+		articleCount++;
+		byteCount += bytes;
+
+		Indexed indexed = index.get(article.getId());
+		if (indexed == null) {
+			index.put(article.getId(), new Indexed(article));
+		}
+		else {
+			// Latest version wins
+			indexed.article = article;
+			indexed.refs++;
+		}
+	}
+
+	/**
+	 * Evicts articles until the global limits are met again.
+	 */
+	private void trim(Map<String, Evicted> evicted) {
+		while (articleCount > 0 && (articleCount > policy.maxArticles || byteCount > policy.maxBytes)) {
+			Feed victim = policy.eviction == CachePolicy.Eviction.LRU ? leastRecentlyUsed() : oldest();
+			evictLast(victim, evicted);
+		}
+	}
+
+	private Feed leastRecentlyUsed() {
+		for (Feed feed : feeds.values()) {
+			if (!feed.articles.isEmpty())
+				return feed;
+		}
+		throw new IllegalStateException("No articles left to evict");
+	}
+
+	private Feed oldest() {
+		Feed oldest = null;
+		for (Feed feed : feeds.values()) {
+			if (!feed.articles.isEmpty() && (oldest == null || NEWEST_FIRST.compare(feed.last(), oldest.last()) > 0))
+				oldest = feed;
+		}
+		if (oldest == null)
+			throw new IllegalStateException("No articles left to evict");
+		return oldest;
+	}
+
+	/**
+	 * Evicts the oldest article of a feed, removing the feed altogether if it was its last.
+	 */
+	private void evictLast(Feed feed, Map<String, Evicted> evicted) {
+		Article article = feed.articles.remove(feed.articles.size() - 1);
+		int bytes = feed.sizes.remove(article.getId());
+		articleCount--;
+		byteCount -= bytes;
+		evictionCount++;
+
+		Indexed indexed = index.get(article.getId());
+		if (--indexed.refs == 0) {
+			index.remove(article.getId());
+		}
+		else if (indexed.article == article) {
+			// Point to a copy still held by another feed
+			for (Feed other : feeds.values()) {
+				if (other != feed && other.sizes.containsKey(article.getId())) {
+					indexed.article = other.find(article.getId());
+					break;
+				}
+			}
+		}
+
+		Evicted e = evicted.get(feed.url);
+		if (e == null) {
+			e = new Evicted(feed.url);
+			evicted.put(feed.url, e);
+		}
+		e.articles.add(article);
+
+		if (feed.articles.isEmpty()) {
+			feeds.remove(feed.url);
+			e.feedRemoved = true;
+		}
+	}
+
+	/**
+	 * Merges new articles into an already ordered list, in place.
+	 * Refreshes usually only bring newer articles, in which case they're simply put in front.
+	 */
+	private static void merge(List<Article> articleList, List<Article> newArticles) {
+		if (newArticles.isEmpty())
+			return;
+
+		Collections.sort(newArticles, NEWEST_FIRST);
+		if (articleList.isEmpty() || NEWEST_FIRST.compare(newArticles.get(newArticles.size() - 1), articleList.get(0)) < 0) {
+			articleList.addAll(0, newArticles);
+			return;
+		}
+		if (NEWEST_FIRST.compare(articleList.get(articleList.size() - 1), newArticles.get(0)) <= 0) {
+			articleList.addAll(newArticles);
+			return;
+		}
+
+		// Interleaved dates, existing articles win ties
+		List<Article> merged = new ArrayList<Article>(articleList.size() + newArticles.size());
+		int i = 0, j = 0;
+		while (i < articleList.size() && j < newArticles.size()) {
+			if (NEWEST_FIRST.compare(newArticles.get(j), articleList.get(i)) < 0)
+				merged.add(newArticles.get(j++));
+			else
+				merged.add(articleList.get(i++));
+		}
+		merged.addAll(articleList.subList(i, articleList.size()));
+		merged.addAll(newArticles.subList(j, newArticles.size()));
+
+		articleList.clear();
+		articleList.addAll(merged);
+	}
+
+	/**
+	 * Articles and per article sizes of a single feed.
+	 */
+	private static final class Feed {
+		final String url;
+		final List<Article> articles = new ArrayList<Article>();
+
+		// Estimated size of each article by id, doubling as a constant time membership check
+		final IntMap<Integer> sizes;
+
+		Feed(String url, int expectedSize) {
+			this.url = url;
+			this.sizes = new IntMap<Integer>(expectedSize);
+		}
+
+		Article last() {
+			return articles.get(articles.size() - 1);
+		}
+
+		Article find(int id) {
+			for (Article article : articles) {
+				if (article.getId() == id)
+					return article;
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Index entry counting how many feeds currently hold an article id.
+	 */
+	private static final class Indexed {
+		Article article;
+		int refs = 1;
+
+		Indexed(Article article) {
+			this.article = article;
+		}
+	}
+
+	/**
+	 * Evictions from a single feed, pending notification.
+	 */
+	private static final class Evicted {
+		final String url;
+		final List<Article> articles = new ArrayList<Article>();
+		boolean feedRemoved;
+
+		Evicted(String url) {
+			this.url = url;
+		}
+	}
+}
@@ -0,0 +1,191 @@
+package com.pkmmte.pkrss;
+
+import android.net.Uri;
+import android.util.Log;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A request waiting to be or being executed asynchronously through the {@link Dispatcher}.
+ */
+class AsyncCall implements Runnable {
+	// Higher priority first, then in the order they were created
+	static final Comparator<AsyncCall> ORDER = new Comparator<AsyncCall>() {
+		@Override
+		public int compare(AsyncCall lhs, AsyncCall rhs) {
+			int priority = rhs.request.priority.compareTo(lhs.request.priority);
+			if (priority != 0)
+				return priority;
+			return lhs.sequence < rhs.sequence ? -1 : (lhs.sequence == rhs.sequence ? 0 : 1);
+		}
+	};
+
+	private static final AtomicLong SEQUENCE = new AtomicLong();
+
+	private final PkRSS singleton;
+	private final Request request;
+	private final long delay;
+	private final Batch batch;
+	private final RequestFuture future;
+	private final String host;
+	private final int attempt;
+	private final long sequence = SEQUENCE.getAndIncrement();
+
+	// Thread currently running this call, guarded by this
+	private Thread runner;
+
+	/**
+	 * @param singleton Instance executing this request.
+	 * @param request Request to execute.
+	 * @param delay Time in milliseconds to wait before executing.
+	 * @param batch Batch this request belongs to. May be null.
+	 * @param future Handle to report the outcome to.
+	 */
+	AsyncCall(PkRSS singleton, Request request, long delay, Batch batch, RequestFuture future) {
+		this(singleton, request, delay, batch, future, 0);
+	}
+
+	/**
+	 * @param attempt Number of download attempts already made for this request.
+	 */
+	private AsyncCall(PkRSS singleton, Request request, long delay, Batch batch, RequestFuture future, int attempt) {
+		this.singleton = singleton;
+		this.request = request;
+		this.delay = delay;
+		this.batch = batch;
+		this.future = future;
+		this.attempt = attempt;
+
+		String host = Uri.parse(singleton.getDownloader(request).toUrl(request)).getHost();
+		this.host = host == null ? "" : host;
+		future.attach(this);
+	}
+
+	/**
+	 * @return Host this request is made to. Used for per-host limits.
+	 */
+	String host() {
+		return host;
+	}
+
+	/**
+	 * @return Time in milliseconds to wait before running this call.
+	 */
+	long delay() {
+		return delay;
+	}
+
+	/**
+	 * Called by the {@link RequestFuture} once cancelled.
+	 */
+	void cancel(boolean mayInterruptIfRunning) {
+		// Still waiting in line, drop it altogether
+		if (singleton.dispatcher.cancel(this)) {
+			singleton.log(request.tag + " request cancelled");
+			release(false, true);
+			return;
+		}
+
+		if (mayInterruptIfRunning) {
+			synchronized (this) {
+				if (runner != null)
+					runner.interrupt();
+			}
+		}
+	}
+
+	@Override
+	public void run() {
+		final CallbackHandler handler = request.handler != null ? request.handler : singleton.handler;
+		final boolean safe = request.safe != null ? request.safe : singleton.safe;
+		boolean success = false;
+		boolean skipped = false;
+		RetryException retry = null;
+
+		synchronized (this) {
+			runner = Thread.currentThread();
+		}
+
+		try {
+			// Cancelled while being handed over to the executor
+			if (future.isCancelled()) {
+				skipped = true;
+				return;
+			}
+
+			// Execute request
+			try {
+				List<Article> articles = singleton.load(request, attempt);
+				future.set(articles);
+				success = true;
+			} catch (RetryException e) {
+				retry = e;
+			} catch (IOException e) {
+				failed(e, handler, safe);
+			} catch (RuntimeException e) {
+				// Such as a parser choking on malformed input, don't leave the future hanging
+				failed(e, handler, safe);
+			}
+		} finally {
+			synchronized (this) {
+				runner = null;
+			}
+
+			// Don't leave an interrupt from cancel() behind for the next task on this thread
+			Thread.interrupted();
+			singleton.dispatcher.finished(this);
+			if (retry == null || !retry(retry, handler, safe))
+				release(success, skipped);
+		}
+	}
+
+	/**
+	 * Queues the next attempt of this request on the {@link Dispatcher} timer, freeing this
+	 * call's slot in the meantime.
+	 * @return {@code true} if the next attempt was queued, {@code false} if the request was
+	 * cancelled and failed instead.
+	 */
+	private boolean retry(RetryException e, CallbackHandler handler, boolean safe) {
+		if (future.isCancelled()) {
+			failed((Exception) e.getCause(), handler, safe);
+			return false;
+		}
+
+		AsyncCall next = new AsyncCall(singleton, request, e.delay, batch, future, attempt + 1);
+		singleton.dispatcher.enqueue(next);
+
+		// Cancelled before the next attempt was attached to the future
+		if (future.isCancelled())
+			next.cancel(false);
+		return true;
+	}
+
+	private void failed(Exception e, CallbackHandler handler, boolean safe) {
+		future.setError(e);
+		if (future.isCancelled()) {
+			singleton.log(request.tag + " request cancelled while running");
+		}
+		else {
+			singleton.log("Error executing request " + request.tag + " asynchronously! " + e.getMessage(), Log.ERROR);
+			handler.onLoadFailed(safe, request.callback != null ? request.callback.get() : null);
+		}
+	}
+
+	/**
+	 * Lets go of everything tied to this call once it won't run anymore.
+	 */
+	private void release(boolean success, boolean skipped) {
+		synchronized (RequestCreator.activeRequests) {
+			RequestCreator.activeRequests.remove(request.tag);
+		}
+		future.finish();
+		if (batch != null) {
+			if (skipped)
+				batch.skipped();
+			else
+				batch.finished(request, success);
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package com.pkmmte.pkrss;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps track of a group of requests started through {@link PkRSS#loadAll(java.util.Collection, BatchCallback)}
+ * and notifies its {@link BatchCallback} once every one of them has finished.
+ */
+class Batch {
+	private final CallbackHandler handler;
+	private final boolean safe;
+	// Held strongly so a callback passed inline lives until the batch is done
+	private BatchCallback callback;
+	private final List<Request> loaded = new ArrayList<Request>();
+	private final List<Request> failed = new ArrayList<Request>();
+	private int pending;
+
+	/**
+	 * @param handler Handler to deliver the callback with.
+	 * @param safe Whether to catch exceptions thrown by the callback.
+	 * @param callback Callback to notify once all requests are done. May be null.
+	 * @param size Number of requests in this batch.
+	 */
+	Batch(CallbackHandler handler, boolean safe, BatchCallback callback, int size) {
+		this.handler = handler;
+		this.safe = safe;
+		this.callback = callback;
+		this.pending = size;
+	}
+
+	/**
+	 * Records the outcome of a request belonging to this batch.
+	 * @param request Request which just finished.
+	 * @param success Whether or not it loaded successfully.
+	 */
+	void finished(Request request, boolean success) {
+		synchronized (this) {
+			(success ? loaded : failed).add(request);
+		}
+		countDown();
+	}
+
+	/**
+	 * Records a request which was never executed, such as one ignored because it was already running.
+	 */
+	void skipped() {
+		countDown();
+	}
+
+	private void countDown() {
+		BatchCallback callback;
+		synchronized (this) {
+			if (--pending > 0)
+				return;
+			callback = this.callback;
+			this.callback = null;
+		}
+		handler.onBatchLoaded(safe, callback, loaded, failed);
+	}
+}
@@ -0,0 +1,16 @@
+package com.pkmmte.pkrss;
+
+import java.util.List;
+
+/**
+ * Aggregate callback for requests started through {@link PkRSS#loadAll(java.util.Collection, BatchCallback)}.
+ * Each request still notifies its own {@link Callback} as usual.
+ */
+public interface BatchCallback {
+	/**
+	 * Called once every request in the batch has either loaded or failed.
+	 * @param loaded Requests which loaded successfully, in order of completion.
+	 * @param failed Requests which failed to load, in order of completion.
+	 */
+	void onBatchLoaded(List<Request> loaded, List<Request> failed);
+}
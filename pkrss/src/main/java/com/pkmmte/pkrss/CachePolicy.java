@@ -0,0 +1,122 @@
+package com.pkmmte.pkrss;
+
+/**
+ * Immutable limits for the in-memory article cache of a {@link PkRSS} instance.
+ * <p>
+ * Once any limit is exceeded, articles are evicted according to {@link #eviction} until the
+ * cache fits again. Byte sizes are estimates based on the length of each article's text.
+ * Use {@link CachePolicy.Builder} to create one and {@link PkRSS.Builder#cachePolicy(CachePolicy)} to apply it.
+ */
+public final class CachePolicy {
+	/**
+	 * How to pick which articles to evict first.
+	 */
+	public enum Eviction {
+		/** Oldest articles of the least recently loaded or accessed feed. */
+		LRU,
+		/** Oldest articles by publication date across all feeds. Undated articles go first. */
+		AGE
+	}
+
+	public final int maxArticles;
+	public final long maxBytes;
+	public final int maxArticlesPerFeed;
+	public final Eviction eviction;
+	public final EvictionListener listener;
+
+	/* Hidden constructor */
+	CachePolicy(Builder builder) {
+		this.maxArticles = builder.maxArticles;
+		this.maxBytes = builder.maxBytes;
+		this.maxArticlesPerFeed = builder.maxArticlesPerFeed;
+		this.eviction = builder.eviction;
+		this.listener = builder.listener;
+	}
+
+	@Override
+	public String toString() {
+		return "CachePolicy{" +
+			"maxArticles=" + maxArticles +
+			", maxBytes=" + maxBytes +
+			", maxArticlesPerFeed=" + maxArticlesPerFeed +
+			", eviction=" + eviction +
+			'}';
+	}
+
+	public static class Builder {
+		private int maxArticles;
+		private long maxBytes;
+		private int maxArticlesPerFeed;
+		private Eviction eviction;
+		private EvictionListener listener;
+
+		public Builder() {
+			this.maxArticles = Integer.MAX_VALUE;
+			this.maxBytes = Runtime.getRuntime().maxMemory() / 8;
+			this.maxArticlesPerFeed = Integer.MAX_VALUE;
+			this.eviction = Eviction.LRU;
+			this.listener = null;
+		}
+
+		/**
+		 * Maximum number of articles kept across all feeds. <br />
+		 * <b>Default: </b> Unlimited
+		 */
+		public Builder maxArticles(int maxArticles) {
+			if (maxArticles < 1)
+				throw new IllegalArgumentException("maxArticles must be at least 1!");
+
+			this.maxArticles = maxArticles;
+			return this;
+		}
+
+		/**
+		 * Maximum estimated size in bytes of all articles kept across all feeds. <br />
+		 * <b>Default: </b> 1/8th of the maximum heap size
+		 */
+		public Builder maxBytes(long maxBytes) {
+			if (maxBytes < 1)
+				throw new IllegalArgumentException("maxBytes must be at least 1!");
+
+			this.maxBytes = maxBytes;
+			return this;
+		}
+
+		/**
+		 * Maximum number of articles kept for a single feed. The oldest ones are evicted first. <br />
+		 * <b>Default: </b> Unlimited
+		 */
+		public Builder maxArticlesPerFeed(int maxArticlesPerFeed) {
+			if (maxArticlesPerFeed < 1)
+				throw new IllegalArgumentException("maxArticlesPerFeed must be at least 1!");
+
+			this.maxArticlesPerFeed = maxArticlesPerFeed;
+			return this;
+		}
+
+		/**
+		 * Order in which to evict articles once a global limit is exceeded. <br />
+		 * <b>Default: </b> {@link Eviction#LRU}
+		 */
+		public Builder eviction(Eviction eviction) {
+			if (eviction == null)
+				throw new IllegalArgumentException("Eviction must not be null!");
+
+			this.eviction = eviction;
+			return this;
+		}
+
+		/**
+		 * Listener to notify whenever articles are evicted. <br />
+		 * <b>Default: </b> null
+		 */
+		public Builder listener(EvictionListener listener) {
+			this.listener = listener;
+			return this;
+		}
+
+		public CachePolicy build() {
+			return new CachePolicy(this);
+		}
+	}
+}
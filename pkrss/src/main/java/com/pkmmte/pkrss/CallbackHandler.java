@@ -2,18 +2,48 @@ package com.pkmmte.pkrss;
 
 import android.os.Handler;
 
-import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * A wrapper for Android's {@link Handler} class.
  * This provides clean and easy access to interface calls
  * without having to surround code every time.
+ * <p>
+ * Calls made while others are still waiting to run are delivered along with them
+ * through a single {@link Handler#post(Runnable)}, in order.
  */
 class CallbackHandler {
-	private static final Class clazz = Callback.class;
 	private Handler handler;
 
+	// Calls waiting for the handler, guarded by itself
+	private final ArrayDeque<Runnable> pending = new ArrayDeque<Runnable>();
+	private boolean drainPosted;
+
+	// Runs every call pending at the time it starts
+	private final Runnable drain = new Runnable() {
+		@Override
+		public void run() {
+			List<Runnable> calls;
+			synchronized (pending) {
+				calls = new ArrayList<Runnable>(pending);
+				pending.clear();
+				drainPosted = false;
+			}
+
+			for (int i = 0; i < calls.size(); i++) {
+				try {
+					calls.get(i).run();
+				} catch (Throwable e) {
+					// Don't lose the remaining calls to an unsafe callback
+					requeue(calls.subList(i + 1, calls.size()));
+					throw e;
+				}
+			}
+		}
+	};
+
 	CallbackHandler() {
 		this(null);
 	}
@@ -23,52 +53,138 @@ class CallbackHandler {
 	}
 
 	protected void onPreload(final boolean safe, final Callback callback) {
-		Method method = getDeclaredMethod(clazz, "onPreload");
-		invokeCallback(method, callback, safe);
+		if (callback == null)
+			return;
+
+		post(new Call(safe, "Callback.onPreload") {
+			@Override
+			void invoke() {
+				callback.onPreload();
+			}
+		});
 	}
 
 	protected void onLoaded(final boolean safe, final Callback callback, final List<Article> newArticles) {
-		Method method = getDeclaredMethod(clazz, "onLoaded", List.class);
-		invokeCallback(method, callback, safe, newArticles);
+		if (callback == null)
+			return;
+
+		post(new Call(safe, "Callback.onLoaded") {
+			@Override
+			void invoke() {
+				callback.onLoaded(newArticles);
+			}
+		});
 	}
 
-	protected void onLoadFailed(boolean safe, Callback callback) {
-		Method method = getDeclaredMethod(clazz, "onLoadFailed");
-		invokeCallback(method, callback, safe);
+	protected void onNotModified(final boolean safe, final Callback callback) {
+		// Plain callbacks simply hear that there are no new articles
+		if (!(callback instanceof NotModifiedCallback)) {
+			onLoaded(safe, callback, new ArrayList<Article>());
+			return;
+		}
+
+		post(new Call(safe, "NotModifiedCallback.onNotModified") {
+			@Override
+			void invoke() {
+				((NotModifiedCallback) callback).onNotModified();
+			}
+		});
 	}
 
-	private void invokeCallback(final Method method, final Callback callback, final boolean safe, final Object... args) {
-		// Catch invalid calls before proceeding
-		if(callback == null)
+	protected void onLoadFailed(final boolean safe, final Callback callback) {
+		if (callback == null)
 			return;
 
-		// Create runnable containing invoked code
-		Runnable call = new Runnable() {
+		post(new Call(safe, "Callback.onLoadFailed") {
 			@Override
-			public void run() {
-				try {
-					method.invoke(callback, args);
-				} catch (Exception e) {
-					if(safe)
-						PkRSS.getInstance().log("Caught " + clazz.getSimpleName() + '.' + method.getName() + " exception! [" + e.getMessage() + ']');
-					else
-						throw new RuntimeException(e);
-				}
+			void invoke() {
+				callback.onLoadFailed();
 			}
-		};
+		});
+	}
+
+	protected void onArticles(final boolean safe, final ArticleSink sink, final List<Article> articles) {
+		if (sink == null)
+			return;
 
-		// Execute using handler if available, otherwise use default thread
-		if (handler != null)
-			handler.post(call);
-		else
+		post(new Call(safe, "ArticleSink.onArticles") {
+			@Override
+			void invoke() {
+				sink.onArticles(articles);
+			}
+		});
+	}
+
+	protected void onBatchLoaded(final boolean safe, final BatchCallback callback, final List<Request> loaded, final List<Request> failed) {
+		if (callback == null)
+			return;
+
+		post(new Call(safe, "BatchCallback.onBatchLoaded") {
+			@Override
+			void invoke() {
+				callback.onBatchLoaded(loaded, failed);
+			}
+		});
+	}
+
+	private void post(Runnable call) {
+		// Execute on the calling thread if no handler is available
+		if (handler == null) {
 			call.run();
+			return;
+		}
+
+		// Join the calls already waiting if there are any
+		synchronized (pending) {
+			pending.add(call);
+			if (drainPosted)
+				return;
+			drainPosted = true;
+		}
+		handler.post(drain);
+	}
+
+	private void requeue(List<Runnable> calls) {
+		if (calls.isEmpty())
+			return;
+
+		synchronized (pending) {
+			for (int i = calls.size() - 1; i >= 0; i--)
+				pending.addFirst(calls.get(i));
+			if (drainPosted)
+				return;
+			drainPosted = true;
+		}
+		handler.post(drain);
 	}
 
-	private static Method getDeclaredMethod(Class<?> clazz, String name, Class<?>... parameterTypes) {
-		try {
-			return clazz.getDeclaredMethod(name, parameterTypes);
-		} catch (NoSuchMethodException e) {
-			throw new RuntimeException("No method named " + name + " in class " + clazz.getSimpleName() + " [" + e.getMessage() + ']');
+	/**
+	 * A single callback invocation. If safe, anything thrown by the callback, errors included,
+	 * is logged rather than thrown.
+	 */
+	private static abstract class Call implements Runnable {
+		private final boolean safe;
+		private final String name;
+
+		Call(boolean safe, String name) {
+			this.safe = safe;
+			this.name = name;
+		}
+
+		abstract void invoke();
+
+		@Override
+		public void run() {
+			try {
+				invoke();
+			} catch (Throwable e) {
+				if (!safe)
+					throw e;
+
+				PkRSS instance = PkRSS.getInstance();
+				if (instance != null)
+					instance.log("Caught " + name + " exception! [" + e.getMessage() + ']');
+			}
 		}
 	}
 }
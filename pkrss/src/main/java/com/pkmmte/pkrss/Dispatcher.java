@@ -0,0 +1,133 @@
+package com.pkmmte.pkrss;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs asynchronous requests on an {@link Executor} while limiting how many of them may be
+ * in flight at once, both overall and per host. Requests beyond those limits wait in line
+ * until a running request finishes, higher priority ones first.
+ * <p>
+ * Delayed requests wait on a timer rather than on a worker thread, only joining the line once due.
+ */
+class Dispatcher {
+	private final Executor executor;
+	private final int maxRequests;
+	private final int maxRequestsPerHost;
+
+	// Calls waiting for a free slot, by priority then in the order they were created
+	private final NavigableSet<AsyncCall> readyCalls = new TreeSet<AsyncCall>(AsyncCall.ORDER);
+
+	// Calls waiting for their delay to pass
+	private final Map<AsyncCall, ScheduledFuture<?>> delayedCalls = new HashMap<AsyncCall, ScheduledFuture<?>>();
+
+	// Created on first delayed call
+	private ScheduledExecutorService timer;
+
+	// Calls currently running on the executor
+	private final List<AsyncCall> runningCalls = new ArrayList<AsyncCall>();
+
+	Dispatcher(Executor executor, int maxRequests, int maxRequestsPerHost) {
+		this.executor = executor;
+		this.maxRequests = maxRequests;
+		this.maxRequestsPerHost = maxRequestsPerHost;
+	}
+
+	/**
+	 * Runs the call right away if the limits allow it or queues it otherwise.
+	 * @param call Call to execute.
+	 */
+	void enqueue(final AsyncCall call) {
+		synchronized (this) {
+			if (call.delay() > 0) {
+				if (timer == null)
+					timer = Utils.createSerialExecutor("PkRSS Dispatcher");
+
+				delayedCalls.put(call, timer.schedule(new Runnable() {
+					@Override
+					public void run() {
+						synchronized (Dispatcher.this) {
+							// Cancelled in the meantime
+							if (delayedCalls.remove(call) == null)
+								return;
+							readyCalls.add(call);
+						}
+						promoteAndExecute();
+					}
+				}, call.delay(), TimeUnit.MILLISECONDS));
+				return;
+			}
+
+			readyCalls.add(call);
+		}
+		promoteAndExecute();
+	}
+
+	/**
+	 * Removes a call which hasn't started running yet.
+	 * @param call Call to remove.
+	 * @return {@code true} if the call was removed and will never run,
+	 * {@code false} if it's already running or done.
+	 */
+	synchronized boolean cancel(AsyncCall call) {
+		ScheduledFuture<?> delayed = delayedCalls.remove(call);
+		if (delayed != null) {
+			delayed.cancel(false);
+			return true;
+		}
+
+		return readyCalls.remove(call);
+	}
+
+	/**
+	 * Must be called by every call once it's done running so queued calls may take its place.
+	 * @param call Call which has just finished.
+	 */
+	void finished(AsyncCall call) {
+		synchronized (this) {
+			runningCalls.remove(call);
+		}
+		promoteAndExecute();
+	}
+
+	/**
+	 * Moves as many queued calls as the limits allow over to the executor.
+	 * Calls are handed to the executor outside of the lock in case it runs them on the calling thread.
+	 */
+	private void promoteAndExecute() {
+		List<AsyncCall> executableCalls = new ArrayList<AsyncCall>();
+		synchronized (this) {
+			for (Iterator<AsyncCall> it = readyCalls.iterator(); it.hasNext() && runningCalls.size() < maxRequests; ) {
+				AsyncCall call = it.next();
+
+				// Skip calls whose host is still busy, they'll get their turn later
+				if (runningCallsForHost(call.host()) < maxRequestsPerHost) {
+					it.remove();
+					runningCalls.add(call);
+					executableCalls.add(call);
+				}
+			}
+		}
+
+		for (AsyncCall call : executableCalls)
+			executor.execute(call);
+	}
+
+	private int runningCallsForHost(String host) {
+		int count = 0;
+		for (AsyncCall call : runningCalls) {
+			if (call.host().equals(host))
+				count++;
+		}
+		return count;
+	}
+}
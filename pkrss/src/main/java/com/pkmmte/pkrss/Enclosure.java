@@ -3,9 +3,18 @@ package com.pkmmte.pkrss;
 import android.os.Parcel;
 import android.os.Parcelable;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import org.xmlpull.v1.XmlPullParser;
 
 public class Enclosure implements Parcelable {
+    // Header of the binary format written by toByteArray
+    private static final short CODEC_MAGIC = 0x5045;
+    private static final byte CODEC_VERSION = 1;
+
     private String url;
     private String length;
     private String mimeType;
@@ -121,6 +130,53 @@ public class Enclosure implements Parcelable {
         parcel.writeString(mimeType);
     }
 
+    /**
+     * Decodes an Enclosure encoded by {@link #toByteArray(Enclosure)}.
+     * @param byteArray Encoded Enclosure. May be null.
+     * @return The decoded Enclosure or null if none or it couldn't be decoded.
+     */
+    public static Enclosure fromByteArray(byte[] byteArray) {
+        if (byteArray == null)
+            return null;
+
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(byteArray));
+            BlobFormat.readHeader(in, CODEC_MAGIC, CODEC_VERSION, "enclosure");
+            return new Enclosure(BlobFormat.readString(in), BlobFormat.readString(in), BlobFormat.readString(in));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        } catch (RuntimeException e) {
+            // Corrupt data the checks above didn't catch, still not worth crashing over
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Encodes an Enclosure into a compact, versioned binary format.
+     * @param enclosure Enclosure to encode. May be null.
+     * @return The encoded Enclosure or null if none.
+     */
+    public static byte[] toByteArray(Enclosure enclosure) {
+        if (enclosure == null)
+            return null;
+
+        try {
+            ByteArrayOutputStream byteArrayStream = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(byteArrayStream);
+            BlobFormat.writeHeader(out, CODEC_MAGIC, CODEC_VERSION);
+            BlobFormat.writeString(out, enclosure.url);
+            BlobFormat.writeString(out, enclosure.length);
+            BlobFormat.writeString(out, enclosure.mimeType);
+            out.close();
+            return byteArrayStream.toByteArray();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
     public static final Creator<Enclosure> CREATOR = new Creator<Enclosure>() {
         @Override
         public Enclosure createFromParcel(Parcel source) {
@@ -0,0 +1,17 @@
+package com.pkmmte.pkrss;
+
+import java.util.List;
+
+/**
+ * Notified whenever articles are dropped from memory to honor a {@link CachePolicy}.
+ * Called on the thread which loaded the feed causing the eviction, outside of any lock.
+ */
+public interface EvictionListener {
+	/**
+	 * @param url Safe URL of the feed the articles were evicted from.
+	 * @param evicted Evicted articles, oldest first.
+	 * @param feedRemoved {@code true} if no articles remain for this feed,
+	 * in which case it is reloaded from scratch next time.
+	 */
+	void onEvicted(String url, List<Article> evicted, boolean feedRemoved);
+}
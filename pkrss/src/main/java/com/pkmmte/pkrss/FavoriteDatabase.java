@@ -1,24 +1,29 @@
 package com.pkmmte.pkrss;
 
-import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
-import android.net.Uri;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Build;
 import android.text.TextUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * A rather simple SQLite database used for storing Article objects upon marked them as favorites. <p> <b>Warning:</b> <i>Extra article properties
  * will not be saved!</i>
+ * <p>
+ * The database is opened once in write-ahead logging mode and kept open for the life of this object,
+ * along with precompiled statements for the most frequent operations.
  */
 class FavoriteDatabase extends SQLiteOpenHelper {
 	// Basic Database Info
-	private static final int DATABASE_VERSION = 1;
+	private static final int DATABASE_VERSION = 2;
 	private static final String DATABASE_NAME = "db.pkrss.favorites";
 	private static final String TABLE_ARTICLES = "articles";
 
@@ -34,9 +39,26 @@ class FavoriteDatabase extends SQLiteOpenHelper {
 	private static final String KEY_AUTHOR = "AUTHOR";
 	private static final String KEY_DATE = "DATE";
 	private static final String KEY_ID = "ID";
+	private static final String KEY_ENCLOSURE = "ENCLOSURE";
+
+	// Projections in the order expected by read(Cursor)
+	private static final String[] COLUMNS = {KEY_TAGS, KEY_MEDIA_CONTENT, KEY_SOURCE, KEY_IMAGE, KEY_TITLE, KEY_DESCRIPTION, KEY_CONTENT, KEY_COMMENTS,
+		KEY_AUTHOR, KEY_DATE, KEY_ID, KEY_ENCLOSURE};
+	private static final String[] COLUMNS_WITHOUT_CONTENT = {KEY_TAGS, KEY_MEDIA_CONTENT, KEY_SOURCE, KEY_IMAGE, KEY_TITLE, KEY_DESCRIPTION, "NULL", KEY_COMMENTS,
+		KEY_AUTHOR, KEY_DATE, KEY_ID, KEY_ENCLOSURE};
+
+	// Long-lived handle and statements, created on first use
+	private SQLiteDatabase database;
+	private SQLiteStatement insertStatement;
+	private SQLiteStatement existsStatement;
+	private SQLiteStatement deleteStatement;
 
 	public FavoriteDatabase(Context context) {
 		super(context, DATABASE_NAME, null, DATABASE_VERSION);
+
+		// Lets reads run concurrently with writes
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN)
+			setWriteAheadLoggingEnabled(true);
 	}
 
 	@Override
@@ -65,15 +87,80 @@ class FavoriteDatabase extends SQLiteOpenHelper {
 			+ KEY_DATE
 			+ " TEXT , "
 			+ KEY_ID
-			+ " INTEGER  NOT NULL  UNIQUE "
+			+ " INTEGER  NOT NULL  UNIQUE , "
+			+ KEY_ENCLOSURE
+			+ " BLOB "
 			+ ")";
 		db.execSQL(CREATE_ARTICLES_TABLE);
 	}
 
 	@Override
 	public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-		db.execSQL("DROP TABLE IF EXISTS " + TABLE_ARTICLES);
-		onCreate(db);
+		if (oldVersion < 2) {
+			db.execSQL("ALTER TABLE " + TABLE_ARTICLES + " ADD COLUMN " + KEY_ENCLOSURE + " BLOB");
+			migrateMediaContent(db);
+		}
+	}
+
+	/**
+	 * Re-encodes media content stored through Java serialization by version 1 into the current format.
+	 */
+	private void migrateMediaContent(SQLiteDatabase db) {
+		Cursor cursor = db.query(TABLE_ARTICLES, new String[] {"ROWID", KEY_MEDIA_CONTENT}, null, null, null, null, null);
+		SQLiteStatement update = db.compileStatement("UPDATE " + TABLE_ARTICLES + " SET " + KEY_MEDIA_CONTENT + " = ? WHERE ROWID = ?");
+		try {
+			while (cursor.moveToNext()) {
+				byte[] mediaContent = Article.MediaContent.toByteArray(Article.MediaContent.fromByteArray(cursor.getBlob(1)));
+				update.clearBindings();
+				if (mediaContent != null)
+					update.bindBlob(1, mediaContent);
+				update.bindLong(2, cursor.getLong(0));
+				update.executeUpdateDelete();
+			}
+		} finally {
+			cursor.close();
+			update.close();
+		}
+	}
+
+	@Override
+	public void onOpen(SQLiteDatabase db) {
+		super.onOpen(db);
+		if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN && !db.isReadOnly())
+			db.enableWriteAheadLogging();
+	}
+
+	/**
+	 * Closes the database handle and all precompiled statements.
+	 * It is reopened as needed if used again afterwards.
+	 */
+	@Override
+	public synchronized void close() {
+		if (insertStatement != null) {
+			insertStatement.close();
+			existsStatement.close();
+			deleteStatement.close();
+			insertStatement = null;
+			existsStatement = null;
+			deleteStatement = null;
+		}
+		database = null;
+		super.close();
+	}
+
+	/**
+	 * @return The shared database handle, opening it and compiling statements if needed.
+	 */
+	private synchronized SQLiteDatabase database() {
+		if (database == null) {
+			database = getWritableDatabase();
+			insertStatement = database.compileStatement("INSERT OR IGNORE INTO " + TABLE_ARTICLES + " (" + KEY_TAGS + ", " + KEY_MEDIA_CONTENT + ", "
+				+ KEY_SOURCE + ", " + KEY_IMAGE + ", " + KEY_TITLE + ", " + KEY_DESCRIPTION + ", " + KEY_CONTENT + ", " + KEY_COMMENTS + ", "
+				+ KEY_AUTHOR + ", " + KEY_DATE + ", " + KEY_ID + ", " + KEY_ENCLOSURE + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+			existsStatement = database.compileStatement("SELECT COUNT(*) FROM " + TABLE_ARTICLES + " WHERE " + KEY_ID + " = ?");
+			deleteStatement = database.compileStatement("DELETE FROM " + TABLE_ARTICLES + " WHERE " + KEY_ID + " = ?");
+		}
+		return database;
 	}
 
 	/**
@@ -81,27 +168,52 @@ class FavoriteDatabase extends SQLiteOpenHelper {
 	 *
 	 * @param article Object to save into database.
 	 */
-	public void add(Article article) {
+	public synchronized void add(Article article) {
 		// Get Write Access
-		SQLiteDatabase db = this.getWritableDatabase();
-
-		// Build Content Values
-		ContentValues values = new ContentValues();
-		values.put(KEY_TAGS, TextUtils.join("_PCX_", article.getTags()));
-		values.put(KEY_MEDIA_CONTENT, Article.MediaContent.toByteArray(article.getMediaContent()));
-		values.put(KEY_SOURCE, article.getSource().toString());
-		values.put(KEY_IMAGE, article.getImage().toString());
-		values.put(KEY_TITLE, article.getTitle());
-		values.put(KEY_DESCRIPTION, article.getDescription());
-		values.put(KEY_CONTENT, article.getContent());
-		values.put(KEY_COMMENTS, article.getComments());
-		values.put(KEY_AUTHOR, article.getAuthor());
-		values.put(KEY_DATE, article.getDate());
-		values.put(KEY_ID, article.getId());
-
-		// Insert & Close
-		db.insert(TABLE_ARTICLES, null, values);
-		db.close();
+		database();
+		insert(article);
+	}
+
+	/**
+	 * Inserts all specified Article objects to this database in a single transaction.
+	 *
+	 * @param articles Objects to save into database.
+	 */
+	public synchronized void addAll(Collection<Article> articles) {
+		SQLiteDatabase db = database();
+		db.beginTransactionNonExclusive();
+		try {
+			for (Article article : articles)
+				insert(article);
+			db.setTransactionSuccessful();
+		} finally {
+			db.endTransaction();
+		}
+	}
+
+	private void insert(Article article) {
+		// Bind values in column order
+		SQLiteStatement statement = insertStatement;
+		statement.clearBindings();
+		bind(statement, 1, TextUtils.join("_PCX_", article.getTags()));
+		byte[] mediaContent = Article.MediaContent.toByteArray(article.getMediaContent());
+		if (mediaContent != null)
+			statement.bindBlob(2, mediaContent);
+		bind(statement, 3, article.getSource());
+		bind(statement, 4, article.getImage());
+		bind(statement, 5, article.getTitle());
+		bind(statement, 6, article.getDescription());
+		bind(statement, 7, article.getContent());
+		bind(statement, 8, article.getComments());
+		bind(statement, 9, article.getAuthor());
+		statement.bindLong(10, article.getDate());
+		statement.bindLong(11, article.getId());
+		byte[] enclosure = Enclosure.toByteArray(article.getEnclosure());
+		if (enclosure != null)
+			statement.bindBlob(12, enclosure);
+
+		// Insert
+		statement.executeInsert();
 	}
 
 	/**
@@ -110,94 +222,137 @@ class FavoriteDatabase extends SQLiteOpenHelper {
 	 */
 	public Article get(int id) {
 		// Get Read Access
-		SQLiteDatabase db = this.getReadableDatabase();
+		SQLiteDatabase db = database();
 
 		// Execute query with specified id
-		Cursor cursor = db.query(TABLE_ARTICLES,
-		                         new String[] {KEY_TAGS, KEY_MEDIA_CONTENT, KEY_SOURCE, KEY_IMAGE, KEY_TITLE, KEY_DESCRIPTION, KEY_CONTENT, KEY_COMMENTS, KEY_AUTHOR,
-			                         KEY_DATE, KEY_ID}, KEY_ID + "=?", new String[] {String.valueOf(id)}, null, null, null, null);
+		Cursor cursor = db.query(TABLE_ARTICLES, COLUMNS, KEY_ID + "=?", new String[] {String.valueOf(id)}, null, null, null, null);
 		Article article = null;
 
 		try {
 			// Attempt to retrieve article
-			if (cursor != null) {
-				cursor.moveToFirst();
-				article = new Article(null, Arrays.asList(cursor.getString(0).split("_PCX_")), Article.MediaContent.fromByteArray(cursor.getBlob(1)), Uri.parse(cursor.getString(2)),
-				                      Uri.parse(cursor.getString(3)), cursor.getString(4), cursor.getString(5), cursor.getString(6),
-				                      cursor.getString(7), cursor.getString(8), cursor.getLong(9), cursor.getInt(10));
-			}
+			if (cursor != null && cursor.moveToFirst())
+				article = read(cursor);
 		} finally {
 			// Close Cursor
 			if (cursor != null) cursor.close();
 		}
 
-		// Close & Return
-		db.close();
 		return article;
 	}
 
 	/**
-	 * @return A backwards Article ArrayList ordered from last added to end.
+	 * Reads a window of articles.
+	 * @param byDate {@code true} to order from newest to oldest publication date,
+	 * {@code false} to order from last added to first.
+	 * @param withContent {@code false} to skip reading the content column, leaving it null.
+	 * @param offset Number of articles to skip.
+	 * @param limit Maximum number of articles to read.
+	 * @return An Article ArrayList of up to {@code limit} articles.
 	 */
-	public List<Article> getAll() {
-		// Init List & Build Query
-		List<Article> articleList = new ArrayList<Article>();
-		String selectQuery = "SELECT  * FROM " + TABLE_ARTICLES;
-
-		// Get Write Access & Execute Query
-		SQLiteDatabase db = this.getWritableDatabase();
-		Cursor cursor = db.rawQuery(selectQuery, null);
-
-		// Read the query backwards
-		if (cursor.moveToLast()) {
-			do {
-				articleList.add(new Article(null, Arrays.asList(cursor.getString(0).split("_PCX_")), Article.MediaContent.fromByteArray(cursor.getBlob(1)), Uri.parse(cursor.getString(2)),
-				                            Uri.parse(cursor.getString(3)), cursor.getString(4), cursor.getString(5), cursor.getString(6),
-				                            cursor.getString(7), cursor.getString(8), cursor.getLong(9), cursor.getInt(10)));
-			} while (cursor.moveToPrevious());
+	public List<Article> getPage(boolean byDate, boolean withContent, int offset, int limit) {
+		// Dates are stored in a TEXT column so compare them as numbers
+		String orderBy = byDate ? "CAST(" + KEY_DATE + " AS INTEGER) DESC, ROWID DESC" : "ROWID DESC";
+		Cursor cursor = database().query(TABLE_ARTICLES, withContent ? COLUMNS : COLUMNS_WITHOUT_CONTENT, null, null, null, null,
+		                                 orderBy, offset + "," + limit);
+
+		List<Article> articleList = new ArrayList<Article>(cursor.getCount());
+		try {
+			while (cursor.moveToNext())
+				articleList.add(read(cursor));
+		} finally {
+			cursor.close();
 		}
-		cursor.close();
-		db.close();
 
 		return articleList;
 	}
 
 	/**
-	 * @param id ID to search for.
-	 * @return {@code true} if found or {@code false} if otherwise.
+	 * @return Number of articles in this database.
 	 */
-	public boolean contains(int id) {
-		// Get Read Access & Execute Query
-		SQLiteDatabase db = this.getReadableDatabase();
-		Cursor cursor = db.query(TABLE_ARTICLES,
-		                         new String[] {KEY_TAGS, KEY_MEDIA_CONTENT, KEY_SOURCE, KEY_IMAGE, KEY_TITLE, KEY_DESCRIPTION, KEY_CONTENT, KEY_COMMENTS, KEY_AUTHOR,
-			                         KEY_DATE, KEY_ID}, KEY_ID + "=?", new String[] {String.valueOf(id)}, null, null, null, null);
+	public int count() {
+		return (int) DatabaseUtils.queryNumEntries(database(), TABLE_ARTICLES);
+	}
 
-		// Check if any row exists for this query
-		boolean exists = cursor.moveToFirst();
+	/**
+	 * Builds an Article out of the current row of a cursor over {@link #COLUMNS}.
+	 */
+	private static Article read(Cursor cursor) {
+		Article article = new Article(null, Arrays.asList(cursor.getString(0).split("_PCX_")), Article.MediaContent.fromByteArray(cursor.getBlob(1)), ArticleDatabase.parseUri(cursor.getString(2)),
+		                              ArticleDatabase.parseUri(cursor.getString(3)), cursor.getString(4), cursor.getString(5), cursor.getString(6),
+		                              cursor.getString(7), cursor.getString(8), cursor.getLong(9), cursor.getInt(10));
+		article.setEnclosure(Enclosure.fromByteArray(cursor.getBlob(11)));
+		return article;
+	}
 
-		// Close & Return
-		cursor.close();
-		db.close();
-		return exists;
+	/**
+	 * @param id ID to search for.
+	 * @return {@code true} if found or {@code false} if otherwise.
+	 */
+	public synchronized boolean contains(int id) {
+		// Only touches the unique index on the id column
+		database();
+		existsStatement.bindLong(1, id);
+		return existsStatement.simpleQueryForLong() > 0;
 	}
 
 	/**
 	 * Removes a specified Article from this database based on its ID value.
 	 * @param article Article to remove. May contain dummy data as long as the id is valid.
 	 */
-	public void delete(Article article) {
-		SQLiteDatabase db = this.getWritableDatabase();
-		db.delete(TABLE_ARTICLES, KEY_ID + " = ?", new String[] {String.valueOf(article.getId())});
-		db.close();
+	public synchronized void delete(Article article) {
+		database();
+		deleteStatement.bindLong(1, article.getId());
+		deleteStatement.executeUpdateDelete();
+	}
+
+	/**
+	 * Removes all Articles with the specified IDs from this database in a single transaction.
+	 * @param ids IDs of the articles to remove.
+	 */
+	public synchronized void deleteAll(int[] ids) {
+		SQLiteDatabase db = database();
+		db.beginTransactionNonExclusive();
+		try {
+			for (int id : ids) {
+				deleteStatement.bindLong(1, id);
+				deleteStatement.executeUpdateDelete();
+			}
+			db.setTransactionSuccessful();
+		} finally {
+			db.endTransaction();
+		}
+	}
+
+	/**
+	 * Reads only the id column, without loading any articles.
+	 * @return The IDs of all stored articles in ascending order.
+	 */
+	public int[] ids() {
+		Cursor cursor = database().query(TABLE_ARTICLES, new String[] {KEY_ID}, null, null, null, null, KEY_ID);
+		try {
+			int[] ids = new int[cursor.getCount()];
+			for (int i = 0; cursor.moveToNext(); i++)
+				ids[i] = cursor.getInt(0);
+			return ids;
+		} finally {
+			cursor.close();
+		}
 	}
 
 	/**
 	 * Removes ALL content stored in this database!
 	 */
 	public void deleteAll() {
-		SQLiteDatabase db = this.getWritableDatabase();
-		db.delete(TABLE_ARTICLES, null, null);
-		db.close();
+		database().delete(TABLE_ARTICLES, null, null);
+	}
+
+	/**
+	 * Binds a value as text or null, as SQLiteStatement doesn't accept null Strings.
+	 */
+	private static void bind(SQLiteStatement statement, int index, Object value) {
+		if (value == null)
+			statement.bindNull(index);
+		else
+			statement.bindString(index, value.toString());
 	}
 }
\ No newline at end of file
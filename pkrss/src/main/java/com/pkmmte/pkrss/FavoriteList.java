@@ -0,0 +1,100 @@
+package com.pkmmte.pkrss;
+
+import java.util.AbstractList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * A read-only view of the favorites database which only reads articles when accessed,
+ * one page at a time. Only the most recently accessed pages are kept in memory.
+ * <p>
+ * The size is taken upon creation. Should a read find that favorites were deleted in the meantime,
+ * the size is updated and positions past the new end throw {@link IndexOutOfBoundsException}.
+ * Never returns null.
+ * Use {@link PkRSS#getFavorites(Order, int, boolean)} to obtain one.
+ */
+public class FavoriteList extends AbstractList<Article> implements RandomAccess {
+	/**
+	 * Order of the articles in the list.
+	 */
+	public enum Order {
+		/** Last added first. */
+		ADDED,
+		/** Newest publication date first. */
+		DATE
+	}
+
+	// Number of pages to keep in memory
+	private static final int MAX_PAGES = 4;
+
+	private final FavoriteDatabase database;
+	private final Order order;
+	private final int pageSize;
+	private final boolean withContent;
+	private int size;
+
+	// Recently read pages by page index, least recently accessed first
+	private final Map<Integer, List<Article>> pages = new LinkedHashMap<Integer, List<Article>>(MAX_PAGES + 1, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, List<Article>> eldest) {
+			return size() > MAX_PAGES;
+		}
+	};
+
+	FavoriteList(FavoriteDatabase database, Order order, int pageSize, boolean withContent) {
+		if (pageSize < 1)
+			throw new IllegalArgumentException("pageSize must be at least 1!");
+
+		this.database = database;
+		this.order = order;
+		this.pageSize = pageSize;
+		this.withContent = withContent;
+		this.size = database.count();
+	}
+
+	@Override
+	public synchronized Article get(int location) {
+		if (location < 0 || location >= size)
+			throw new IndexOutOfBoundsException("Invalid index " + location + ", size is " + size);
+
+		int page = location / pageSize;
+		int index = location % pageSize;
+		List<Article> articles = readPage(page);
+		if (index >= articles.size()) {
+			// Favorites were deleted since, start over from the current contents
+			size = database.count();
+			pages.clear();
+			modCount++;
+			if (location >= size)
+				throw new IndexOutOfBoundsException("Invalid index " + location + ", size is now " + size);
+
+			articles = readPage(page);
+			if (index >= articles.size())
+				throw new IndexOutOfBoundsException("Invalid index " + location + ", favorites changed while reading");
+		}
+		return articles.get(index);
+	}
+
+	private List<Article> readPage(int page) {
+		List<Article> articles = pages.get(page);
+		if (articles == null) {
+			articles = database.getPage(order == Order.DATE, withContent, page * pageSize, pageSize);
+			pages.put(page, articles);
+		}
+		return articles;
+	}
+
+	@Override
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * @return {@code true} if articles in this list include their content.
+	 */
+	public boolean hasContent() {
+		return withContent;
+	}
+}
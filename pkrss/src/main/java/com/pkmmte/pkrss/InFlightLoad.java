@@ -0,0 +1,74 @@
+package com.pkmmte.pkrss;
+
+import com.pkmmte.pkrss.parser.Parser;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A load currently running for a request URL, which identical requests may wait on
+ * rather than downloading and parsing the same feed again.
+ */
+class InFlightLoad {
+	final Parser parser;
+	private final CountDownLatch done = new CountDownLatch(1);
+	private List<Article> articles;
+	private IOException error;
+	private boolean abandoned;
+
+	/**
+	 * @param parser Parser used by this load. Only requests using the same one may share it.
+	 */
+	InFlightLoad(Parser parser) {
+		this.parser = parser;
+	}
+
+	/**
+	 * @param articles Newly parsed articles or null if the feed wasn't modified.
+	 */
+	void complete(List<Article> articles) {
+		this.articles = articles;
+		done.countDown();
+	}
+
+	void fail(IOException error) {
+		this.error = error;
+		done.countDown();
+	}
+
+	/**
+	 * Releases waiting requests without an outcome, as the request running this load was
+	 * cancelled. Each of them should load again, one taking over for the others.
+	 */
+	void abandon() {
+		this.abandoned = true;
+		done.countDown();
+	}
+
+	/**
+	 * Blocks until the load is done.
+	 * @return {@code false} if the load was abandoned and should be made again, {@code true} otherwise.
+	 * @throws IOException If the load failed or the calling thread was interrupted.
+	 */
+	boolean await() throws IOException {
+		try {
+			done.await();
+		}
+		catch (InterruptedException e) {
+			throw new InterruptedIOException("Interrupted while waiting for an identical request");
+		}
+
+		if (error != null)
+			throw error;
+		return !abandoned;
+	}
+
+	/**
+	 * @return Newly parsed articles or null if the feed wasn't modified.
+	 * Only valid once {@link #await()} returned {@code true}.
+	 */
+	List<Article> articles() {
+		return articles;
+	}
+}
@@ -0,0 +1,16 @@
+package com.pkmmte.pkrss;
+
+/**
+ * A {@link Callback} which also wants to know when a feed was skipped because the server
+ * reported that it hasn't changed since it was last loaded.
+ * <p>
+ * Plain {@link Callback} implementations are notified through {@link Callback#onLoaded(java.util.List)}
+ * with an empty list instead.
+ */
+public interface NotModifiedCallback extends Callback {
+	/**
+	 * Called instead of {@link #onLoaded(java.util.List)} when the feed is unchanged.
+	 * Previously loaded articles remain available through {@link PkRSS#get(String)}.
+	 */
+	void onNotModified();
+}
@@ -1,23 +1,32 @@
 package com.pkmmte.pkrss;
 
 import android.content.Context;
-import android.content.SharedPreferences;
 import android.net.Uri;
-import android.os.AsyncTask;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
-import android.util.SparseBooleanArray;
+import com.pkmmte.pkrss.downloader.CacheValidator;
 import com.pkmmte.pkrss.downloader.DefaultDownloader;
 import com.pkmmte.pkrss.downloader.Downloader;
+import com.pkmmte.pkrss.downloader.DownloaderStats;
+import com.pkmmte.pkrss.downloader.FeedResponse;
+import com.pkmmte.pkrss.downloader.HttpStatusException;
 import com.pkmmte.pkrss.downloader.OkHttpDownloader;
 import com.pkmmte.pkrss.parser.Parser;
 import com.pkmmte.pkrss.parser.Rss2Parser;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 /**
  * A powerful RSS feed manager for Android
@@ -44,32 +53,57 @@ public class PkRSS {
 	private volatile boolean loggingEnabled;
 	protected static final String TAG = "PkRSS";
 
+	// Number of favorites read at once by default
+	private static final int FAVORITES_PAGE_SIZE = 50;
+
 	// Callback Thread Handler
 	protected final CallbackHandler handler;
 
 	// Safely handle callbacks
 	protected final boolean safe;
 
+	// Runs asynchronous requests within the configured limits
+	final Dispatcher dispatcher;
+
 	// Context is always useful for some reason.
 	private final Context mContext;
 
-	// For storing & reading read data
-	private final SharedPreferences mPrefs;
-
 	// Our handy client for getting XML feed data
 	private final Downloader downloader;
 
 	// Reusable XML Parser
 	private final Parser parser;
 
-	// List of stored articles
-	private final Map<String, List<Article>> articleMap = new HashMap<String, List<Article>>();
+	// All loaded articles, by feed and by id
+	private final ArticleStore articleStore;
+
+	// Cache validators of the last response for each request URL
+	private final Map<String, CacheValidator> validators = new ConcurrentHashMap<String, CacheValidator>();
+
+	// Safe URL of the feed each request URL with validators belongs to, to forget them along with it
+	private final Map<String, String> validatorFeeds = new ConcurrentHashMap<String, String>();
+
+	// Optional copy of loaded articles and validators surviving process restarts, written in the background
+	private final ArticleDatabase articleDatabase;
+	private final Executor diskExecutor;
+
+	// Feeds already looked up in the article database since they were last in memory
+	private final Set<String> restoredFeeds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	// How to retry failed downloads unless a request says otherwise
+	private final RetryPolicy retryPolicy;
+
+	// Hosts known to be down, null if disabled
+	private final CircuitBreaker circuitBreaker;
+
+	// Loads currently running, keyed by request URL
+	private final Map<String, InFlightLoad> inFlight = new HashMap<String, InFlightLoad>();
 
 	// Keep track of pages already loaded on specific feeds
-	private final Map<String, Integer> pageTracker = new HashMap<String, Integer>();
+	private final Map<String, Integer> pageTracker = new ConcurrentHashMap<String, Integer>();
 
-	// Persistent SparseArray for checking an article's read state
-	private final SparseBooleanArray readList = new SparseBooleanArray();
+	// Persistent set of article ids marked as read
+	private final ReadStateStore readState;
 
 	// Database storing all articles marked as favorite
 	private final FavoriteDatabase favoriteDatabase;
@@ -102,17 +136,23 @@ public class PkRSS {
 		PkRSS.singleton = singleton;
 	}
 
-	PkRSS(Context context, CallbackHandler handler, Downloader downloader, Parser parser, boolean loggingEnabled, boolean safe) {
+	PkRSS(Context context, CallbackHandler handler, Dispatcher dispatcher, Downloader downloader, Parser parser, CachePolicy cachePolicy,
+	      ArticleDatabase articleDatabase, RetryPolicy retryPolicy, CircuitBreaker circuitBreaker, boolean loggingEnabled, boolean safe) {
 		this.mContext = context;
 		this.handler = handler;
+		this.dispatcher = dispatcher;
 		this.downloader = downloader;
 		this.downloader.attachInstance(this);
 		this.parser = parser;
 		this.parser.attachInstance(this);
 		this.loggingEnabled = loggingEnabled;
 		this.safe = safe;
-		this.mPrefs = context.getSharedPreferences(TAG, Context.MODE_PRIVATE);
-		getRead();
+		this.articleStore = new ArticleStore(cachePolicy, new EvictionHandler(cachePolicy.listener));
+		this.articleDatabase = articleDatabase;
+		this.retryPolicy = retryPolicy;
+		this.circuitBreaker = circuitBreaker;
+		this.diskExecutor = articleDatabase == null ? null : Utils.createSerialExecutor("PkRSS Offline Cache");
+		this.readState = new ReadStateStore(context.getFilesDir(), context.getSharedPreferences(TAG, Context.MODE_PRIVATE));
 		favoriteDatabase = new FavoriteDatabase(context);
 	}
 
@@ -145,13 +185,57 @@ public class PkRSS {
 		return new RequestCreator(this, url);
 	}
 
+	/**
+	 * Asynchronously loads all of the specified requests at once, within the limits set
+	 * through {@link PkRSS.Builder#maxRequests(int)} and {@link PkRSS.Builder#maxRequestsPerHost(int)}.
+	 * @param requests Requests to execute. Each one still notifies its own {@link Callback}.
+	 */
+	public void loadAll(Collection<RequestCreator> requests) {
+		loadAll(requests, null);
+	}
+
+	/**
+	 * Asynchronously loads all of the specified requests at once, within the limits set
+	 * through {@link PkRSS.Builder#maxRequests(int)} and {@link PkRSS.Builder#maxRequestsPerHost(int)}.
+	 * @param requests Requests to execute. Each one still notifies its own {@link Callback}.
+	 * @param callback Callback to notify once every request has finished. May be null.
+	 */
+	public void loadAll(Collection<RequestCreator> requests, BatchCallback callback) {
+		if (requests.isEmpty()) {
+			handler.onBatchLoaded(safe, callback, new ArrayList<Request>(), new ArrayList<Request>());
+			return;
+		}
+
+		Batch batch = new Batch(handler, safe, callback, requests.size());
+		for (RequestCreator request : requests)
+			request.async(batch);
+	}
+
 	/**
 	 * Handles the specified {@link Request}. May throw an {@link IOException} for
 	 * mishandled URLs or timeouts.
 	 * @param request Request to execute.
+	 * @return Newly loaded articles or null if the feed wasn't modified or there's nothing to load.
 	 * @throws IOException
 	 */
-	protected void load(final Request request) throws IOException {
+	protected List<Article> load(final Request request) throws IOException {
+		return load(request, 0, true);
+	}
+
+	/**
+	 * Same as {@link #load(Request)} but makes a single download attempt, for asynchronous
+	 * requests which wait for retries on a timer rather than on their worker thread.
+	 * @param attempt Number of attempts already made. Only the first one notifies {@link Callback#onPreload()}.
+	 * @throws RetryException If the download failed and should be attempted again.
+	 */
+	List<Article> load(Request request, int attempt) throws IOException {
+		return load(request, attempt, false);
+	}
+
+	/**
+	 * @param blocking Whether to wait for retries on the calling thread.
+	 */
+	private List<Article> load(final Request request, int attempt, boolean blocking) throws IOException {
 		log("load(" + request + ')');
 		final CallbackHandler handler = request.handler != null ? request.handler : this.handler;
 		final boolean safe = request.safe != null ? request.safe : this.safe;
@@ -160,49 +244,259 @@ public class PkRSS {
 		// Don't load if URL is the favorites key
 		if(request.url.equals(KEY_FAVORITES)) {
 			log("Favorites URL detected, skipping load...");
-			return;
+			return null;
 		}
 
 		// Notify callback
-		handler.onPreload(safe, callback);
+		if (attempt == 0)
+			handler.onPreload(safe, callback);
 
 		// Create safe url for pagination/indexing purposes
-		String safeUrl = request.downloader == null ? downloader.toSafeUrl(request) : request.downloader.toSafeUrl(request);
+		Downloader downloader = getDownloader(request);
+		String safeUrl = downloader.toSafeUrl(request);
+		String url = downloader.toUrl(request);
 
 		// Put the page index into the request's HashMap
 		pageTracker.put(safeUrl, request.page);
 
-		// Get response from this request
-		String response = request.downloader == null ? downloader.execute(request) : request.downloader.execute(request);
+		// Share an identical load if one is already running, otherwise let others share this one
+		Parser parser = request.parser == null ? this.parser : request.parser;
+		List<Article> newArticles;
+		while (true) {
+			InFlightLoad shared = null;
+			InFlightLoad own = null;
+			synchronized (inFlight) {
+				InFlightLoad running = inFlight.get(url);
+				if (running == null) {
+					own = new InFlightLoad(parser);
+					inFlight.put(url, own);
+				}
+				else if (running.parser == parser) {
+					shared = running;
+				}
+			}
 
-		// Parse articles from response and inset into global list
-		List<Article> newArticles = request.parser == null ? parser.parse(response) : request.parser.parse(response);
-		insert(safeUrl, newArticles);
+			if (shared == null) {
+				try {
+					newArticles = fetch(request, downloader, parser, safeUrl, url, handler, safe, attempt, blocking);
+				}
+				catch (IOException e) {
+					finish(url, own, null, e);
+					throw e;
+				}
+				catch (RuntimeException e) {
+					finish(url, own, null, new IOException(e));
+					throw e;
+				}
+				finish(url, own, newArticles, null);
+				break;
+			}
+
+			log("Waiting for identical request to " + url + " already running...");
+			if (shared.await()) {
+				newArticles = shared.articles();
+
+				// Streamed requests get everything at once
+				ArticleSink sink = request.sink != null ? request.sink.get() : null;
+				if (newArticles != null && !newArticles.isEmpty())
+					handler.onArticles(safe, sink, newArticles);
+				break;
+			}
+
+			log("Identical request to " + url + " was cancelled, loading again...");
+		}
 
 		// Notify callback
-		handler.onLoaded(safe, callback, newArticles);
+		if (newArticles == null)
+			handler.onNotModified(safe, callback);
+		else
+			handler.onLoaded(safe, callback, newArticles);
+		return newArticles;
+	}
+
+	/**
+	 * Lets requests waiting on a load know its outcome, once no other request can join it.
+	 * If the request running it was cancelled or is waiting to retry, they're left to load again instead.
+	 * @param own Load to finish. May be null if it wasn't shared.
+	 * @param error Cause of failure or null if successful.
+	 */
+	private void finish(String url, InFlightLoad own, List<Article> articles, IOException error) {
+		if (own == null)
+			return;
+
+		synchronized (inFlight) {
+			inFlight.remove(url);
+		}
+
+		if (error == null)
+			own.complete(articles);
+		else if (isAbandoned(error))
+			own.abandon();
+		else
+			own.fail(error);
 	}
 
 	/**
-	 * Returns a {@link HashMap<String, List<Article>} containing all loaded
+	 * @return {@code true} if the load stopped because the request running it was interrupted or is
+	 * waiting to retry, rather than because it failed. Timeouts are failures even though
+	 * {@link SocketTimeoutException} is an {@link InterruptedIOException}, so waiters don't each sit
+	 * through one again.
+	 */
+	private static boolean isAbandoned(IOException error) {
+		if (error instanceof RetryException || Thread.currentThread().isInterrupted())
+			return true;
+		return error instanceof InterruptedIOException && !(error instanceof SocketTimeoutException);
+	}
+
+	/**
+	 * Downloads, parses and stores a feed.
+	 * @return Newly parsed articles or null if the feed wasn't modified since it was last loaded.
+	 * @throws IOException
+	 */
+	private List<Article> fetch(Request request, Downloader downloader, Parser parser, String safeUrl, String url,
+	                            CallbackHandler handler, boolean safe, int attempt, boolean blocking) throws IOException {
+		// Bring back articles stored by a previous run, if any
+		restore(safeUrl);
+
+		// Only make a conditional request if we still have the articles to fall back on
+		CacheValidator validator = articleStore.contains(safeUrl) ? getValidator(url, safeUrl) : null;
+
+		// Get response stream from this request
+		String host = Uri.parse(url).getHost();
+		FeedResponse response = download(request, downloader, validator, host, attempt, blocking);
+
+		// Skip parsing entirely if nothing changed since last time
+		if (response.isNotModified()) {
+			response.close();
+			recordOutcome(host, null);
+			if (response.validator() != null)
+				putValidator(url, safeUrl, response.validator());
+
+			log(url + " not modified, skipping parse...");
+			return null;
+		}
+
+		// Emit articles as they're parsed if this request is being streamed
+		ArticleSink sink = request.sink != null ? request.sink.get() : null;
+		ArticleBatcher batcher = sink == null ? null : new ArticleBatcher(handler, safe, sink, request.sinkBatchSize, request.sinkBatchInterval);
+
+		// Parse articles while the response is still being read
+		List<Article> newArticles;
+		try {
+			newArticles = parser.parse(response.stream(), response.charset(), batcher);
+		} finally {
+			response.close();
+
+			// Only a broken connection counts against the host, not a feed failing to parse
+			recordOutcome(host, response.error());
+		}
+
+		// Deliver anything still held back by the batcher
+		if (batcher != null)
+			batcher.flush();
+
+		// Parsers may have swallowed a broken connection, don't treat partial data as a success
+		if (response.error() != null)
+			throw response.error();
+
+		// Remember validators for the next load of this URL
+		putValidator(url, safeUrl, response.validator());
+
+		// Insert parsed articles into global list
+		insert(safeUrl, newArticles);
+		return newArticles;
+	}
+
+	/**
+	 * Opens the response stream of a request, retrying failures according to its {@link RetryPolicy}.
+	 * Fails right away without touching the network if its host is known to be down.
+	 * The circuit breaker hears about a failure only once the last attempt has failed.
+	 * @param attempt Number of attempts already made.
+	 * @param blocking Whether to wait for retries on the calling thread. Otherwise a {@link RetryException}
+	 * is thrown when another attempt is due.
+	 * @throws IOException
+	 */
+	private FeedResponse download(Request request, Downloader downloader, CacheValidator validator, String host,
+	                              int attempt, boolean blocking) throws IOException {
+		RetryPolicy policy = request.retryPolicy != null ? request.retryPolicy : retryPolicy;
+		for (; ; attempt++) {
+			if (circuitBreaker != null && host != null && !circuitBreaker.allow(host))
+				throw new IOException(host + " is unavailable, not trying again for now");
+
+			try {
+				return downloader.executeStream(request, validator);
+			}
+			catch (IOException e) {
+				// Give up if out of retries, cancelled or turned down by the server
+				if (attempt >= policy.maxRetries || Thread.currentThread().isInterrupted() || !isHostFailure(e)) {
+					recordOutcome(host, e);
+					throw e;
+				}
+
+				long backoff = policy.backoff(attempt + 1);
+				log("Error downloading " + request.url + ", retrying in " + backoff + "ms... " + e.getMessage(), Log.WARN);
+				if (!blocking)
+					throw new RetryException(e, backoff);
+
+				try {
+					Thread.sleep(backoff);
+				}
+				catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted while waiting to retry " + request.url);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tells the circuit breaker, if any, how a load went. Cancelled loads are left out.
+	 * @param host Host the load was made to. May be null.
+	 * @param error Error the load failed with or null if the host answered fine.
+	 */
+	private void recordOutcome(String host, IOException error) {
+		if (circuitBreaker == null || host == null || Thread.currentThread().isInterrupted())
+			return;
+
+		if (error == null || !isHostFailure(error))
+			circuitBreaker.success(host);
+		else
+			circuitBreaker.failure(host);
+	}
+
+	/**
+	 * @return {@code true} for I/O errors and server errors (5xx), {@code false} if the server
+	 * turned the request down (4xx), which retrying won't change.
+	 */
+	private static boolean isHostFailure(IOException e) {
+		return !(e instanceof HttpStatusException) || ((HttpStatusException) e).isServerError();
+	}
+
+	/**
+	 * Returns a {@link Map} containing all loaded
 	 * Article objects. The map key being the safe url.
-	 * @return
+	 * @return An unmodifiable snapshot, not updated by later loads.
 	 */
 	public Map<String, List<Article>> get() {
-		return articleMap;
+		return articleStore.asMap();
 	}
 
 	/**
 	 * Looks up the specified URL String from the saved HashMap.
+	 * <p>
+	 * If the offline cache is enabled through {@link PkRSS.Builder#offlineCache(long, long)},
+	 * articles stored by a previous run are read from disk the first time around. That read, like
+	 * looking up {@link PkRSS#KEY_FAVORITES}, blocks the calling thread, so either call this off the
+	 * main thread or load the feed first and use the articles handed to its callback.
 	 * @param url Safe URL to look up loaded articles from. May also be {@link PkRSS#KEY_FAVORITES}.
 	 * @return A {@link List} containing all loaded articles associated with that
-	 * URL. May be null if no such URL has yet been loaded.
+	 * URL. May be null if no such URL has yet been loaded. This is a copy, not updated by later loads.
 	 */
 	public List<Article> get(String url) {
 		if(url.equals(KEY_FAVORITES))
 			return getFavorites();
 
-		return articleMap.get(url);
+		return getFeed(url);
 	}
 
 	/**
@@ -214,9 +508,9 @@ public class PkRSS {
 	 */
 	public List<Article> get(String url, String search) {
 		if(search == null)
-			return articleMap.get(url);
+			return getFeed(url);
 
-		return articleMap.get(url + "?s=" + Uri.encode(search));
+		return getFeed(url + "?s=" + Uri.encode(search));
 	}
 
 	/**
@@ -228,22 +522,16 @@ public class PkRSS {
 	public Article get(int id) {
 		long time = System.currentTimeMillis();
 
-		// Look for an article with this id in the Article HashMap
-		for(List<Article> articleList : articleMap.values()) {
-			for(Article article : articleList) {
-				if(article.getId() == id) {
-					log("get(" + id + ") took " + (System.currentTimeMillis() - time) + "ms");
-					return article;
-				}
-			}
-		}
+		// Look for an article with this id in the loaded articles index
+		Article article = articleStore.get(id);
 
-		// If none was found, try searching in the favorites database
-		for(Article article : favoriteDatabase.getAll()) {
-			if(article.getId() == id) {
-				log("get(" + id + ") took " + (System.currentTimeMillis() - time) + "ms");
-				return article;
-			}
+		// If none was found, look it up in the favorites database
+		if(article == null)
+			article = favoriteDatabase.get(id);
+
+		if(article != null) {
+			log("get(" + id + ") took " + (System.currentTimeMillis() - time) + "ms");
+			return article;
 		}
 
 		log("Could not find Article with id " + id, Log.WARN);
@@ -252,11 +540,41 @@ public class PkRSS {
 	}
 
 	/**
-	 * Retrieves an ArrayList of articles from the Favorite Database.
+	 * @return A snapshot of the hit, miss and eviction counts of the loaded articles cache
+	 * along with its current size.
+	 */
+	public CacheStats cacheStats() {
+		return articleStore.stats();
+	}
+
+	/**
+	 * @return A snapshot of how requests made through this instance's {@link Downloader} were answered,
+	 * from the network or the HTTP cache.
+	 */
+	public DownloaderStats downloaderStats() {
+		return downloader.stats();
+	}
+
+	/**
+	 * Retrieves the articles from the Favorite Database, last added first.
+	 * Articles are read lazily as the list is accessed.
 	 * @return Either an Article List or null if database wasn't properly started.
 	 */
 	public List<Article> getFavorites() {
-		return favoriteDatabase == null ? null : favoriteDatabase.getAll();
+		return favoriteDatabase == null ? null : getFavorites(FavoriteList.Order.ADDED, FAVORITES_PAGE_SIZE, true);
+	}
+
+	/**
+	 * Retrieves the articles from the Favorite Database. Articles are read lazily as the list
+	 * is accessed, {@code pageSize} at a time.
+	 * @param order Order of the articles.
+	 * @param pageSize Number of articles to read at once.
+	 * @param withContent {@code false} to leave out the content of each article, which is
+	 * usually not needed for displaying a list and by far the largest part of it.
+	 * @return A read-only Article List.
+	 */
+	public FavoriteList getFavorites(FavoriteList.Order order, int pageSize, boolean withContent) {
+		return new FavoriteList(favoriteDatabase, order, pageSize, withContent);
 	}
 
 	/**
@@ -268,26 +586,19 @@ public class PkRSS {
 	public void markAllRead(boolean read) {
 		long time = System.currentTimeMillis();
 
-		// Just clear the array and return, if marking as unread
+		// Just clear the read state and return, if marking as unread
 		if(!read) {
-			readList.clear();
-			writeRead();
+			readState.clear();
 			log("markAllRead(" + String.valueOf(read) + ") took " + (System.currentTimeMillis() - time) + "ms");
 			return;
 		}
 
-		// Look for an article with this id in the Article HashMap
-		for(List<Article> articleList : articleMap.values()) {
-			for(Article article : articleList)
-				readList.put(article.getId(), read);
-		}
+		// Mark every loaded article
+		readState.markAll(articleStore.ids());
 
-		// If none was found, try searching in the favorites database
-		for(Article article : favoriteDatabase.getAll()) {
-			readList.put(article.getId(), read);
-		}
+		// Along with those in the favorites database
+		readState.markAll(favoriteDatabase.ids());
 
-		writeRead();
 		log("markAllRead(" + String.valueOf(read) + ") took " + (System.currentTimeMillis() - time) + "ms");
 	}
 
@@ -297,8 +608,7 @@ public class PkRSS {
 	 * @param read Whether or not to mark this id as read.
 	 */
 	public void markRead(int id, boolean read) {
-		readList.put(id, read);
-		writeRead();
+		readState.mark(id, read);
 	}
 
 	/**
@@ -307,7 +617,7 @@ public class PkRSS {
 	 * {@code false} if it has not yet been marked as read.
 	 */
 	public boolean isRead(int id) {
-		return readList.get(id, false);
+		return readState.isRead(id);
 	}
 
 	/**
@@ -365,6 +675,55 @@ public class PkRSS {
 		return true;
 	}
 
+	/**
+	 * Saves all specified {@link Article} objects to the favorites database at once.
+	 * Much faster than saving them one by one.
+	 * @param articles Article objects to save.
+	 * @return {@code true} if successful, {@code false} if otherwise.
+	 */
+	public boolean saveFavorites(Collection<Article> articles) {
+		long time = System.currentTimeMillis();
+		log("Adding " + articles.size() + " articles to favorites...");
+		try {
+			favoriteDatabase.addAll(articles);
+		}
+		catch (Exception e) {
+			log("Error saving articles to favorites database.", Log.ERROR);
+			return false;
+		}
+
+		log("Saving " + articles.size() + " articles to favorites took " + (System.currentTimeMillis() - time) + "ms");
+		return true;
+	}
+
+	/**
+	 * Deletes all articles with the specified ids from the favorites database at once.
+	 * @param ids IDs of the articles to delete.
+	 * @return {@code true} if successful, {@code false} if otherwise.
+	 */
+	public boolean deleteFavorites(int[] ids) {
+		long time = System.currentTimeMillis();
+		log("Deleting " + ids.length + " articles from favorites...");
+		try {
+			favoriteDatabase.deleteAll(ids);
+		}
+		catch (Exception e) {
+			log("Error deleting articles from favorites database.", Log.ERROR);
+			return false;
+		}
+
+		log("Deleting " + ids.length + " articles from favorites took " + (System.currentTimeMillis() - time) + "ms");
+		return true;
+	}
+
+	/**
+	 * Reads the ids of all favorite articles without loading the articles themselves.
+	 * @return IDs of all articles in the favorites database, in ascending order.
+	 */
+	public int[] favoriteIds() {
+		return favoriteDatabase.ids();
+	}
+
 	/**
 	 * Clears the favorites database.
 	 */
@@ -404,6 +763,14 @@ public class PkRSS {
 	public boolean clearData() {
 		if (!downloader.clearCache())
 			return false;
+		if (articleDatabase != null) {
+			diskExecutor.execute(new Runnable() {
+				@Override
+				public void run() {
+					articleDatabase.deleteAll();
+				}
+			});
+		}
 		deleteAllFavorites();
 		markAllRead(false);
 		return true;
@@ -422,66 +789,136 @@ public class PkRSS {
 	 * @param url URL to associate this list with.
 	 * @param newArticles Article list to store.
 	 */
-	private void insert(String url, List<Article> newArticles) {
-		if(!articleMap.containsKey(url))
-			articleMap.put(url, new ArrayList<Article>());
+	private void insert(final String url, List<Article> newArticles) {
+		final List<Article> added = articleStore.insert(url, newArticles);
+		log("Stored " + added.size() + " new articles for " + url);
+
+		// Write through the new articles to disk, only refreshing the age of those still in the feed
+		if (articleDatabase != null && !newArticles.isEmpty()) {
+			final int[] ids = new int[newArticles.size()];
+			for (int i = 0; i < ids.length; i++)
+				ids[i] = newArticles.get(i).getId();
+
+			diskExecutor.execute(new Runnable() {
+				@Override
+				public void run() {
+					articleDatabase.put(url, added, ids);
+				}
+			});
+		}
+	}
 
-		List<Article> articleList = articleMap.get(url);
-		articleList.addAll(newArticles);
+	/**
+	 * @param url Safe URL of the feed.
+	 * @return Loaded articles of this feed, restored from disk if needed. May be null.
+	 */
+	private List<Article> getFeed(String url) {
+		List<Article> articles = articleStore.get(url);
+		if (articles == null && restore(url))
+			articles = articleStore.get(url);
+		return articles;
+	}
 
-		log("New size for " + url + " is " + articleList.size());
+	/**
+	 * Reads articles of a feed stored by a previous run into memory, once.
+	 * @param url Safe URL of the feed.
+	 * @return {@code true} if any articles were restored.
+	 */
+	private boolean restore(String url) {
+		if (articleDatabase == null || articleStore.contains(url) || !restoredFeeds.add(url))
+			return false;
+
+		long time = System.currentTimeMillis();
+		List<Article> articles = articleDatabase.get(url);
+		if (articles.isEmpty())
+			return false;
+
+		int size = articleStore.insert(url, articles).size();
+		log("Restored " + size + " articles for " + url + " in " + (System.currentTimeMillis() - time) + "ms");
+		return true;
 	}
 
 	/**
-	 * Asynchronously loads read data.
+	 * @param url Request URL.
+	 * @param safeUrl Safe URL of the feed this request belongs to.
+	 * @return Cache validators of the last response for this URL, possibly from a previous run. May be null.
 	 */
-	private void getRead() {
-		// Execute on background thread as we don't know how large this is
-		new AsyncTask<Void, Void, Void>() {
-			@Override
-			protected Void doInBackground(Void... params) {
-				int size = mPrefs.getInt("READ_ARRAY_SIZE", 0);
-				boolean value;
-				if(size < 1)
-					return null;
+	private CacheValidator getValidator(String url, String safeUrl) {
+		CacheValidator validator = validators.get(url);
+		if (validator == null && articleDatabase != null) {
+			validator = articleDatabase.getValidator(url);
+			if (validator != null) {
+				validators.put(url, validator);
+				validatorFeeds.put(url, safeUrl);
+			}
+		}
+		return validator;
+	}
 
-				for(int i = 0, key; i < size; i++) {
-					key = mPrefs.getInt("READ_ARRAY_KEY_" + i, 0);
-					value = mPrefs.getBoolean("READ_ARRAY_VALUE_" + i, false);
+	/**
+	 * Remembers cache validators for the next load of a URL, on disk as well if enabled.
+	 * @param url Request URL.
+	 * @param safeUrl Safe URL of the feed this request belongs to.
+	 * @param validator Validators to remember or null to forget them.
+	 */
+	private void putValidator(final String url, String safeUrl, final CacheValidator validator) {
+		if (validator != null) {
+			validators.put(url, validator);
+			validatorFeeds.put(url, safeUrl);
+		}
+		else {
+			validators.remove(url);
+			validatorFeeds.remove(url);
+		}
 
-					readList.put(key, value);
+		if (articleDatabase != null) {
+			diskExecutor.execute(new Runnable() {
+				@Override
+				public void run() {
+					articleDatabase.putValidator(url, validator);
 				}
-				return null;
-			}
-		}.executeOnExecutor(AsyncTask.SERIAL_EXECUTOR);
+			});
+		}
+	}
+
+	/**
+	 * @param request Request to look up a {@link Downloader} for.
+	 * @return The Downloader assigned to this request or the default one if none.
+	 */
+	Downloader getDownloader(Request request) {
+		return request.downloader == null ? downloader : request.downloader;
 	}
 
 	/**
-	 * Asynchronously saves read data.
+	 * Forgets about feeds once all of their articles have been evicted and notifies
+	 * the {@link EvictionListener} of the {@link CachePolicy}, if any.
 	 */
-	private void writeRead() {
-		// Execute on background thread as we don't know how large this is
-		new AsyncTask<Void, Void, Void>() {
-			@Override
-			protected Void doInBackground(Void... params) {
-				// Get editor & basic variables
-				SharedPreferences.Editor editor = mPrefs.edit();
-				int size = readList.size();
-				boolean value;
+	private class EvictionHandler implements ArticleStore.Listener {
+		private final EvictionListener listener;
 
-				editor.putInt("READ_ARRAY_SIZE", size);
-				for(int i = 0, key; i < size; i++) {
-					key = readList.keyAt(i);
-					value = readList.get(key);
+		EvictionHandler(EvictionListener listener) {
+			this.listener = listener;
+		}
 
-					editor.putInt("READ_ARRAY_KEY_" + i, key);
-					editor.putBoolean("READ_ARRAY_VALUE_" + i, value);
+		@Override
+		public void onEvicted(String url, List<Article> evicted, boolean feedRemoved) {
+			log("Evicted " + evicted.size() + " articles from " + url + (feedRemoved ? ", feed removed" : ""));
+			if (feedRemoved) {
+				// Next load starts over from the first page, unconditionally
+				pageTracker.remove(url);
+				restoredFeeds.remove(url);
+				for (Iterator<Map.Entry<String, String>> it = validatorFeeds.entrySet().iterator(); it.hasNext(); ) {
+					Map.Entry<String, String> entry = it.next();
+					if (entry.getValue().equals(url)) {
+						validators.remove(entry.getKey());
+						it.remove();
+					}
 				}
-				editor.commit();
-
-				return null;
 			}
-		}.executeOnExecutor(AsyncTask.SERIAL_EXECUTOR);
+
+			if (listener != null)
+				listener.onEvicted(url, evicted, feedRemoved);
+		}
 	}
 
 	protected final void log(String message) {
@@ -529,6 +966,15 @@ public class PkRSS {
 		private CallbackHandler handler;
 		private Downloader downloader;
 		private Parser parser;
+		private Executor executor;
+		private int maxRequests = 8;
+		private int maxRequestsPerHost = 4;
+		private CachePolicy cachePolicy;
+		private RetryPolicy retryPolicy;
+		private int circuitFailureThreshold = 3;
+		private long circuitOpenDuration = 60000;
+		private long offlineMaxAge;
+		private long offlineMaxBytes;
 		private boolean loggingEnabled;
 		private boolean safe;
 
@@ -571,6 +1017,94 @@ public class PkRSS {
 			return this;
 		}
 
+		/**
+		 * Specifies the {@link Executor} on which asynchronous requests are run.
+		 * The number of requests running at once is limited through {@link #maxRequests(int)}
+		 * and {@link #maxRequestsPerHost(int)} rather than the executor itself. <br />
+		 * <b>Default: </b> {@link Utils#createDefaultExecutor()}
+		 */
+		public Builder executor(Executor executor) {
+			this.executor = executor;
+			return this;
+		}
+
+		/**
+		 * Maximum number of asynchronous requests running at once. Additional requests
+		 * wait in line until a running one finishes. <br />
+		 * <b>Default: </b> 8
+		 */
+		public Builder maxRequests(int maxRequests) {
+			if (maxRequests < 1)
+				throw new IllegalArgumentException("maxRequests must be at least 1!");
+
+			this.maxRequests = maxRequests;
+			return this;
+		}
+
+		/**
+		 * Maximum number of asynchronous requests running at once against the same host. <br />
+		 * <b>Default: </b> 4
+		 */
+		public Builder maxRequestsPerHost(int maxRequestsPerHost) {
+			if (maxRequestsPerHost < 1)
+				throw new IllegalArgumentException("maxRequestsPerHost must be at least 1!");
+
+			this.maxRequestsPerHost = maxRequestsPerHost;
+			return this;
+		}
+
+		/**
+		 * Specifies the limits of the in-memory cache of loaded articles and how to evict them. <br />
+		 * <b>Default: </b> {@code new CachePolicy.Builder().build()}
+		 */
+		public Builder cachePolicy(CachePolicy cachePolicy) {
+			this.cachePolicy = cachePolicy;
+			return this;
+		}
+
+		/**
+		 * Specifies how to retry feeds which fail to download. Requests may override this through
+		 * {@link RequestCreator#retryPolicy(RetryPolicy)}. <br />
+		 * <b>Default: </b> {@code new RetryPolicy.Builder().build()}
+		 */
+		public Builder retryPolicy(RetryPolicy retryPolicy) {
+			this.retryPolicy = retryPolicy;
+			return this;
+		}
+
+		/**
+		 * Fails requests right away for hosts which failed too many times in a row, until some time has
+		 * passed. Once it has, a single request is let through to check whether the host is back. <br />
+		 * <b>Default: </b> 3 failures, 60 seconds
+		 * @param failureThreshold Consecutive failures after which to consider a host down, 0 to disable.
+		 * @param openDuration Time in milliseconds to consider a host down.
+		 */
+		public Builder circuitBreaker(int failureThreshold, long openDuration) {
+			if (failureThreshold < 0 || openDuration < 0)
+				throw new IllegalArgumentException("failureThreshold and openDuration must not be negative!");
+
+			this.circuitFailureThreshold = failureThreshold;
+			this.circuitOpenDuration = openDuration;
+			return this;
+		}
+
+		/**
+		 * Keeps a copy of loaded articles on disk so they're available right away after the app
+		 * restarts, before they are loaded again. Also remembers cache validators so that reloading
+		 * an unchanged feed costs a bodiless response. <br />
+		 * <b>Default: </b> Disabled
+		 * @param maxAge Maximum time in milliseconds to keep an article since it was last loaded.
+		 * @param maxBytes Maximum estimated size in bytes of all articles kept on disk.
+		 */
+		public Builder offlineCache(long maxAge, long maxBytes) {
+			if (maxAge < 1 || maxBytes < 1)
+				throw new IllegalArgumentException("maxAge and maxBytes must be at least 1!");
+
+			this.offlineMaxAge = maxAge;
+			this.offlineMaxBytes = maxBytes;
+			return this;
+		}
+
 		/**
 		 * Toggle whether debug logging is enabled.
 		 * <b>Default: </b> {@code false}
@@ -602,7 +1136,19 @@ public class PkRSS {
 			if(handler == null)
 				handler = new CallbackHandler();
 
-			return new PkRSS(context, handler, downloader, parser, loggingEnabled, safe);
+			if(executor == null)
+				executor = Utils.createDefaultExecutor();
+
+			if(cachePolicy == null)
+				cachePolicy = new CachePolicy.Builder().build();
+
+			if(retryPolicy == null)
+				retryPolicy = new RetryPolicy.Builder().build();
+
+			CircuitBreaker circuitBreaker = circuitFailureThreshold > 0 ? new CircuitBreaker(circuitFailureThreshold, circuitOpenDuration) : null;
+			ArticleDatabase articleDatabase = offlineMaxAge > 0 ? new ArticleDatabase(context, offlineMaxAge, offlineMaxBytes) : null;
+			Dispatcher dispatcher = new Dispatcher(executor, maxRequests, maxRequestsPerHost);
+			return new PkRSS(context, handler, dispatcher, downloader, parser, cachePolicy, articleDatabase, retryPolicy, circuitBreaker, loggingEnabled, safe);
 		}
 	}
 }
\ No newline at end of file
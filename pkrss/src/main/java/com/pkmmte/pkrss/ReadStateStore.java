@@ -0,0 +1,346 @@
+package com.pkmmte.pkrss;
+
+import android.content.SharedPreferences;
+import android.util.Log;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistent set of article ids marked as read.
+ * <p>
+ * Stored as a snapshot file holding a sorted array of ids plus an append-only log of changes
+ * made since, which gets folded back into the snapshot once it grows large enough.
+ * See {@link ReadStateFormat} for the layout of both.
+ * Changes are applied in memory right away while writes are coalesced and run on a
+ * single background thread, so marking an article costs O(1) amortized.
+ * <p>
+ * This class is thread-safe.
+ */
+class ReadStateStore {
+	private static final String TAG = "ReadStateStore";
+
+	// How long to wait for more changes before writing
+	private static final long WRITE_DELAY = 500;
+
+	// Minimum number of log records before compacting
+	private static final int MIN_COMPACT_RECORDS = 1024;
+
+	private final File snapshotFile;
+	private final File logFile;
+	private final SharedPreferences legacyPrefs;
+	private final ScheduledExecutorService executor;
+
+	// Ids currently marked as read, only complete once loaded
+	private IntMap<Boolean> readIds = new IntMap<Boolean>();
+	private boolean loaded;
+
+	// Changes not yet written to disk
+	private byte[] pendingOps = new byte[16];
+	private int[] pendingIds = new int[16];
+	private int pendingCount;
+	private boolean writeScheduled;
+
+	// Number of records currently in the log file, only touched by the executor
+	private int logRecords;
+
+	/**
+	 * @param directory Directory to keep the read state files in.
+	 * @param legacyPrefs Preferences read state was stored in by older versions, to migrate from. May be null.
+	 */
+	ReadStateStore(File directory, SharedPreferences legacyPrefs) {
+		this.snapshotFile = new File(directory, "pkrss_read");
+		this.logFile = new File(directory, "pkrss_read.log");
+		this.legacyPrefs = legacyPrefs;
+		this.executor = Utils.createSerialExecutor("PkRSS Read State");
+
+		// Execute on background thread as we don't know how large this is
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				load();
+			}
+		});
+	}
+
+	/**
+	 * @param id Article id.
+	 * @return {@code true} if this id is marked as read.
+	 */
+	synchronized boolean isRead(int id) {
+		awaitLoad();
+		return readIds.containsKey(id);
+	}
+
+	/**
+	 * Marks or unmarks an article id as read.
+	 * @param id Article id.
+	 * @param read Whether or not to mark this id as read.
+	 */
+	synchronized void mark(int id, boolean read) {
+		// Until loaded, every change is queued as is and replayed on top of what's on disk
+		if (loaded && read == readIds.containsKey(id))
+			return;
+
+		if (read)
+			readIds.put(id, Boolean.TRUE);
+		else
+			readIds.remove(id);
+		enqueue(read ? ReadStateFormat.OP_READ : ReadStateFormat.OP_UNREAD, id);
+	}
+
+	/**
+	 * Marks all specified article ids as read.
+	 * @param ids Article ids.
+	 */
+	synchronized void markAll(int[] ids) {
+		for (int id : ids) {
+			if (!loaded || !readIds.containsKey(id)) {
+				readIds.put(id, Boolean.TRUE);
+				enqueue(ReadStateFormat.OP_READ, id);
+			}
+		}
+	}
+
+	/**
+	 * Unmarks every article id.
+	 */
+	synchronized void clear() {
+		readIds.clear();
+
+		// Anything still pending is moot now
+		pendingCount = 0;
+		enqueue(ReadStateFormat.OP_CLEAR, 0);
+	}
+
+	/**
+	 * Waits for the snapshot and log to be read, usually long done by the time anyone asks.
+	 */
+	private void awaitLoad() {
+		boolean interrupted = false;
+		while (!loaded) {
+			try {
+				wait();
+			}
+			catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	private void enqueue(byte op, int id) {
+		if (pendingCount == pendingIds.length) {
+			pendingOps = Arrays.copyOf(pendingOps, pendingCount * 2);
+			pendingIds = Arrays.copyOf(pendingIds, pendingCount * 2);
+		}
+		pendingOps[pendingCount] = op;
+		pendingIds[pendingCount] = id;
+		pendingCount++;
+
+		// Coalesce with whatever else changes in the meantime
+		if (!writeScheduled) {
+			writeScheduled = true;
+			executor.schedule(new Runnable() {
+				@Override
+				public void run() {
+					write();
+				}
+			}, WRITE_DELAY, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Reads the snapshot and log, or migrates legacy preferences if neither exists yet.
+	 * Changes made before loading finished are replayed on top.
+	 */
+	private void load() {
+		IntMap<Boolean> loaded = new IntMap<Boolean>();
+		try {
+			if (snapshotFile.exists() || logFile.exists()) {
+				readSnapshot(loaded);
+				logRecords = readLog(loaded);
+			}
+			else if (legacyPrefs != null && legacyPrefs.contains("READ_ARRAY_SIZE")) {
+				migrate(loaded);
+			}
+		}
+		catch (IOException e) {
+			Log.w(TAG, "Error loading read state", e);
+		}
+		catch (RuntimeException e) {
+			// Never leave isRead() waiting on a corrupt file
+			Log.w(TAG, "Error loading read state", e);
+		}
+
+		synchronized (this) {
+			for (int i = 0; i < pendingCount; i++)
+				ReadStateFormat.apply(loaded, pendingOps[i], pendingIds[i]);
+			readIds = loaded;
+			this.loaded = true;
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Appends pending changes to the log, compacting it into a new snapshot when it gets too long.
+	 */
+	private void write() {
+		byte[] ops;
+		int[] ids;
+		int count;
+		int size;
+		synchronized (this) {
+			writeScheduled = false;
+			if (pendingCount == 0)
+				return;
+
+			ops = Arrays.copyOf(pendingOps, pendingCount);
+			ids = Arrays.copyOf(pendingIds, pendingCount);
+			count = pendingCount;
+			size = readIds.size();
+			pendingCount = 0;
+		}
+
+		try {
+			// Everything before a clear is irrelevant, start over from an empty snapshot
+			int start = 0;
+			for (int i = 0; i < count; i++) {
+				if (ops[i] == ReadStateFormat.OP_CLEAR)
+					start = i + 1;
+			}
+			if (start > 0) {
+				writeSnapshot(new int[0]);
+				truncateLog();
+			}
+
+			if (logRecords + count - start >= Math.max(MIN_COMPACT_RECORDS, size)) {
+				compact();
+				return;
+			}
+
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(logFile, true)));
+			try {
+				for (int i = start; i < count; i++)
+					ReadStateFormat.writeRecord(out, ops[i], ids[i]);
+			}
+			finally {
+				out.close();
+			}
+			logRecords += count - start;
+		}
+		catch (IOException e) {
+			Log.w(TAG, "Error writing read state", e);
+		}
+	}
+
+	/**
+	 * Replaces the snapshot with the current state and empties the log.
+	 */
+	private void compact() throws IOException {
+		int[] ids;
+		synchronized (this) {
+			ids = readIds.keys();
+		}
+		Arrays.sort(ids);
+
+		writeSnapshot(ids);
+		truncateLog();
+	}
+
+	/**
+	 * Copies read state over from preferences. Lossy: old ids hashed the whole article, identity
+	 * hashed extras included, so they can't be mapped to the new ones. Only articles which kept
+	 * their old id, such as saved favorites, still match.
+	 */
+	private void migrate(IntMap<Boolean> loaded) throws IOException {
+		int size = legacyPrefs.getInt("READ_ARRAY_SIZE", 0);
+		for (int i = 0; i < size; i++) {
+			if (legacyPrefs.getBoolean("READ_ARRAY_VALUE_" + i, false))
+				loaded.put(legacyPrefs.getInt("READ_ARRAY_KEY_" + i, 0), Boolean.TRUE);
+		}
+
+		int[] ids = loaded.keys();
+		Arrays.sort(ids);
+		writeSnapshot(ids);
+
+		// Only drop the old keys once they're safely stored
+		SharedPreferences.Editor editor = legacyPrefs.edit();
+		editor.remove("READ_ARRAY_SIZE");
+		for (int i = 0; i < size; i++) {
+			editor.remove("READ_ARRAY_KEY_" + i);
+			editor.remove("READ_ARRAY_VALUE_" + i);
+		}
+		editor.commit();
+	}
+
+	private void readSnapshot(IntMap<Boolean> loaded) throws IOException {
+		DataInputStream in;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)));
+		}
+		catch (FileNotFoundException e) {
+			return;
+		}
+
+		try {
+			ReadStateFormat.readSnapshot(in, loaded);
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * @return Number of records read. A torn record at the end of the log is ignored.
+	 */
+	private int readLog(IntMap<Boolean> loaded) throws IOException {
+		DataInputStream in;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile)));
+		}
+		catch (FileNotFoundException e) {
+			return 0;
+		}
+
+		try {
+			return ReadStateFormat.readLog(in, loaded);
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	private void writeSnapshot(int[] ids) throws IOException {
+		// Write to a temporary file first so a crash never leaves a half written snapshot
+		File temp = new File(snapshotFile.getPath() + ".tmp");
+		FileOutputStream fileOut = new FileOutputStream(temp);
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut));
+		try {
+			ReadStateFormat.writeSnapshot(out, ids);
+			out.flush();
+			fileOut.getFD().sync();
+		}
+		finally {
+			out.close();
+		}
+
+		if (!temp.renameTo(snapshotFile))
+			throw new IOException("Could not replace " + snapshotFile);
+	}
+
+	private void truncateLog() throws IOException {
+		new FileOutputStream(logFile).close();
+		logRecords = 0;
+	}
+}
@@ -0,0 +1,305 @@
+package com.pkmmte.pkrss;
+
+import android.util.Log;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically refreshes a set of feeds in the background, polling each one at its own pace.
+ * <p>
+ * Every feed starts out at the initial interval which then adapts to how often it actually changes.
+ * Feeds publishing new articles are polled at about half the time observed between them, while
+ * unchanged feeds (including those answering 304 Not Modified or returning only articles already
+ * seen) are polled less and less often.
+ * Failed refreshes back off exponentially without forgetting what was learned about the feed.
+ * A little random jitter keeps feeds added together from all being refreshed at once.
+ * <p>
+ * Refreshes run as asynchronous requests so callbacks, sinks and caches attached to each
+ * {@link Request} work as usual, within the limits set through {@link PkRSS.Builder#maxRequests(int)}
+ * and {@link PkRSS.Builder#maxRequestsPerHost(int)}. Use {@link RefreshScheduler.Builder} to create one.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class RefreshScheduler {
+	private static final String TAG = "RefreshScheduler";
+
+	private final PkRSS singleton;
+	private final long minInterval;
+	private final long maxInterval;
+	private final long initialInterval;
+	private final double jitter;
+	private final ScheduledExecutorService timer;
+	private final Random random = new Random();
+
+	// Scheduled feeds by url, guarded by this
+	private final Map<String, Feed> feeds = new HashMap<String, Feed>();
+	private boolean started;
+
+	/* Hidden constructor */
+	RefreshScheduler(Builder builder) {
+		this.singleton = builder.singleton;
+		this.minInterval = builder.minInterval;
+		this.maxInterval = builder.maxInterval;
+		this.initialInterval = builder.initialInterval;
+		this.jitter = builder.jitter;
+		this.timer = Utils.createSerialExecutor("PkRSS Refresh");
+	}
+
+	/**
+	 * Adds a feed to refresh periodically, replacing any feed with the same url.
+	 * It's refreshed right away if the scheduler is already started.
+	 * @param request Request to execute on each refresh.
+	 */
+	public synchronized void add(Request request) {
+		if (request == null)
+			throw new IllegalArgumentException("Request must not be null!");
+
+		remove(request.url);
+		Feed feed = new Feed(request, new RefreshInterval(minInterval, maxInterval, initialInterval));
+		feeds.put(request.url, feed);
+		if (started)
+			schedule(feed, 0);
+	}
+
+	/**
+	 * Adds a feed to refresh periodically, replacing any feed with the same url.
+	 * @param url Url of the feed.
+	 */
+	public void add(String url) {
+		add(new Request.Builder(url).build());
+	}
+
+	/**
+	 * Stops refreshing the specified feed. A refresh already running is left to finish.
+	 * @param url Url of the feed.
+	 * @return {@code true} if the feed was being refreshed.
+	 */
+	public synchronized boolean remove(String url) {
+		Feed feed = feeds.remove(url);
+		if (feed == null)
+			return false;
+
+		feed.cancel();
+		return true;
+	}
+
+	/**
+	 * Starts refreshing every added feed. Each gets its first refresh right away.
+	 */
+	public synchronized void start() {
+		if (started)
+			return;
+
+		started = true;
+		for (Feed feed : feeds.values())
+			schedule(feed, 0);
+	}
+
+	/**
+	 * Stops refreshing feeds until started again. Refreshes already running are left to finish.
+	 */
+	public synchronized void stop() {
+		started = false;
+		for (Feed feed : feeds.values())
+			feed.cancel();
+	}
+
+	/**
+	 * @param url Url of the feed.
+	 * @return Current polling interval in milliseconds of the specified feed, before jitter and
+	 * failure backoff, or -1 if it isn't scheduled.
+	 */
+	public synchronized long interval(String url) {
+		Feed feed = feeds.get(url);
+		return feed == null ? -1 : feed.interval.get();
+	}
+
+	private void schedule(final Feed feed, long delay) {
+		feed.cancel();
+		feed.next = timer.schedule(new Runnable() {
+			@Override
+			public void run() {
+				refresh(feed);
+			}
+		}, delay, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Hands a refresh over to the {@link Dispatcher}, rescheduling the feed once it's done.
+	 */
+	private void refresh(final Feed feed) {
+		synchronized (this) {
+			// Removed or stopped in the meantime
+			if (!started || feeds.get(feed.request.url) != feed)
+				return;
+		}
+
+		final RequestFuture future = new RequestFuture(feed.request);
+		future.whenDone(new Runnable() {
+			@Override
+			public void run() {
+				refreshed(feed, future);
+			}
+		});
+
+		synchronized (RequestCreator.activeRequests) {
+			RequestCreator.activeRequests.add(feed.request.tag);
+		}
+		singleton.dispatcher.enqueue(new AsyncCall(singleton, feed.request, 0, null, future));
+	}
+
+	private void refreshed(Feed feed, RequestFuture future) {
+		List<Article> articles = null;
+		boolean success = false;
+		try {
+			articles = future.get();
+			success = true;
+		}
+		catch (ExecutionException e) {
+			singleton.log(TAG, "Error refreshing " + feed.request.url + "! " + e.getCause(), Log.WARN);
+		}
+		catch (CancellationException e) {
+			singleton.log(TAG, "Refresh of " + feed.request.url + " cancelled", Log.WARN);
+		}
+		catch (InterruptedException e) {
+			// Already done, can't happen
+			Thread.currentThread().interrupt();
+		}
+
+		int[] ids = null;
+		long[] dates = null;
+		if (articles != null) {
+			ids = new int[articles.size()];
+			dates = new long[articles.size()];
+			for (int i = 0; i < ids.length; i++) {
+				Article article = articles.get(i);
+				ids[i] = article.getId();
+				dates[i] = article.getDate();
+			}
+		}
+
+		synchronized (this) {
+			long delay;
+			if (!success)
+				delay = feed.interval.failed();
+			else if (articles == null)
+				delay = feed.interval.notModified();
+			else
+				delay = feed.interval.refreshed(ids, dates);
+
+			singleton.log(TAG, "Refreshing " + feed.request.url + " again in " + delay + "ms");
+			if (started && feeds.get(feed.request.url) == feed)
+				schedule(feed, jitter(delay));
+		}
+	}
+
+	private long jitter(long delay) {
+		return (long) (delay * (1 + jitter * (2 * random.nextDouble() - 1)));
+	}
+
+	/**
+	 * Refresh state of a single feed, guarded by the scheduler.
+	 */
+	private static class Feed {
+		final Request request;
+		final RefreshInterval interval;
+		ScheduledFuture<?> next;
+
+		Feed(Request request, RefreshInterval interval) {
+			this.request = request;
+			this.interval = interval;
+		}
+
+		void cancel() {
+			if (next != null) {
+				next.cancel(false);
+				next = null;
+			}
+		}
+	}
+
+	public static class Builder {
+		private final PkRSS singleton;
+		private long minInterval;
+		private long maxInterval;
+		private long initialInterval;
+		private double jitter;
+
+		/**
+		 * Start building a new {@link RefreshScheduler}.
+		 * @param singleton Instance to load feeds with.
+		 */
+		public Builder(PkRSS singleton) {
+			if (singleton == null)
+				throw new IllegalArgumentException("PkRSS must not be null!");
+
+			this.singleton = singleton;
+			this.minInterval = TimeUnit.MINUTES.toMillis(5);
+			this.maxInterval = TimeUnit.HOURS.toMillis(24);
+			this.initialInterval = TimeUnit.MINUTES.toMillis(30);
+			this.jitter = 0.1;
+		}
+
+		/**
+		 * Shortest time in milliseconds to wait between refreshes of a feed. <br />
+		 * <b>Default: </b> 5 minutes
+		 */
+		public Builder minInterval(long minInterval) {
+			if (minInterval < 1)
+				throw new IllegalArgumentException("minInterval must be at least 1!");
+
+			this.minInterval = minInterval;
+			return this;
+		}
+
+		/**
+		 * Longest time in milliseconds to wait between refreshes of a feed, also capping failure backoff. <br />
+		 * <b>Default: </b> 24 hours
+		 */
+		public Builder maxInterval(long maxInterval) {
+			if (maxInterval < 1)
+				throw new IllegalArgumentException("maxInterval must be at least 1!");
+
+			this.maxInterval = maxInterval;
+			return this;
+		}
+
+		/**
+		 * Time in milliseconds between refreshes of a feed before anything is known about it. <br />
+		 * <b>Default: </b> 30 minutes
+		 */
+		public Builder initialInterval(long initialInterval) {
+			if (initialInterval < 1)
+				throw new IllegalArgumentException("initialInterval must be at least 1!");
+
+			this.initialInterval = initialInterval;
+			return this;
+		}
+
+		/**
+		 * Fraction by which each delay is randomly lengthened or shortened, between 0 and 1. <br />
+		 * <b>Default: </b> 0.1
+		 */
+		public Builder jitter(double jitter) {
+			if (jitter < 0 || jitter > 1)
+				throw new IllegalArgumentException("jitter must be between 0 and 1!");
+
+			this.jitter = jitter;
+			return this;
+		}
+
+		public RefreshScheduler build() {
+			if (minInterval > maxInterval)
+				throw new IllegalArgumentException("minInterval must not exceed maxInterval!");
+
+			return new RefreshScheduler(this);
+		}
+	}
+}
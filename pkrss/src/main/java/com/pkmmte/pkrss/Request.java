@@ -10,6 +10,15 @@ import java.util.concurrent.atomic.AtomicLong;
  * Immutable data to be used for execution.
  */
 public final class Request {
+	/**
+	 * Order in which asynchronous requests waiting in line get to run.
+	 */
+	public enum Priority {
+		LOW,
+		NORMAL,
+		HIGH
+	}
+
 	private static final AtomicLong ID_GENERATOR = new AtomicLong(System.currentTimeMillis() * 100000);
 
 	public final String tag;
@@ -23,6 +32,11 @@ public final class Request {
 	public final Downloader downloader;
 	public final Parser parser;
 	public final WeakReference<Callback> callback;
+	public final WeakReference<ArticleSink> sink;
+	public final int sinkBatchSize;
+	public final long sinkBatchInterval;
+	public final Priority priority;
+	public final RetryPolicy retryPolicy;
 
 	/* Hidden constructor */
 	public Request(Builder builder) {
@@ -37,6 +51,11 @@ public final class Request {
 		this.downloader = builder.downloader;
 		this.parser = builder.parser;
 		this.callback = builder.callback;
+		this.sink = builder.sink;
+		this.sinkBatchSize = builder.sinkBatchSize;
+		this.sinkBatchInterval = builder.sinkBatchInterval;
+		this.priority = builder.priority;
+		this.retryPolicy = builder.retryPolicy;
 	}
 
 	public static class Builder {
@@ -51,6 +70,11 @@ public final class Request {
 		private Downloader downloader;
 		private Parser parser;
 		private WeakReference<Callback> callback;
+		private WeakReference<ArticleSink> sink;
+		private int sinkBatchSize;
+		private long sinkBatchInterval;
+		private Priority priority;
+		private RetryPolicy retryPolicy;
 
 		public Builder(String url) {
 			this.tag = null;
@@ -64,6 +88,11 @@ public final class Request {
 			this.downloader = null;
 			this.parser = null;
 			this.callback = null;
+			this.sink = null;
+			this.sinkBatchSize = 1;
+			this.sinkBatchInterval = 0;
+			this.priority = Priority.NORMAL;
+			this.retryPolicy = null;
 		}
 
 		public Builder tag(String tag) {
@@ -117,7 +146,24 @@ public final class Request {
 		}
 
 		public Builder callback(Callback callback) {
-			this.callback = new WeakReference<>(callback);
+			this.callback = new WeakReference<Callback>(callback);
+			return this;
+		}
+
+		public Builder stream(ArticleSink sink, int batchSize, long batchInterval) {
+			this.sink = new WeakReference<ArticleSink>(sink);
+			this.sinkBatchSize = batchSize;
+			this.sinkBatchInterval = batchInterval;
+			return this;
+		}
+
+		public Builder priority(Priority priority) {
+			this.priority = priority != null ? priority : Priority.NORMAL;
+			return this;
+		}
+
+		public Builder retryPolicy(RetryPolicy retryPolicy) {
+			this.retryPolicy = retryPolicy;
 			return this;
 		}
 
@@ -1,8 +1,6 @@
 package com.pkmmte.pkrss;
 
-import android.os.AsyncTask;
 import android.os.Handler;
-import android.util.Log;
 import com.pkmmte.pkrss.downloader.Downloader;
 import com.pkmmte.pkrss.parser.Parser;
 import java.io.IOException;
@@ -15,7 +13,7 @@ import java.util.Map;
  * Fluent API for building an RSS load request.
  */
 public class RequestCreator {
-	private static final List<String> activeRequests = Collections.synchronizedList(new ArrayList<String>());
+	static final List<String> activeRequests = Collections.synchronizedList(new ArrayList<String>());
 
 	private final PkRSS singleton;
 	private final Request.Builder data;
@@ -30,7 +28,7 @@ public class RequestCreator {
 
 	/**
 	 * Time delay before executing this request asynchronously.
-	 * Defaults to 0 for immediate execution.
+	 * Defaults to 0 for immediate execution. Delayed requests don't hold up others in the meantime.
 	 * @param delay Time in milliseconds.
 	 */
 	public RequestCreator delay(long delay) {
@@ -127,6 +125,27 @@ public class RequestCreator {
 		return this;
 	}
 
+	/**
+	 * Priority of this request among asynchronous requests waiting for their turn.
+	 * Defaults to {@link Request.Priority#NORMAL}.
+	 * @param priority Use {@link Request.Priority#HIGH} for feeds the user is waiting on and
+	 * {@link Request.Priority#LOW} for prefetching.
+	 */
+	public RequestCreator priority(Request.Priority priority) {
+		this.data.priority(priority);
+		return this;
+	}
+
+	/**
+	 * How to retry this request should its download fail.
+	 * Defaults to null, using the policy of the {@link PkRSS} instance.
+	 * @param retryPolicy Policy to use, {@link RetryPolicy#NONE} to never retry.
+	 */
+	public RequestCreator retryPolicy(RetryPolicy retryPolicy) {
+		this.data.retryPolicy(retryPolicy);
+		return this;
+	}
+
 	/**
 	 * Assigns a different callback handler to this specific request.
 	 * This is useful for handling this request in a specific thread but leaving the rest
@@ -169,6 +188,27 @@ public class RequestCreator {
 		return this;
 	}
 
+	/**
+	 * Delivers each article to the specified sink as soon as it is parsed,
+	 * rather than waiting for the entire feed to be loaded.
+	 * @param sink Sink to receive articles incrementally.
+	 */
+	public RequestCreator stream(ArticleSink sink) {
+		return stream(sink, 1, 0);
+	}
+
+	/**
+	 * Delivers articles to the specified sink in batches while the feed is still being parsed.
+	 * A batch is delivered once either limit is reached, and whatever is left once parsing ends.
+	 * @param sink Sink to receive articles incrementally.
+	 * @param batchSize Maximum number of articles per batch. Use 0 for no count limit.
+	 * @param batchInterval Maximum time in milliseconds to hold articles back for. Use 0 for no time limit.
+	 */
+	public RequestCreator stream(ArticleSink sink, int batchSize, long batchInterval) {
+		this.data.stream(sink, batchSize, batchInterval);
+		return this;
+	}
+
 	/**
 	 * Executes request and returns a full list containing all
 	 * articles loaded from this request's URL.
@@ -206,57 +246,33 @@ public class RequestCreator {
 	 * Executes request asynchronously.
 	 * <p>
 	 * Be sure to add a callback to handle this.
+	 * @return A handle to cancel the request or wait for its result. Already cancelled if the
+	 * request was ignored through {@link #ignoreIfRunning(boolean)}.
+	 */
+	public RequestFuture async() {
+		return async(null);
+	}
+
+	/**
+	 * Executes request asynchronously as part of a batch.
+	 * @param batch Batch to report completion to. May be null.
 	 */
-	public void async() {
+	RequestFuture async(Batch batch) {
 		final Request request = data.build();
-		final CallbackHandler handler = request.handler != null ? request.handler : singleton.handler;
-		final boolean safe = request.safe != null ? request.safe : singleton.safe;
 
 		// Ignore current request if already running (ignoreIfRunning)
 		synchronized (activeRequests) {
 			if (ignoreIfRunning && activeRequests.contains(request.tag)) {
 				singleton.log(request.tag + " request already running! Ignoring...");
-				return;
+				if (batch != null)
+					batch.skipped();
+				return RequestFuture.ignored(request);
 			}
 			activeRequests.add(request.tag);
 		}
 
-		new AsyncTask<Void, Void, Void>() {
-			@Override
-			protected Void doInBackground(Void... params) {
-				try {
-					// Delay thread if specified
-					if (delay > 0) {
-						singleton.log("Delaying " + request.tag + " request for " + delay + "ms");
-						Thread.sleep(delay);
-					}
-
-					// Execute request
-					try {
-						singleton.load(request);
-					} catch (IOException e) {
-						singleton.log("Error executing request " + request.tag + " asynchronously! " + e.getMessage(), Log.ERROR);
-						handler.onLoadFailed(safe, request.callback.get());
-					}
-				} catch (InterruptedException e) {
-					singleton.log(request.tag + " thread interrupted!");
-				} finally {
-					synchronized (activeRequests) {
-						activeRequests.remove(request.tag);
-					}
-				}
-				return null;
-			}
-
-			@Override
-			protected void onCancelled(Void aVoid) {
-				super.onCancelled(aVoid);
-
-				// Double check to make sure this request is removed
-				synchronized (activeRequests) {
-					activeRequests.remove(request.tag);
-				}
-			}
-		}.executeOnExecutor(AsyncTask.SERIAL_EXECUTOR);
+		RequestFuture future = new RequestFuture(request);
+		singleton.dispatcher.enqueue(new AsyncCall(singleton, request, delay, batch, future));
+		return future;
 	}
-}
\ No newline at end of file
+}
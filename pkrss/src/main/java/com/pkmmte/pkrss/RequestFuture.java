@@ -0,0 +1,139 @@
+package com.pkmmte.pkrss;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Handle to an asynchronous request returned by {@link RequestCreator#async()}.
+ * <p>
+ * Its result is the list of newly loaded articles, or null if the feed wasn't modified.
+ * Callbacks are notified as usual, so there's no need to block on it.
+ * Cancelling a request which hasn't started yet prevents it from running at all and none of its
+ * callbacks are notified. A request which is already running is interrupted if requested,
+ * though callbacks it has already posted may still be delivered.
+ */
+public final class RequestFuture implements Future<List<Article>> {
+	private final Request request;
+	private final CountDownLatch done = new CountDownLatch(1);
+	private AsyncCall call;
+	private boolean cancelled;
+	private List<Article> articles;
+	private Exception error;
+	private Runnable listener;
+
+	RequestFuture(Request request) {
+		this.request = request;
+	}
+
+	/**
+	 * Creates a handle to a request which was never executed.
+	 */
+	static RequestFuture ignored(Request request) {
+		RequestFuture future = new RequestFuture(request);
+		future.cancelled = true;
+		future.done.countDown();
+		return future;
+	}
+
+	/**
+	 * @return The request this handle belongs to.
+	 */
+	public Request request() {
+		return request;
+	}
+
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		AsyncCall call;
+		synchronized (this) {
+			if (done.getCount() == 0)
+				return false;
+
+			cancelled = true;
+			call = this.call;
+		}
+		done.countDown();
+
+		if (call != null)
+			call.cancel(mayInterruptIfRunning);
+		return true;
+	}
+
+	@Override
+	public synchronized boolean isCancelled() {
+		return cancelled;
+	}
+
+	@Override
+	public boolean isDone() {
+		return done.getCount() == 0;
+	}
+
+	@Override
+	public List<Article> get() throws InterruptedException, ExecutionException {
+		done.await();
+		return result();
+	}
+
+	@Override
+	public List<Article> get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		if (!done.await(timeout, unit))
+			throw new TimeoutException();
+		return result();
+	}
+
+	synchronized void attach(AsyncCall call) {
+		this.call = call;
+	}
+
+	synchronized void set(List<Article> articles) {
+		this.articles = articles;
+	}
+
+	synchronized void setError(Exception error) {
+		this.error = error;
+	}
+
+	/**
+	 * Runs a task once the request is done, right away if it already is.
+	 * It runs on the thread finishing the request so it should be quick.
+	 * @param listener Task to run. Replaces any task set before.
+	 */
+	void whenDone(Runnable listener) {
+		synchronized (this) {
+			if (done.getCount() > 0) {
+				this.listener = listener;
+				return;
+			}
+		}
+		listener.run();
+	}
+
+	/**
+	 * Marks the request as done, releasing anyone waiting on it.
+	 */
+	void finish() {
+		done.countDown();
+
+		Runnable listener;
+		synchronized (this) {
+			listener = this.listener;
+			this.listener = null;
+		}
+		if (listener != null)
+			listener.run();
+	}
+
+	private synchronized List<Article> result() throws ExecutionException {
+		if (cancelled)
+			throw new CancellationException("Request " + request.tag + " was cancelled");
+		if (error != null)
+			throw new ExecutionException(error);
+		return articles;
+	}
+}
@@ -0,0 +1,22 @@
+package com.pkmmte.pkrss;
+
+import java.io.IOException;
+
+/**
+ * Thrown by a single download attempt of an asynchronous request when another attempt is due,
+ * so it can be rescheduled rather than waiting on a worker thread.
+ */
+class RetryException extends IOException {
+	private static final long serialVersionUID = 1L;
+
+	final long delay;
+
+	/**
+	 * @param cause Error the attempt failed with.
+	 * @param delay Time in milliseconds to wait before the next attempt.
+	 */
+	RetryException(IOException cause, long delay) {
+		super(cause.getMessage(), cause);
+		this.delay = delay;
+	}
+}
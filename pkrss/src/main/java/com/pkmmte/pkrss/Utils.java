@@ -1,12 +1,26 @@
 package com.pkmmte.pkrss;
 
 import android.content.Context;
+import android.os.Process;
 import android.util.Log;
 import com.pkmmte.pkrss.downloader.DefaultDownloader;
 import com.pkmmte.pkrss.downloader.Downloader;
+import com.pkmmte.pkrss.downloader.DownloaderConfig;
 import com.pkmmte.pkrss.downloader.OkHttp3Downloader;
 import com.pkmmte.pkrss.downloader.OkHttpDownloader;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Utils {
 	private static final String TAG = "Utils";
@@ -28,6 +42,25 @@ public class Utils {
 		return dir.delete();
 	}
 
+	/**
+	 * Reads the entire stream into a String. The stream is not closed.
+	 *
+	 * @param input Stream to read from.
+	 * @param charset Charset name to decode with. Defaults to UTF-8 if null.
+	 * @return The decoded String.
+	 * @throws IOException
+	 */
+	public static String readStream(InputStream input, String charset) throws IOException {
+		Reader reader = new InputStreamReader(input, charset == null ? "UTF-8" : charset);
+		StringBuilder sb = new StringBuilder();
+		char[] buffer = new char[4096];
+		int read;
+		while ((read = reader.read(buffer)) != -1) {
+			sb.append(buffer, 0, read);
+		}
+		return sb.toString();
+	}
+
 	/**
 	 * Creates a Downloader object depending on the dependencies present.
 	 *
@@ -36,24 +69,85 @@ public class Utils {
 	 *          is present, {@link DefaultDownloader} if not.
 	 */
 	public static Downloader createDefaultDownloader(Context context) {
+		return createDefaultDownloader(context, new DownloaderConfig.Builder().build());
+	}
+
+	/**
+	 * Same as {@link #createDefaultDownloader(Context)} with custom cache and timeout settings.
+	 *
+	 * @param context Application context.
+	 * @param config Cache and timeout settings for the downloader.
+	 * @return {@link OkHttp3Downloader} or {@link OkHttpDownloader} if the OkHttp library
+	 *          is present, {@link DefaultDownloader} if not.
+	 */
+	public static Downloader createDefaultDownloader(Context context, DownloaderConfig config) {
 		Downloader downloaderInstance = null;
 
 		try {
 			Class.forName("com.squareup.okhttp.OkHttpClient");
-			downloaderInstance = new OkHttpDownloader(context);
+			downloaderInstance = new OkHttpDownloader(context, config);
 		} catch (ClassNotFoundException ignored) {}
 
 
 		try {
 			Class.forName("okhttp3.OkHttpClient");
-			downloaderInstance = new OkHttp3Downloader(context);
+			downloaderInstance = new OkHttp3Downloader(context, config);
 		} catch (ClassNotFoundException ignored) {}
 
 		if (downloaderInstance == null) {
-			downloaderInstance = new DefaultDownloader(context);
+			downloaderInstance = new DefaultDownloader(context, config);
 		}
 
 		Log.d(TAG, "Downloader is " + downloaderInstance);
 		return downloaderInstance;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Creates the default executor used for asynchronous requests. Threads are created
+	 * as needed, run with background priority and are discarded after a minute of being idle.
+	 * The number of requests running at once is limited by PkRSS itself rather than the executor.
+	 *
+	 * @return A new {@link ExecutorService}.
+	 */
+	public static ExecutorService createDefaultExecutor() {
+		return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), new BackgroundThreadFactory("PkRSS #"));
+	}
+
+	/**
+	 * Creates an executor running tasks one at a time, in order, on a single background thread.
+	 *
+	 * @param name Name of the thread.
+	 * @return A new {@link ScheduledExecutorService}.
+	 */
+	public static ScheduledExecutorService createSerialExecutor(String name) {
+		return Executors.newSingleThreadScheduledExecutor(new BackgroundThreadFactory(name));
+	}
+
+	/**
+	 * Creates daemon threads running with background priority.
+	 */
+	private static class BackgroundThreadFactory implements ThreadFactory {
+		private final AtomicInteger count = new AtomicInteger();
+		private final String name;
+
+		/**
+		 * @param name Thread name. Names ending with '#' get a sequence number appended.
+		 */
+		BackgroundThreadFactory(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public Thread newThread(final Runnable runnable) {
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+					runnable.run();
+				}
+			}, name.endsWith("#") ? name + count.incrementAndGet() : name);
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
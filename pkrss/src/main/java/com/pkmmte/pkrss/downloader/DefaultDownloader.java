@@ -6,12 +6,13 @@ import android.net.http.HttpResponseCache;
 import android.util.Log;
 import com.pkmmte.pkrss.Request;
 import com.pkmmte.pkrss.Utils;
-import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.concurrent.Executor;
 
 /**
  * The Default Downloader object used for general purposes.
@@ -21,17 +22,25 @@ import java.net.URL;
  * it is more stable and potentially performs better.
  */
 public class DefaultDownloader extends Downloader {
-	// OkHttpClient & configuration
+	// Tells where HttpURLConnection got its response from (NETWORK, CACHE or CONDITIONAL_CACHE)
+	private static final String RESPONSE_SOURCE = "X-Android-Response-Source";
+
+	// HttpURLConnection & configuration
 	private final File cacheDir;
-	private final int cacheSize = 1024 * 1024;
-	private final int cacheMaxAge = 2 * 60 * 60;
-	private final long connectTimeout = 15000;
-	private final long readTimeout = 45000;
+	private final DownloaderConfig config;
+
+	// Refreshes stale responses in the background, created when first needed
+	private Executor revalidateExecutor;
 
-	public DefaultDownloader(Context context)  {
+	public DefaultDownloader(Context context) {
+		this(context, new DownloaderConfig.Builder().build());
+	}
+
+	public DefaultDownloader(Context context, DownloaderConfig config) {
+		this.config = config;
 		cacheDir = new File(context.getCacheDir(), "http");
 		try {
-			HttpResponseCache.install(cacheDir, cacheSize);
+			HttpResponseCache.install(cacheDir, config.cacheSize);
 		}
 		catch (IOException e) {
 			Log.i(TAG, "HTTP response cache installation failed:" + e);
@@ -45,6 +54,16 @@ public class DefaultDownloader extends Downloader {
 
 	@Override
 	public String execute(Request request) throws IllegalArgumentException, IOException {
+		FeedResponse response = executeStream(request);
+		try {
+			return Utils.readStream(response.stream(), response.charset());
+		} finally {
+			response.close();
+		}
+	}
+
+	@Override
+	public FeedResponse executeStream(Request request, CacheValidator validator) throws IllegalArgumentException, IOException {
 		// Invalid URLs are a big no no
 		if (request.url == null || request.url.isEmpty()) {
 			throw new IllegalArgumentException("Invalid URL!");
@@ -53,54 +72,148 @@ public class DefaultDownloader extends Downloader {
 		// Start tracking download time
 		long time = System.currentTimeMillis();
 
-		// Empty response string placeholder
-		String responseStr;
-
 		// Handle cache
-		int maxCacheAge = request.skipCache ? 0 : cacheMaxAge;
+		String cacheControl = config.cacheControl(request.skipCache);
 
 		// Build proper URL
 		String requestUrl = toUrl(request);
-		URL url = new URL(requestUrl);
-
-		// Open a connection and configure timeouts/cache
-		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-		connection.setRequestProperty("Cache-Control", "public, max-age=" + maxCacheAge);
-		connection.setConnectTimeout((int) connectTimeout);
-		connection.setReadTimeout((int) readTimeout);
 
 		// Execute the request and log its data
-		log("Making a request to " + requestUrl + (request.skipCache ? " [SKIP-CACHE]" : " [MAX-AGE " + maxCacheAge + "]"));
-		connection.connect();
+		log("Making a request to " + requestUrl + " [" + cacheControl + "]" + (validator != null ? " [CONDITIONAL]" : ""));
 
-		// Read stream
-		InputStreamReader streamReader = null;
-		BufferedReader bufferedReader = null;
+		// Open stream, leaving the connection alive until the response is closed
+		HttpURLConnection connection = null;
 		try {
-			streamReader = new InputStreamReader(url.openStream(), "UTF-8");
-			bufferedReader = new BufferedReader(streamReader);
-			StringBuilder sb = new StringBuilder();
-			String readLine;
-			while ((readLine = bufferedReader.readLine()) != null) {
-				sb.append(readLine);
+			connection = open(requestUrl, cacheControl, validator);
+
+			// Nothing else to read if the feed hasn't changed
+			if (connection.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+				log(TAG, "Feed not modified, request took " + (System.currentTimeMillis() - time) + "ms", Log.INFO);
+				CacheValidator newValidator = CacheValidator.from(connection.getHeaderField("ETag"), connection.getHeaderField("Last-Modified"));
+				connection.disconnect();
+				countNetwork();
+				return FeedResponse.notModified(newValidator != null ? newValidator : validator);
+			}
+
+			// Let errors fall back to the cache below
+			if (connection.getResponseCode() >= 400)
+				throw new HttpStatusException(connection.getResponseCode());
+
+			InputStream stream = connection.getInputStream();
+			log(TAG, "Request response took " + (System.currentTimeMillis() - time) + "ms", Log.INFO);
+
+			// Was this retrieved from cache?
+			String source = connection.getHeaderField(RESPONSE_SOURCE);
+			if (DownloaderConfig.isStale(connection.getHeaderField("Warning"))) {
+				log("Stale response retrieved from cache, revalidating in background");
+				countStale();
+				revalidate(requestUrl);
 			}
+			else if (source == null || source.startsWith("NETWORK"))
+				countNetwork();
+			else if (source.startsWith("CONDITIONAL_CACHE"))
+				countConditionalHit();
+			else
+				countCacheHit();
 
-			responseStr = sb.toString();
-			log(TAG, "Request download took " + (System.currentTimeMillis() - time) + "ms", Log.INFO);
+			return response(connection, stream);
 		} catch (Exception e) {
 			log("Error executing/reading http request!", Log.ERROR);
 			e.printStackTrace();
+			if (connection != null)
+				connection.disconnect();
+
+			// Settle for an expired copy rather than nothing at all
+			if (config.staleIfError > 0 && !request.skipCache) {
+				FeedResponse stale = openStale(requestUrl);
+				if (stale != null) {
+					log("Stale response retrieved from cache after error");
+					countStale();
+					return stale;
+				}
+			}
+
+			countError();
+			if (e instanceof HttpStatusException)
+				throw (HttpStatusException) e;
 			throw new IOException(e.getMessage());
-		} finally {
-			if (bufferedReader != null)
-				bufferedReader.close();
-			if (streamReader != null)
-				streamReader.close();
-			
-			connection.disconnect();
+		}
+	}
+
+	/**
+	 * Opens a connection and configures timeouts/cache.
+	 */
+	private HttpURLConnection open(String requestUrl, String cacheControl, CacheValidator validator) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(requestUrl).openConnection();
+		connection.setRequestProperty("Cache-Control", cacheControl);
+		connection.setConnectTimeout((int) config.connectTimeout);
+		connection.setReadTimeout((int) config.readTimeout);
+
+		// Ask the server to skip the body if it hasn't changed since last time
+		if (validator != null) {
+			if (validator.getEtag() != null)
+				connection.setRequestProperty("If-None-Match", validator.getEtag());
+			if (validator.getLastModified() != null)
+				connection.setRequestProperty("If-Modified-Since", validator.getLastModified());
+		}
+
+		connection.connect();
+		return connection;
+	}
+
+	/**
+	 * @return The cached response if it isn't older than allowed by staleIfError, null otherwise.
+	 */
+	private FeedResponse openStale(String requestUrl) {
+		HttpURLConnection connection = null;
+		try {
+			connection = open(requestUrl, config.staleIfErrorCacheControl(), null);
+			if (connection.getResponseCode() == HttpURLConnection.HTTP_GATEWAY_TIMEOUT) {
+				connection.disconnect();
+				return null;
+			}
+			return response(connection, connection.getInputStream());
+		} catch (IOException e) {
+			if (connection != null)
+				connection.disconnect();
+			return null;
+		}
+	}
+
+	/**
+	 * Fetches a fresh copy of a stale response into the cache for next time.
+	 */
+	private void revalidate(final String requestUrl) {
+		synchronized (this) {
+			if (revalidateExecutor == null)
+				revalidateExecutor = Utils.createSerialExecutor("PkRSS Revalidate");
 		}
 
-		return responseStr;
+		revalidateExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				HttpURLConnection connection = null;
+				try {
+					connection = open(requestUrl, "no-cache", null);
+					discard(connection.getInputStream());
+				} catch (IOException e) {
+					log("Error revalidating " + requestUrl + ": " + e.getMessage(), Log.WARN);
+				} finally {
+					if (connection != null)
+						connection.disconnect();
+				}
+			}
+		});
+	}
+
+	private FeedResponse response(final HttpURLConnection connection, InputStream stream) {
+		CacheValidator newValidator = CacheValidator.from(connection.getHeaderField("ETag"), connection.getHeaderField("Last-Modified"));
+		return new FeedResponse(stream, charsetOf(connection.getContentType()), new Closeable() {
+			@Override
+			public void close() {
+				connection.disconnect();
+			}
+		}, newValidator);
 	}
 
 	@Override
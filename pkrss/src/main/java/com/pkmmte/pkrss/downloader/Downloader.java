@@ -3,7 +3,10 @@ package com.pkmmte.pkrss.downloader;
 import android.util.Log;
 import com.pkmmte.pkrss.PkRSS;
 import com.pkmmte.pkrss.Request;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Base Downloader class for Downloader objects.
@@ -17,6 +20,13 @@ public abstract class Downloader {
 	final String TAG = "Downloader";
 	PkRSS singleton;
 
+	// Response counters, kept up to date by the built-in implementations
+	private final AtomicLong networkCount = new AtomicLong();
+	private final AtomicLong cacheHitCount = new AtomicLong();
+	private final AtomicLong conditionalHitCount = new AtomicLong();
+	private final AtomicLong staleCount = new AtomicLong();
+	private final AtomicLong errorCount = new AtomicLong();
+
 	/**
 	 * Clears the {@link Downloader} cache.
 	 * @return {@code true} if successful, {@code false} if otherwise.
@@ -32,6 +42,38 @@ public abstract class Downloader {
 	 */
 	public abstract String execute(Request request) throws IllegalArgumentException, IOException;
 
+	/**
+	 * Executes the specified request and returns the raw response stream.
+	 * <p>
+	 * This is what {@link PkRSS} uses to load feeds, as it allows the response to be parsed
+	 * while it is still being read. The default implementation simply wraps {@link #execute(Request)}
+	 * so override this if your Downloader is able to stream its responses.
+	 * @param request PkRSS Request object containing all necessary parameters.
+	 * @return A {@link FeedResponse} which must be closed by the caller.
+	 * @throws IllegalArgumentException
+	 * @throws IOException
+	 */
+	public FeedResponse executeStream(Request request) throws IllegalArgumentException, IOException {
+		return executeStream(request, null);
+	}
+
+	/**
+	 * Executes the specified request as a conditional request and returns the raw response stream.
+	 * <p>
+	 * If validators are passed, they should be sent as If-None-Match/If-Modified-Since headers and
+	 * {@link FeedResponse#notModified(CacheValidator)} returned should the server reply with 304.
+	 * The default implementation ignores the validators and simply wraps {@link #execute(Request)}.
+	 * @param request PkRSS Request object containing all necessary parameters.
+	 * @param validator Validators returned with the previous response for this URL. May be null.
+	 * @return A {@link FeedResponse} which must be closed by the caller.
+	 * @throws IllegalArgumentException
+	 * @throws IOException
+	 */
+	public FeedResponse executeStream(Request request, CacheValidator validator) throws IllegalArgumentException, IOException {
+		String response = execute(request);
+		return new FeedResponse(new ByteArrayInputStream(response.getBytes("UTF-8")), "UTF-8");
+	}
+
 	/**
 	 * Parses a request into a safe URL to be used for caching/tracking purposes.
 	 * <p>
@@ -51,6 +93,77 @@ public abstract class Downloader {
 	 */
 	public abstract String toUrl(Request request);
 
+	/**
+	 * Extracts the charset parameter out of a Content-Type header value.
+	 * @param contentType Content-Type header value. May be null.
+	 * @return The charset name or null if none was specified.
+	 */
+	protected static String charsetOf(String contentType) {
+		if (contentType == null)
+			return null;
+
+		for (String param : contentType.split(";")) {
+			param = param.trim();
+			if (param.regionMatches(true, 0, "charset=", 0, 8)) {
+				String charset = param.substring(8).trim();
+				if (charset.length() > 1 && charset.startsWith("\"") && charset.endsWith("\""))
+					charset = charset.substring(1, charset.length() - 1);
+				return charset.isEmpty() ? null : charset;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns how requests made so far were answered. Only the built-in downloaders keep track
+	 * of this, custom ones report nothing unless they override this method.
+	 * @return A snapshot of the response counters.
+	 */
+	public DownloaderStats stats() {
+		long network = networkCount.get();
+		long cacheHit = cacheHitCount.get();
+		long conditionalHit = conditionalHitCount.get();
+		long stale = staleCount.get();
+		long error = errorCount.get();
+		return new DownloaderStats(network + cacheHit + conditionalHit + stale + error, network, cacheHit, conditionalHit, stale, error);
+	}
+
+	final void countNetwork() {
+		networkCount.incrementAndGet();
+	}
+
+	final void countCacheHit() {
+		cacheHitCount.incrementAndGet();
+	}
+
+	final void countConditionalHit() {
+		conditionalHitCount.incrementAndGet();
+	}
+
+	final void countStale() {
+		staleCount.incrementAndGet();
+	}
+
+	final void countError() {
+		errorCount.incrementAndGet();
+	}
+
+	/**
+	 * Reads a stream to the end and closes it, such as to let a response be written to the cache.
+	 */
+	static void discard(InputStream stream) throws IOException {
+		try {
+			byte[] buffer = new byte[8192];
+			while (stream.read(buffer) != -1) {
+				// Nothing to do
+			}
+		}
+		finally {
+			stream.close();
+		}
+	}
+
 	/**
 	 * Attaches a {@link PkRSS} singleton instance to this Downloader for logging purposes.
 	 * @param singleton Singleton instance to attach to this Parser
@@ -4,11 +4,17 @@ import android.content.Context;
 import android.net.Uri;
 import android.util.Log;
 import com.pkmmte.pkrss.Request;
+import com.pkmmte.pkrss.Utils;
 import com.squareup.okhttp.Cache;
+import com.squareup.okhttp.CacheControl;
+import com.squareup.okhttp.Callback;
+import com.squareup.okhttp.MediaType;
 import com.squareup.okhttp.OkHttpClient;
 import com.squareup.okhttp.Response;
+import com.squareup.okhttp.ResponseBody;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.Charset;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -22,18 +28,20 @@ public class OkHttpDownloader extends Downloader {
 	// OkHttpClient & configuration
 	private final OkHttpClient client = new OkHttpClient();
 	private final String cacheDir = "/okhttp";
-	private final int cacheSize = 1024 * 1024;
-	private final int cacheMaxAge = 2 * 60 * 60;
-	private final long connectTimeout = 15;
-	private final long readTimeout = 45;
+	private final DownloaderConfig config;
 
 	public OkHttpDownloader(Context context) {
-		this.client.setConnectTimeout(connectTimeout, TimeUnit.SECONDS);
-		this.client.setReadTimeout(readTimeout, TimeUnit.SECONDS);
+		this(context, new DownloaderConfig.Builder().build());
+	}
+
+	public OkHttpDownloader(Context context, DownloaderConfig config) {
+		this.config = config;
+		this.client.setConnectTimeout(config.connectTimeout, TimeUnit.MILLISECONDS);
+		this.client.setReadTimeout(config.readTimeout, TimeUnit.MILLISECONDS);
 
 		try {
 			File cacheDir = new File(context.getCacheDir().getAbsolutePath() + this.cacheDir);
-			this.client.setCache(new Cache(cacheDir, cacheSize));
+			this.client.setCache(new Cache(cacheDir, config.cacheSize));
 		} catch (Exception e) {
 			Log.e(TAG, "Error configuring Downloader cache! \n" + e.getMessage());
 		}
@@ -51,6 +59,16 @@ public class OkHttpDownloader extends Downloader {
 
 	@Override
 	public String execute(Request request) throws IllegalArgumentException, IOException {
+		FeedResponse response = executeStream(request);
+		try {
+			return Utils.readStream(response.stream(), response.charset());
+		} finally {
+			response.close();
+		}
+	}
+
+	@Override
+	public FeedResponse executeStream(Request request, CacheValidator validator) throws IllegalArgumentException, IOException {
 		// Invalid URLs are a big no no
 		if (request.url == null || request.url.isEmpty()) {
 			throw new IllegalArgumentException("Invalid URL!");
@@ -59,39 +77,135 @@ public class OkHttpDownloader extends Downloader {
 		// Start tracking download time
 		long time = System.currentTimeMillis();
 
-		// Empty response string placeholder
-		String responseStr;
-
 		// Handle cache
-		int maxCacheAge = request.skipCache ? 0 : cacheMaxAge;
+		String cacheControl = config.cacheControl(request.skipCache);
 
 		// Build proper URL
 		String requestUrl = toUrl(request);
 
 		// Build the OkHttp request
-		com.squareup.okhttp.Request httpRequest = new com.squareup.okhttp.Request.Builder()
-			.addHeader("Cache-Control", "public, max-age=" + maxCacheAge)
-			.url(requestUrl)
-			.build();
+		com.squareup.okhttp.Request.Builder httpRequestBuilder = new com.squareup.okhttp.Request.Builder()
+			.addHeader("Cache-Control", cacheControl)
+			.url(requestUrl);
+
+		// Ask the server to skip the body if it hasn't changed since last time
+		if (validator != null) {
+			if (validator.getEtag() != null)
+				httpRequestBuilder.header("If-None-Match", validator.getEtag());
+			if (validator.getLastModified() != null)
+				httpRequestBuilder.header("If-Modified-Since", validator.getLastModified());
+		}
+		com.squareup.okhttp.Request httpRequest = httpRequestBuilder.build();
 
 		try {
 			// Execute the built request and log its data
-			log("Making a request to " + requestUrl + (request.skipCache ? " [SKIP-CACHE]" : " [MAX-AGE " + maxCacheAge + "]"));
+			log("Making a request to " + requestUrl + " [" + cacheControl + "]" + (validator != null ? " [CONDITIONAL]" : ""));
 			Response response = client.newCall(httpRequest).execute();
 
-			// Was this retrieved from cache?
-			if (response.cacheResponse() != null) log("Response retrieved from cache");
+			// Let errors fall back to the cache below
+			if (!response.isSuccessful() && response.code() != 304) {
+				response.body().close();
+				throw new HttpStatusException(response.code());
+			}
 
-			// Convert response body to a string
-			responseStr = response.body().string();
-			log(TAG, "Request download took " + (System.currentTimeMillis() - time) + "ms", Log.INFO);
+			// Was this retrieved from cache?
+			if (DownloaderConfig.isStale(response.header("Warning"))) {
+				log("Stale response retrieved from cache, revalidating in background");
+				countStale();
+				revalidate(requestUrl);
+			}
+			else if (response.networkResponse() == null) {
+				log("Response retrieved from cache");
+				countCacheHit();
+			}
+			else if (response.cacheResponse() != null) {
+				log("Response retrieved from cache after revalidating");
+				countConditionalHit();
+			}
+			else
+				countNetwork();
+
+			// Nothing else to read if the feed hasn't changed
+			CacheValidator newValidator = CacheValidator.from(response.header("ETag"), response.header("Last-Modified"));
+			if (response.code() == 304) {
+				log(TAG, "Feed not modified, request took " + (System.currentTimeMillis() - time) + "ms", Log.INFO);
+				response.body().close();
+				return FeedResponse.notModified(newValidator != null ? newValidator : validator);
+			}
+
+			log(TAG, "Request response took " + (System.currentTimeMillis() - time) + "ms", Log.INFO);
+			return response(response);
 		} catch (Exception e) {
 			log("Error executing/reading http request!", Log.ERROR);
 			e.printStackTrace();
+
+			// Settle for an expired copy rather than nothing at all
+			if (config.staleIfError > 0 && !request.skipCache) {
+				FeedResponse stale = openStale(requestUrl);
+				if (stale != null) {
+					log("Stale response retrieved from cache after error");
+					countStale();
+					return stale;
+				}
+			}
+
+			countError();
+			if (e instanceof HttpStatusException)
+				throw (HttpStatusException) e;
 			throw new IOException(e.getMessage());
 		}
+	}
+
+	/**
+	 * @return The cached response if it isn't older than allowed by staleIfError, null otherwise.
+	 */
+	private FeedResponse openStale(String requestUrl) {
+		com.squareup.okhttp.Request httpRequest = new com.squareup.okhttp.Request.Builder()
+			.header("Cache-Control", config.staleIfErrorCacheControl())
+			.url(requestUrl)
+			.build();
+
+		try {
+			Response response = client.newCall(httpRequest).execute();
+			if (!response.isSuccessful()) {
+				response.body().close();
+				return null;
+			}
+			return response(response);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Fetches a fresh copy of a stale response into the cache for next time.
+	 */
+	private void revalidate(final String requestUrl) {
+		com.squareup.okhttp.Request httpRequest = new com.squareup.okhttp.Request.Builder()
+			.cacheControl(CacheControl.FORCE_NETWORK)
+			.url(requestUrl)
+			.build();
+
+		client.newCall(httpRequest).enqueue(new Callback() {
+			@Override
+			public void onFailure(com.squareup.okhttp.Request request, IOException e) {
+				log("Error revalidating " + requestUrl + ": " + e.getMessage(), Log.WARN);
+			}
+
+			@Override
+			public void onResponse(Response response) throws IOException {
+				discard(response.body().byteStream());
+			}
+		});
+	}
 
-		return responseStr;
+	private static FeedResponse response(Response response) throws IOException {
+		// Hand over the body stream, leaving it open until the response is closed
+		CacheValidator validator = CacheValidator.from(response.header("ETag"), response.header("Last-Modified"));
+		ResponseBody body = response.body();
+		MediaType contentType = body.contentType();
+		Charset charset = contentType == null ? null : contentType.charset();
+		return new FeedResponse(body.byteStream(), charset == null ? null : charset.name(), body, validator);
 	}
 
 	@Override
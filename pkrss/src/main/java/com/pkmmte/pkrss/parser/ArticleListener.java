@@ -0,0 +1,15 @@
+package com.pkmmte.pkrss.parser;
+
+import com.pkmmte.pkrss.Article;
+
+/**
+ * Receives each {@link Article} as soon as a {@link Parser} finishes reading it,
+ * before the rest of the feed has been parsed.
+ */
+public interface ArticleListener {
+	/**
+	 * Called on the parsing thread once an item has been completely parsed.
+	 * @param article The newly parsed article.
+	 */
+	void onArticleParsed(Article article);
+}
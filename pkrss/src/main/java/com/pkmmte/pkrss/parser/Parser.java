@@ -2,7 +2,13 @@ package com.pkmmte.pkrss.parser;
 
 import android.util.Log;
 import com.pkmmte.pkrss.Article;
+import com.pkmmte.pkrss.FeedItem;
+import com.pkmmte.pkrss.Logger;
 import com.pkmmte.pkrss.PkRSS;
+import com.pkmmte.pkrss.Utils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -17,6 +23,21 @@ public abstract class Parser {
 	final String TAG = "Parser";
 	PkRSS singleton;
 
+	/**
+	 * Logger handing messages of the core {@link FeedReader}s over to {@link #log(String, String, int)}.
+	 */
+	final Logger logger = new Logger() {
+		@Override
+		public boolean isEnabled() {
+			return isLoggingEnabled();
+		}
+
+		@Override
+		public void log(String tag, String message, int level) {
+			Parser.this.log(tag, message, level);
+		}
+	};
+
 	/**
 	 * Parses {@link Article} objects out of the passed String response.
 	 * @param rssStream String response to parse items from.
@@ -24,6 +45,75 @@ public abstract class Parser {
 	 */
 	public abstract List<Article> parse(String rssStream);
 
+	/**
+	 * Parses {@link Article} objects out of the passed byte stream as it is being read.
+	 * <p>
+	 * The default implementation reads the entire stream into a String and hands it to
+	 * {@link #parse(String)}. Override this if your parser is able to read streams directly.
+	 * @param input Stream to parse items from. It will not be closed.
+	 * @param encoding Charset name of the stream. May be null if unknown.
+	 * @return An {@link Article} {@link List} containing newly parsed items.
+	 * @throws IOException
+	 */
+	public List<Article> parse(InputStream input, String encoding) throws IOException {
+		return parse(Utils.readStream(input, encoding));
+	}
+
+	/**
+	 * Same as {@link #parse(InputStream, String)} but also notifies the listener of each item
+	 * as soon as it has been parsed.
+	 * <p>
+	 * The default implementation only notifies the listener once the whole list has been parsed.
+	 * Override this if your parser is able to emit items incrementally.
+	 * @param input Stream to parse items from. It will not be closed.
+	 * @param encoding Charset name of the stream. May be null if unknown.
+	 * @param listener Listener to notify of each parsed item. May be null.
+	 * @return An {@link Article} {@link List} containing newly parsed items.
+	 * @throws IOException
+	 */
+	public List<Article> parse(InputStream input, String encoding, ArticleListener listener) throws IOException {
+		List<Article> articles = parse(input, encoding);
+		if (listener != null) {
+			for (Article article : articles)
+				listener.onArticleParsed(article);
+		}
+		return articles;
+	}
+
+	/**
+	 * Generates a stable id for the specified article out of its guid or, if missing, its
+	 * source link. Articles with neither fall back to their title and date.
+	 * <p>
+	 * Unlike {@link Article#hashCode()}, the id stays the same when the article's content
+	 * changes between loads, which is what allows duplicates to be detected.
+	 * @param article Article to generate an id for.
+	 * @return A non-negative id.
+	 */
+	protected int generateId(Article article) {
+		int id = FeedReader.stableId(article.getGuid(), article.getSourceUrl(), article.getTitle(), article.getDate());
+		return id >= 0 ? id : Math.abs(article.hashCode());
+	}
+
+	/**
+	 * Reads a feed through a core reader, wrapping each item into an {@link Article}.
+	 * @param feed Whole feed as a String.
+	 */
+	final List<Article> read(FeedReader reader, String feed) {
+		Wrapper wrapper = new Wrapper(null);
+		reader.read(feed, wrapper);
+		return wrapper.articles;
+	}
+
+	/**
+	 * Reads a feed out of a byte stream through a core reader, wrapping each item into an {@link Article}.
+	 * @param listener Listener to notify of each article as soon as it is read. May be null.
+	 */
+	final List<Article> read(FeedReader reader, InputStream input, String encoding, ArticleListener listener) {
+		Wrapper wrapper = new Wrapper(listener);
+		reader.read(input, encoding, wrapper);
+		return wrapper.articles;
+	}
+
 	/**
 	 * Attaches a {@link PkRSS} singleton instance to this Parser for logging purposes.
 	 * @param singleton Singleton instance to attach to this Parser
@@ -44,8 +134,15 @@ public abstract class Parser {
 		log(TAG, message, type);
 	}
 
+	/**
+	 * @return Whether log messages are actually written, so costly ones may be skipped.
+	 */
+	public final boolean isLoggingEnabled() {
+		return singleton != null && singleton.isLoggingEnabled();
+	}
+
 	public final void log(String tag, String message, int type) {
-		if(singleton == null || !singleton.isLoggingEnabled())
+		if(!isLoggingEnabled())
 			return;
 
 		switch(type) {
@@ -70,4 +167,28 @@ public abstract class Parser {
 				break;
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Wraps each item read into an Article, giving it an id through {@link #generateId(Article)}
+	 * so subclasses overriding it keep working.
+	 */
+	private final class Wrapper implements FeedReader.Listener {
+		final List<Article> articles = new ArrayList<Article>();
+		private final ArticleListener listener;
+
+		Wrapper(ArticleListener listener) {
+			this.listener = listener;
+		}
+
+		@Override
+		public void onItemParsed(FeedItem item) {
+			Article article = new Article(item);
+			article.setId(generateId(article));
+			articles.add(article);
+
+			// Emit it right away to anyone streaming this feed
+			if (listener != null)
+				listener.onArticleParsed(article);
+		}
+	}
+}
@@ -0,0 +1,152 @@
+package com.pkmmte.pkrss;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Vector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class MediaBlobTest {
+
+    @Test
+    public void testMediaContentRoundTrip() {
+        Article.MediaContent full = new Article.MediaContent("http://example.com/a.mp4", 1024, "video/mp4", "video", true,
+                "full", 128, 30, 44100, 2, 3600, 720, 1280, "en");
+        full.setFramerate(29.97f);
+        full.setDuration(Long.MAX_VALUE);
+        Article.MediaContent empty = new Article.MediaContent();
+
+        Vector<Article.MediaContent> decoded = Article.MediaContent.fromByteArray(
+                Article.MediaContent.toByteArray(new Vector<>(Arrays.asList(full, empty))));
+
+        assertNotNull(decoded);
+        assertEquals(2, decoded.size());
+        assertMediaContentEquals(full, decoded.get(0));
+        assertMediaContentEquals(empty, decoded.get(1));
+    }
+
+    @Test
+    public void testNoMediaContent() {
+        Vector<Article.MediaContent> decoded = Article.MediaContent.fromByteArray(Article.MediaContent.toByteArray(null));
+        assertNotNull(decoded);
+        assertEquals(0, decoded.size());
+        assertNull(Article.MediaContent.fromByteArray(null));
+    }
+
+    @Test
+    public void testSerializedMediaContent() throws IOException {
+        Article.MediaContent content = new Article.MediaContent("http://example.com/a.mp3", 1, "audio/mpeg", "audio", false,
+                "sample", 320, 0, 48000, 2, 60, 0, 0, null);
+        Vector<Article.MediaContent> vec = new Vector<>();
+        vec.add(content);
+
+        // As stored by older versions
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(vec);
+        out.close();
+
+        Vector<Article.MediaContent> decoded = Article.MediaContent.fromByteArray(bytes.toByteArray());
+        assertNotNull(decoded);
+        assertEquals(1, decoded.size());
+        assertMediaContentEquals(content, decoded.get(0));
+    }
+
+    @Test
+    public void testCorruptMediaContent() {
+        assertNull(Article.MediaContent.fromByteArray(new byte[] {1, 2, 3, 4}));
+    }
+
+    @Test
+    public void testBadMediaContentCount() throws IOException {
+        int[] counts = {-2, Integer.MIN_VALUE, 1000, Integer.MAX_VALUE};
+        for (int count : counts) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = header(bytes, 0x504D);
+            out.writeInt(count);
+            out.write(new byte[64]);
+            assertNull("Count " + count, Article.MediaContent.fromByteArray(bytes.toByteArray()));
+        }
+    }
+
+    @Test
+    public void testBadMediaContentLength() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = header(bytes, 0x504D);
+        out.writeInt(1);
+        out.writeInt(Integer.MAX_VALUE);
+        out.write(new byte[64]);
+        assertNull(Article.MediaContent.fromByteArray(bytes.toByteArray()));
+
+        // Valid blob cut short
+        byte[] valid = Article.MediaContent.toByteArray(new Vector<>(Arrays.asList(new Article.MediaContent())));
+        assertNull(Article.MediaContent.fromByteArray(Arrays.copyOf(valid, valid.length - 1)));
+    }
+
+    @Test
+    public void testBadEnclosureLength() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = header(bytes, 0x5045);
+        out.writeInt(-1);
+        out.writeInt(Integer.MAX_VALUE - 8);
+        out.write(new byte[64]);
+        assertNull(Enclosure.fromByteArray(bytes.toByteArray()));
+    }
+
+    @Test
+    public void testEnclosureRoundTrip() {
+        Enclosure enclosure = new Enclosure("http://example.com/episode.mp3", "123456789", "audio/mpeg");
+        Enclosure decoded = Enclosure.fromByteArray(Enclosure.toByteArray(enclosure));
+
+        assertNotNull(decoded);
+        assertEquals(enclosure.getUrl(), decoded.getUrl());
+        assertEquals(enclosure.getLength(), decoded.getLength());
+        assertEquals(enclosure.getMimeType(), decoded.getMimeType());
+    }
+
+    @Test
+    public void testEnclosureNullFields() {
+        Enclosure decoded = Enclosure.fromByteArray(Enclosure.toByteArray(new Enclosure(null, null, null)));
+        assertNotNull(decoded);
+        assertNull(decoded.getUrl());
+        assertNull(decoded.getMimeType());
+    }
+
+    @Test
+    public void testNoEnclosure() {
+        assertNull(Enclosure.toByteArray(null));
+        assertNull(Enclosure.fromByteArray(null));
+        assertNull(Enclosure.fromByteArray(Article.MediaContent.toByteArray(null)));
+    }
+
+    private static DataOutputStream header(ByteArrayOutputStream bytes, int magic) throws IOException {
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeShort(magic);
+        out.writeByte(1);
+        return out;
+    }
+
+    private static void assertMediaContentEquals(Article.MediaContent expected, Article.MediaContent actual) {
+        assertEquals(expected.getUrl(), actual.getUrl());
+        assertEquals(expected.getFileSize(), actual.getFileSize());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getMedium(), actual.getMedium());
+        assertEquals(expected.isDefault(), actual.isDefault());
+        assertEquals(expected.getExpression(), actual.getExpression());
+        assertEquals(expected.getBitrate(), actual.getBitrate());
+        assertEquals(expected.getFramerate(), actual.getFramerate(), 0);
+        assertEquals(expected.getSamplingrate(), actual.getSamplingrate(), 0);
+        assertEquals(expected.getChannels(), actual.getChannels());
+        assertEquals(expected.getDuration(), actual.getDuration());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getLang(), actual.getLang());
+    }
+}